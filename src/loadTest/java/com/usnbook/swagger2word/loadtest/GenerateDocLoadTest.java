@@ -0,0 +1,214 @@
+package com.usnbook.swagger2word.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Нагрузочный тест {@code /api/generate-doc}: приложение поднимается целиком на случайном порту,
+ * спецификации отдаёт локальный {@link StubSpecServer}.
+ * <p>
+ * Для каждого размера спецификации {@code concurrency} клиентов подряд отправляют запросы, пока не наберётся
+ * {@code requests}. Отчёт (пропускная способность, p50/p95/p99, доля ошибок, пик heap) печатается и
+ * пишется в {@code build/load-test/report.json}. Если есть базовый отчёт, пропускная способность и p95
+ * сравниваются с ним, и тест падает при деградации больше {@code tolerance}.
+ * <p>
+ * Параметры ({@code -Ploadtest.<имя>=...}): concurrency (8), requests (200), warmup (20),
+ * sizes (small,medium,large), baseline (src/loadTest/baseline.json), updateBaseline (false), tolerance (0.2).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.output-directory=build/load-test/docs",
+        "app.spec-cache.directory=build/load-test/spec-cache",
+        "logging.level.com.usnbook.swagger2word=WARN",
+        "logging.level.org.springframework.web.reactive.function.client=WARN"
+})
+class GenerateDocLoadTest {
+
+    private static final Path REPORT = Paths.get("build/load-test/report.json");
+
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 8);
+    private static final int REQUESTS = Integer.getInteger("loadtest.requests", 200);
+    private static final int WARMUP = Integer.getInteger("loadtest.warmup", 20);
+    private static final String SIZES = System.getProperty("loadtest.sizes", "small,medium,large");
+    private static final Path BASELINE = Paths.get(System.getProperty("loadtest.baseline", "src/loadTest/baseline.json"));
+    private static final boolean UPDATE_BASELINE = Boolean.getBoolean("loadtest.updateBaseline");
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("loadtest.tolerance", "0.2"));
+
+    private static StubSpecServer stub;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newCachedThreadPool())
+            .build();
+
+    @BeforeAll
+    static void startStub() throws Exception {
+        stub = new StubSpecServer(new ObjectMapper());
+    }
+
+    @AfterAll
+    static void stopStub() {
+        if (stub != null) stub.close();
+    }
+
+    @Test
+    void generateDocUnderLoad() throws Exception {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (String size : SIZES.split(",")) {
+            SyntheticSpecs spec = SyntheticSpecs.valueOf(size.trim().toUpperCase(Locale.ROOT));
+            URI uri = URI.create("http://localhost:" + port + "/api/generate-doc?url="
+                    + URLEncoder.encode(stub.url(spec), StandardCharsets.UTF_8));
+
+            run(uri, WARMUP);
+            Result result = run(uri, REQUESTS);
+            results.put(spec.name().toLowerCase(), result);
+            System.out.printf(Locale.ROOT,
+                    "%-6s spec %7d B: %7.2f req/s, p50 %6d ms, p95 %6d ms, p99 %6d ms, errors %5.1f%%, peak heap %5d MB%n",
+                    spec.name().toLowerCase(), stub.size(spec), result.throughput(), result.p50Millis(),
+                    result.p95Millis(), result.p99Millis(), result.errorRate() * 100, result.peakHeapBytes() >> 20);
+        }
+
+        Report report = new Report(CONCURRENCY, REQUESTS, Runtime.version().toString(), results);
+        ObjectMapper writer = objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT);
+        Files.createDirectories(REPORT.getParent());
+        writer.writeValue(REPORT.toFile(), report);
+        System.out.println("Load test report: " + REPORT.toAbsolutePath());
+
+        if (UPDATE_BASELINE) {
+            writer.writeValue(BASELINE.toFile(), report);
+            System.out.println("Baseline updated: " + BASELINE.toAbsolutePath());
+        } else if (Files.isRegularFile(BASELINE)) {
+            compareWithBaseline(objectMapper.readValue(BASELINE.toFile(), Report.class), report);
+        }
+
+        for (Map.Entry<String, Result> entry : results.entrySet()) {
+            assertTrue(entry.getValue().errorRate() < 0.01, "Error rate for " + entry.getKey() + " spec");
+        }
+    }
+
+    // === ПРОГОН ===
+    // Закрытая модель: каждый клиент отправляет следующий запрос только после ответа на предыдущий
+    private Result run(URI uri, int requests) throws Exception {
+        System.gc();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        AtomicLong peakHeap = new AtomicLong();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                0, 20, TimeUnit.MILLISECONDS);
+
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < CONCURRENCY; c++) {
+                futures.add(clients.submit(() -> {
+                    int index;
+                    while ((index = next.getAndIncrement()) < requests) {
+                        long requestStart = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(
+                                    HttpRequest.newBuilder(uri).timeout(Duration.ofMinutes(2)).GET().build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) errors.incrementAndGet();
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[index] = System.nanoTime() - requestStart;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            clients.shutdownNow();
+            sampler.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(requests * 1e9 / elapsed,
+                percentileMillis(latencies, 0.50),
+                percentileMillis(latencies, 0.95),
+                percentileMillis(latencies, 0.99),
+                requests > 0 ? (double) errors.get() / requests : 0,
+                peakHeap.get());
+    }
+
+    private static long percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(percentile * sorted.length) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, Math.min(rank, sorted.length - 1))]);
+    }
+
+    // === СРАВНЕНИЕ С БАЗОВЫМ ОТЧЁТОМ ===
+    private static void compareWithBaseline(Report baseline, Report current) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Result> entry : current.results().entrySet()) {
+            Result before = baseline.results().get(entry.getKey());
+            if (before == null) continue;
+            Result after = entry.getValue();
+
+            System.out.printf(Locale.ROOT, "%-6s vs baseline: throughput %+.1f%%, p95 %+.1f%%, peak heap %+.1f%%%n",
+                    entry.getKey(), change(before.throughput(), after.throughput()),
+                    change(before.p95Millis(), after.p95Millis()),
+                    change(before.peakHeapBytes(), after.peakHeapBytes()));
+
+            if (after.throughput() < before.throughput() * (1 - TOLERANCE)) {
+                regressions.add(entry.getKey() + ": throughput " + before.throughput() + " -> " + after.throughput());
+            }
+            if (after.p95Millis() > before.p95Millis() * (1 + TOLERANCE)) {
+                regressions.add(entry.getKey() + ": p95 " + before.p95Millis() + " ms -> " + after.p95Millis() + " ms");
+            }
+        }
+        if (!regressions.isEmpty()) {
+            fail("Regression against " + BASELINE + " (tolerance " + TOLERANCE + "):\n" + String.join("\n", regressions));
+        }
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) * 100 / before;
+    }
+
+    record Result(double throughput, long p50Millis, long p95Millis, long p99Millis, double errorRate,
+                  long peakHeapBytes) {
+    }
+
+    record Report(int concurrency, int requests, String javaVersion, Map<String, Result> results) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.usnbook.swagger2word.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Локальный HTTP-сервер со спецификациями {@link SyntheticSpecs}: нагрузочный тест не ходит в сеть.
+ * Отдаёт ETag и Last-Modified, как настоящие источники, и отвечает 304 на условные запросы.
+ */
+final class StubSpecServer implements AutoCloseable {
+
+    private static final String LAST_MODIFIED = "Mon, 01 Jan 2024 00:00:00 GMT";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final Map<SyntheticSpecs, byte[]> bodies = new EnumMap<>(SyntheticSpecs.class);
+
+    StubSpecServer(ObjectMapper mapper) throws Exception {
+        for (SyntheticSpecs spec : SyntheticSpecs.values()) {
+            bodies.put(spec, spec.toJson(mapper));
+        }
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        for (SyntheticSpecs spec : SyntheticSpecs.values()) {
+            server.createContext(spec.path(), exchange -> serve(exchange, spec));
+        }
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String url(SyntheticSpecs spec) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + spec.path();
+    }
+
+    int size(SyntheticSpecs spec) {
+        return bodies.get(spec).length;
+    }
+
+    private void serve(HttpExchange exchange, SyntheticSpecs spec) throws IOException {
+        try {
+            byte[] body = bodies.get(spec);
+            String etag = "\"" + spec.name().toLowerCase() + "-" + body.length + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
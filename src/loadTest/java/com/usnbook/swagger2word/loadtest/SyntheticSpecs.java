@@ -0,0 +1,125 @@
+package com.usnbook.swagger2word.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Random;
+
+/**
+ * Синтетические OpenAPI-спецификации заданного размера. Генерация детерминирована (фиксированный seed),
+ * так что прогоны на разных машинах и версиях зависимостей сравнимы.
+ */
+enum SyntheticSpecs {
+
+    SMALL(10, 8, 6),
+    MEDIUM(100, 60, 12),
+    LARGE(500, 250, 20);
+
+    private static final String[] TAGS = {"users", "orders", "billing", "catalog", "inventory", "reports"};
+    private static final String[] TYPES = {"string", "integer", "number", "boolean"};
+    private static final String[] FORMATS = {"date-time", "int64", "double", "uuid", null};
+
+    final int paths;
+    final int schemas;
+    final int propertiesPerSchema;
+
+    SyntheticSpecs(int paths, int schemas, int propertiesPerSchema) {
+        this.paths = paths;
+        this.schemas = schemas;
+        this.propertiesPerSchema = propertiesPerSchema;
+    }
+
+    String path() {
+        return "/specs/" + name().toLowerCase();
+    }
+
+    byte[] toJson(ObjectMapper mapper) throws Exception {
+        Random random = new Random(42L * (ordinal() + 1));
+        ObjectNode root = mapper.createObjectNode();
+        root.put("openapi", "3.0.1");
+        ObjectNode info = root.putObject("info");
+        info.put("title", "Load Test API " + name());
+        info.put("version", "1.0.0");
+        info.put("description", "Синтетическая спецификация для нагрузочного теста");
+        root.putArray("servers").addObject().put("url", "http://localhost/api");
+
+        ArrayNode tags = root.putArray("tags");
+        for (String tag : TAGS) {
+            tags.addObject().put("name", tag).put("description", "Операции " + tag);
+        }
+
+        ObjectNode paths = root.putObject("paths");
+        for (int i = 0; i < this.paths; i++) {
+            String tag = TAGS[i % TAGS.length];
+            ObjectNode pathItem = paths.putObject("/" + tag + "/resource" + i + "/{id}");
+            String model = schemaName(random.nextInt(schemas));
+
+            ObjectNode get = operation(pathItem.putObject("get"), tag, "get" + i, model, random);
+            get.putArray("parameters").addAll(parameters(mapper, random));
+
+            ObjectNode post = operation(pathItem.putObject("post"), tag, "post" + i, model, random);
+            post.putObject("requestBody").put("required", true)
+                    .putObject("content").putObject("application/json")
+                    .putObject("schema").put("$ref", "#/components/schemas/" + model);
+        }
+
+        ObjectNode schemas = root.putObject("components").putObject("schemas");
+        for (int i = 0; i < this.schemas; i++) {
+            ObjectNode schema = schemas.putObject(schemaName(i));
+            schema.put("type", "object");
+            schema.put("description", "Модель " + i);
+            ArrayNode required = schema.putArray("required");
+            ObjectNode properties = schema.putObject("properties");
+            for (int p = 0; p < propertiesPerSchema; p++) {
+                String name = "field" + p;
+                ObjectNode property = properties.putObject(name);
+                int kind = random.nextInt(10);
+                if (kind == 0 && i > 0) {
+                    property.put("$ref", "#/components/schemas/" + schemaName(random.nextInt(i)));
+                } else if (kind == 1 && i > 0) {
+                    property.put("type", "array");
+                    property.putObject("items").put("$ref", "#/components/schemas/" + schemaName(random.nextInt(i)));
+                } else {
+                    property.put("type", TYPES[random.nextInt(TYPES.length)]);
+                    String format = FORMATS[random.nextInt(FORMATS.length)];
+                    if (format != null) property.put("format", format);
+                    property.put("description", "Поле " + p + " модели " + i);
+                }
+                if (random.nextBoolean()) required.add(name);
+            }
+        }
+        return mapper.writeValueAsBytes(root);
+    }
+
+    private ObjectNode operation(ObjectNode operation, String tag, String operationId, String model, Random random) {
+        operation.putArray("tags").add(tag);
+        operation.put("operationId", operationId);
+        operation.put("summary", "Операция " + operationId);
+        operation.put("description", "Описание операции " + operationId);
+        if (random.nextInt(20) == 0) operation.put("deprecated", true);
+
+        ObjectNode responses = operation.putObject("responses");
+        responses.putObject("200").put("description", "OK")
+                .putObject("content").putObject("application/json")
+                .putObject("schema").put("$ref", "#/components/schemas/" + model);
+        responses.putObject("404").put("description", "Не найдено");
+        return operation;
+    }
+
+    private ArrayNode parameters(ObjectMapper mapper, Random random) {
+        ArrayNode parameters = mapper.createArrayNode();
+        parameters.addObject().put("name", "id").put("in", "path").put("required", true)
+                .put("description", "Идентификатор").putObject("schema").put("type", "string");
+        int extra = random.nextInt(4);
+        for (int i = 0; i < extra; i++) {
+            parameters.addObject().put("name", "filter" + i).put("in", "query")
+                    .put("description", "Фильтр " + i).putObject("schema").put("type", TYPES[random.nextInt(TYPES.length)]);
+        }
+        return parameters;
+    }
+
+    private static String schemaName(int index) {
+        return "Model" + index;
+    }
+}
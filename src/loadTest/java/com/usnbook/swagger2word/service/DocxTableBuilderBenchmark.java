@@ -0,0 +1,44 @@
+package com.usnbook.swagger2word.service;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static com.usnbook.swagger2word.service.DocxTableFixture.buildDirect;
+import static com.usnbook.swagger2word.service.DocxTableFixture.buildLegacy;
+
+/**
+ * Время построения таблицы через {@link DocxTableBuilder} и прежним путём (createRow + setText + стилизация).
+ * Только отчёт: сравнение зависит от машины и JIT, порога нет. Запуск: {@code ./gradlew loadTest}.
+ */
+class DocxTableBuilderBenchmark {
+
+    private static final int ROWS = 2000;
+
+    @Test
+    void directTableVersusXwpfTable() {
+        for (int warmup = 0; warmup < 10; warmup++) {
+            buildDirect(new XWPFDocument(), ROWS);
+            buildLegacy(new XWPFDocument(), ROWS);
+        }
+
+        long direct = 0;
+        long legacy = 0;
+        int iterations = 20;
+        for (int i = 0; i < iterations; i++) {
+            XWPFDocument document = new XWPFDocument();
+            long start = System.nanoTime();
+            buildDirect(document, ROWS);
+            direct += System.nanoTime() - start;
+
+            document = new XWPFDocument();
+            start = System.nanoTime();
+            buildLegacy(document, ROWS);
+            legacy += System.nanoTime() - start;
+        }
+
+        System.out.printf(Locale.ROOT, "%d rows: DocxTableBuilder %.2f ms, XWPFTable %.2f ms per table%n", ROWS,
+                direct / 1e6 / iterations, legacy / 1e6 / iterations);
+    }
+}
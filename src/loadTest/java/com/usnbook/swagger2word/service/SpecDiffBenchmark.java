@@ -0,0 +1,74 @@
+package com.usnbook.swagger2word.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнение двух спецификаций по 10 000 путей должно занимать заметно меньше секунды.
+ * Запуск: {@code ./gradlew loadTest}.
+ */
+class SpecDiffBenchmark {
+
+    private static final int PATHS = 10_000;
+    private static final double MAX_MILLIS_PER_DIFF = 1000;
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final SpecDiffService diffService = new SpecDiffService(mapper);
+
+    @Test
+    void diffOfLargeSpecsStaysUnderOneSecond() throws Exception {
+        OpenApiSpec before = spec(false);
+        OpenApiSpec after = spec(true);
+        for (int warmup = 0; warmup < 5; warmup++) {
+            diffService.diff(before, after);
+        }
+
+        int iterations = 10;
+        SpecDiffService.Changelog changelog = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            changelog = diffService.diff(before, after);
+        }
+        double millisPerDiff = (System.nanoTime() - start) / 1e6 / iterations;
+        System.out.printf("%d paths: %.2f ms per diff%n", PATHS, millisPerDiff);
+
+        assertEquals(PATHS / 100, changelog.getOperations().size());
+        assertTrue(millisPerDiff < MAX_MILLIS_PER_DIFF, String.format("%.2f ms per diff", millisPerDiff));
+    }
+
+    // Каждая сотая операция во второй версии помечена устаревшей
+    private OpenApiSpec spec(boolean changed) throws Exception {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("openapi", "3.0.1");
+        root.putObject("info").put("title", "Benchmark API").put("version", changed ? "2.0.0" : "1.0.0");
+
+        ObjectNode pathItems = root.putObject("paths");
+        for (int i = 0; i < PATHS; i++) {
+            ObjectNode get = pathItems.putObject("/resource" + i).putObject("get");
+            get.put("summary", "Операция " + i);
+            if (changed && i % 100 == 0) get.put("deprecated", true);
+
+            get.putArray("parameters").addObject()
+                    .put("name", "id").put("in", "query")
+                    .putObject("schema").put("type", "string");
+            get.putObject("responses").putObject("200").put("description", "OK")
+                    .putObject("content").putObject("application/json")
+                    .putObject("schema").put("$ref", "#/components/schemas/Model" + (i % 10));
+        }
+
+        ObjectNode schemas = root.putObject("components").putObject("schemas");
+        for (int i = 0; i < 10; i++) {
+            ObjectNode properties = schemas.putObject("Model" + i).put("type", "object").putObject("properties");
+            properties.putObject("name").put("type", "string");
+            properties.putObject("count").put("type", "integer");
+        }
+        return mapper.treeToValue(root, OpenApiSpec.class);
+    }
+}
@@ -0,0 +1,32 @@
+package com.usnbook.swagger2word.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Проверка спецификации перед рендером ({@code app.lint}): включение, строгий режим и уровни правил.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.lint")
+public class LintProperties {
+
+    private boolean enabled = true;
+
+    // Ошибки проверки прерывают генерацию отчётом вместо документа; запрос может переопределить параметром strict
+    private boolean strict = false;
+
+    // С какого числа путей (моделей) они проверяются параллельно - на маленьких спецификациях это дороже
+    private int parallelThreshold = 256;
+
+    // Уровень по имени правила (dangling-ref: warning); правила без записи - с уровнем по умолчанию
+    private Map<String, Severity> severity = new HashMap<>();
+
+    public enum Severity {
+        ERROR, WARNING, OFF
+    }
+}
@@ -0,0 +1,37 @@
+package com.usnbook.swagger2word.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Фоновый опрос спецификаций ({@code app.watch}): список URL с интервалами и ограничения планировщика.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.watch")
+public class WatchProperties {
+
+    private List<Spec> specs = new ArrayList<>();
+
+    private Duration defaultInterval = Duration.ofMinutes(5);
+
+    // Интервалы короче не принимаются - защита от случайного "1s" для сотен спецификаций
+    private Duration minInterval = Duration.ofSeconds(30);
+
+    // Сколько спецификаций одновременно скачивается и рендерится
+    private int maxConcurrency = 4;
+
+    // Разброс интервала: 0.2 - следующий опрос через interval ± 20%
+    private double jitter = 0.2;
+
+    @Data
+    public static class Spec {
+        private String url;
+        private Duration interval;
+    }
+}
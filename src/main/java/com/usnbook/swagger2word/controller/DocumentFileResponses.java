@@ -0,0 +1,89 @@
+package com.usnbook.swagger2word.controller;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ответ с готовым .docx (или другим артефактом генерации) с диска без загрузки файла в память.
+ * <p>
+ * Тело - {@link FileSystemResource}: Spring копирует его в ответ через буфер фиксированного размера,
+ * сам обрабатывает {@code Range} (206 / 416) и условные запросы по ETag / Last-Modified (304).
+ * {@code If-Range} Spring не проверяет - при несовпадении валидатора отдаём файл целиком через
+ * {@link InputStreamResource}, для которого диапазоны не применяются.
+ * <p>
+ * У воспроизводимых документов имя заканчивается началом хэша содержимого: он и есть сильный ETag,
+ * а Last-Modified не отдаётся - время изменения файла ничего не говорит о версии документа.
+ */
+final class DocumentFileResponses {
+
+    // <заголовок>_API_Documentation_<16 hex>.docx - имя по хэшу содержимого (deterministic=true)
+    private static final Pattern CONTENT_HASH_NAME = Pattern.compile("_([0-9a-f]{16})\\.docx$");
+
+    private DocumentFileResponses() {
+    }
+
+    static ResponseEntity<Resource> docx(Path file, HttpHeaders requestHeaders) throws IOException {
+        return file(file, MediaType.APPLICATION_OCTET_STREAM, requestHeaders);
+    }
+
+    static ResponseEntity<Resource> file(Path file, MediaType contentType, HttpHeaders requestHeaders)
+            throws IOException {
+        Matcher contentHash = CONTENT_HASH_NAME.matcher(file.getFileName().toString());
+        String etag;
+        // -1 - Last-Modified не отдаётся, If-Range с датой не совпадает никогда
+        long lastModified;
+        if (contentHash.find()) {
+            etag = "\"" + contentHash.group(1) + "\"";
+            lastModified = -1;
+        } else {
+            // Имя с временем генерации: размер и время изменения задают версию файла
+            long size = Files.size(file);
+            lastModified = Files.getLastModifiedTime(file).toMillis();
+            etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(size) + "\"";
+        }
+
+        // Content-Length не задаём: для диапазонов его выставляет сам Spring
+        Resource body = new FileSystemResource(file);
+        if (requestHeaders.getFirst(HttpHeaders.RANGE) != null && !ifRangeMatches(requestHeaders, etag, lastModified)) {
+            body = new InputStreamResource(Files.newInputStream(file));
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(contentType)
+                .eTag(etag);
+        if (lastModified >= 0) {
+            response.lastModified(lastModified);
+        }
+        return response.body(body);
+    }
+
+    // If-Range: сильный ETag или HTTP-дата, совпадающая с Last-Modified с точностью до секунды
+    private static boolean ifRangeMatches(HttpHeaders requestHeaders, String etag, long lastModified) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null) return true;
+
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        if (lastModified < 0) return false;
+        try {
+            long date = requestHeaders.getFirstDate(HttpHeaders.IF_RANGE);
+            return date / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -1,23 +1,56 @@
 package com.usnbook.swagger2word.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+import com.usnbook.swagger2word.model.RenderOptions;
 import com.usnbook.swagger2word.service.ApiDocsService;
+import com.usnbook.swagger2word.service.RenderBudget;
+import com.usnbook.swagger2word.service.RenderCoordinator;
+import com.usnbook.swagger2word.service.RenderLanes;
+import com.usnbook.swagger2word.service.RenderProfile;
+import com.usnbook.swagger2word.service.RenderProgress;
+import com.usnbook.swagger2word.service.SpecCacheService;
+import com.usnbook.swagger2word.service.SpecDiffService;
+import com.usnbook.swagger2word.service.SpecLinter;
+import com.usnbook.swagger2word.service.SpecMergeService;
+import com.usnbook.swagger2word.service.SpecUrls;
+import com.usnbook.swagger2word.service.SpecWatchService;
+import com.usnbook.swagger2word.service.TextDocumentService;
 import com.usnbook.swagger2word.service.WordDocumentService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/generate-doc")
@@ -25,66 +58,466 @@ public class DocumentationController {
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentationController.class);
 
+    private static final String PROFILE_SUFFIX = ".profile.json";
+    private static final String PROFILE_HEADER = "X-Render-Profile";
+    private static final String PROFILE_LOCATION_HEADER = "X-Render-Profile-Location";
+
+    @Value("${app.output-directory:./generated-docs}")
+    private String outputDirectory;
+
+    // Не чаще одного события хода генерации за интервал внутри этапа
+    @Value("${app.progress.interval:250ms}")
+    private Duration progressInterval;
+
     private final ApiDocsService apiDocsService;
     private final WordDocumentService wordDocumentService;
+    private final TextDocumentService textDocumentService;
+    private final SpecWatchService specWatchService;
+    private final RenderCoordinator renderCoordinator;
+    private final RenderLanes renderLanes;
+    private final SpecMergeService specMergeService;
+    private final SpecDiffService specDiffService;
+    private final SpecLinter specLinter;
+    private final ObjectMapper objectMapper;
 
     public DocumentationController(ApiDocsService apiDocsService,
-                                   WordDocumentService wordDocumentService) {
+                                   WordDocumentService wordDocumentService,
+                                   TextDocumentService textDocumentService,
+                                   SpecWatchService specWatchService,
+                                   RenderCoordinator renderCoordinator,
+                                   RenderLanes renderLanes,
+                                   SpecMergeService specMergeService,
+                                   SpecDiffService specDiffService,
+                                   SpecLinter specLinter,
+                                   ObjectMapper objectMapper) {
         this.apiDocsService = apiDocsService;
         this.wordDocumentService = wordDocumentService;
+        this.textDocumentService = textDocumentService;
+        this.specWatchService = specWatchService;
+        this.renderCoordinator = renderCoordinator;
+        this.renderLanes = renderLanes;
+        this.specMergeService = specMergeService;
+        this.specDiffService = specDiffService;
+        this.specLinter = specLinter;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public Mono<ResponseEntity<byte[]>> generateDocumentation(@RequestParam(required = false) String url) {
-        if (url == null || url.trim().isEmpty()) {
+    public Mono<ResponseEntity<Resource>> generateDocumentation(@RequestParam(required = false) String url,
+                                                                RenderOptions options,
+                                                                @RequestParam(defaultValue = "false") boolean profile,
+                                                                @RequestParam(required = false) Boolean strict,
+                                                                @RequestHeader HttpHeaders requestHeaders) {
+        String urlError = urlError(url);
+        if (urlError != null) {
+            return Mono.just(errorResponse(HttpStatus.BAD_REQUEST, urlError));
+        }
+
+        // Опрашиваемая спецификация с параметрами по умолчанию - отдаём заранее собранный документ
+        if (RenderOptions.defaults().equals(options) && !profile) {
+            Optional<Path> prebuilt = specWatchService.findPrebuilt(url);
+            if (prebuilt.isPresent()) {
+                try {
+                    ResponseEntity<Resource> response = DocumentFileResponses.docx(prebuilt.get(), requestHeaders);
+                    logger.info("Serving pre-rendered document for URL: {}", url);
+                    return Mono.just(response);
+                } catch (IOException e) {
+                    // Файл мог быть заменён новым рендером - генерируем как обычно
+                    logger.debug("Pre-rendered document unavailable for URL: {}: {}", url, e.getMessage());
+                }
+            }
+        }
+
+        RenderProfile renderProfile = profile ? RenderProfile.start() : RenderProfile.disabled();
+        boolean strictLint = strict != null ? strict : specLinter.isStrict();
+        return apiDocsService.fetchSpec(url, renderProfile)
+                .flatMap(fetched -> {
+                    OpenApiSpec apiSpec = fetched.spec();
+                    // Сломанная спецификация в строгом режиме отклоняется до дорогого рендера
+                    specLinter.check(apiSpec, strictLint);
+                    logger.info("Generating Word document for API: {} from URL: {}", apiSpec.getInfo().getTitle(), url);
+
+                    // Рендер - в полосе по стоимости спецификации. В кластере с общим каталогом одна версия
+                    // рендерится одним узлом; для профиля нужен настоящий рендер, а не готовый файл
+                    if (renderProfile.isEnabled()) {
+                        return renderLanes.submit(apiSpec,
+                                () -> wordDocumentService.generateWordDocument(fetched, options, renderProfile));
+                    }
+                    return renderCoordinator.render(fetched.contentHash(), options,
+                            job -> renderLanes.submit(apiSpec, job),
+                            () -> wordDocumentService.generateWordDocument(fetched, options));
+                })
+                .map(filePath -> {
+                    HttpHeaders profileHeaders = new HttpHeaders();
+                    if (renderProfile.isEnabled()) {
+                        addProfile(profileHeaders, Paths.get(filePath), url, renderProfile);
+                    }
+                    ResponseEntity<Resource> response = documentResponse(filePath, requestHeaders, profileHeaders);
+                    logger.info("Document generated successfully: {}", Paths.get(filePath).getFileName());
+                    return response;
+                })
+                .onErrorResume(e -> {
+                    if (e instanceof SpecLinter.LintFailedException lintFailed) {
+                        logger.warn("Specification from URL {} rejected by lint: {}", url, e.getMessage());
+                        return Mono.just(lintErrorResponse(lintFailed.getReport()));
+                    }
+                    if (e instanceof RenderBudget.ExceededException) {
+                        logger.warn("Render for URL {} aborted by render budget: {}", url, e.getMessage());
+                        return Mono.just(errorResponse(HttpStatus.UNPROCESSABLE_ENTITY, "Error: " + e.getMessage()));
+                    }
+                    logger.error("Error in documentation generation from URL: {}", url, e);
+                    return Mono.just(errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Error: " + e.getMessage()));
+                });
+    }
+
+    /**
+     * Генерация с ходом выполнения (text/event-stream): события {@code progress} (этап, сделано, всего),
+     * затем {@code done} со ссылкой на документ или {@code error}. Документ скачивается по ссылке.
+     */
+    @GetMapping(value = "/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> generateDocumentationWithProgress(@RequestParam(required = false) String url,
+                                                                           RenderOptions options,
+                                                                           @RequestParam(required = false) Boolean strict) {
+        String urlError = urlError(url);
+        if (urlError != null) {
+            return Flux.just(errorEvent(urlError));
+        }
+
+        if (RenderOptions.defaults().equals(options)) {
+            Optional<Path> prebuilt = specWatchService.findPrebuilt(url);
+            if (prebuilt.isPresent()) {
+                logger.info("Serving pre-rendered document for URL: {}", url);
+                return Flux.just(doneEvent(prebuilt.get()));
+            }
+        }
+
+        boolean strictLint = strict != null ? strict : specLinter.isStrict();
+        return Flux.create(sink -> {
+            RenderProgress progress = RenderProgress.to(
+                    event -> sink.next(ServerSentEvent.<Object>builder(event).event("progress").build()),
+                    progressInterval);
+
+            Disposable generation = apiDocsService.fetchSpec(url, RenderProfile.disabled(), progress)
+                    .flatMap(fetched -> {
+                        specLinter.check(fetched.spec(), strictLint);
+                        logger.info("Generating Word document with progress for API: {} from URL: {}",
+                                fetched.spec().getInfo().getTitle(), url);
+                        return renderCoordinator.render(fetched.contentHash(), options,
+                                job -> renderLanes.submit(fetched.spec(), job),
+                                () -> wordDocumentService.generateWordDocument(fetched, options,
+                                        RenderProfile.disabled(), progress));
+                    })
+                    .subscribe(filePath -> {
+                        sink.next(doneEvent(Paths.get(filePath)));
+                        sink.complete();
+                    }, e -> {
+                        if (e instanceof SpecLinter.LintFailedException lintFailed) {
+                            logger.warn("Specification from URL {} rejected by lint: {}", url, e.getMessage());
+                            sink.next(ServerSentEvent.<Object>builder(lintFailed.getReport()).event("lint").build());
+                        } else if (e instanceof RenderBudget.ExceededException) {
+                            logger.warn("Render for URL {} aborted by render budget: {}", url, e.getMessage());
+                        } else {
+                            logger.error("Error in documentation generation from URL: {}", url, e);
+                        }
+                        sink.next(errorEvent("Error: " + e.getMessage()));
+                        sink.complete();
+                    });
+            // Клиент ушёл - загрузку прерываем; начатый рендер доработает, но события уже никому не нужны
+            sink.onDispose(generation);
+        });
+    }
+
+    private static ServerSentEvent<Object> doneEvent(Path document) {
+        String fileName = document.getFileName().toString();
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("fileName", fileName);
+        data.put("url", "/api/generate-doc/files/" + fileName);
+        return ServerSentEvent.<Object>builder(data).event("done").build();
+    }
+
+    private static ServerSentEvent<Object> errorEvent(String message) {
+        return ServerSentEvent.<Object>builder(Map.of("message", message)).event("error").build();
+    }
+
+    // Сводный документ по нескольким сервисам: ?url=...&url=...[&title=...]
+    @GetMapping("/merge")
+    public Mono<ResponseEntity<Resource>> generateMergedDocumentation(@RequestParam(name = "url", required = false) List<String> urls,
+                                                                      @RequestParam(required = false) String title,
+                                                                      RenderOptions options,
+                                                                      @RequestParam(required = false) Boolean strict,
+                                                                      @RequestHeader HttpHeaders requestHeaders) {
+        List<String> distinctUrls = urls == null ? List.of() : urls.stream()
+                .filter(url -> url != null && !url.trim().isEmpty())
+                .map(String::trim)
+                .distinct()
+                .toList();
+        if (distinctUrls.isEmpty()) {
             logger.warn("URL parameter is missing");
-            return Mono.just(ResponseEntity.badRequest()
-                    .contentType(MediaType.TEXT_PLAIN)
-                    .body("Error: URL parameter is required".getBytes()));
+            return Mono.just(errorResponse(HttpStatus.BAD_REQUEST, "Error: URL parameter is required"));
+        }
+        if (distinctUrls.size() > specMergeService.getMaxSpecs()) {
+            logger.warn("Too many specs to merge: {}", distinctUrls.size());
+            return Mono.just(errorResponse(HttpStatus.BAD_REQUEST,
+                    "Error: Too many URLs, at most " + specMergeService.getMaxSpecs() + " allowed"));
+        }
+        for (String url : distinctUrls) {
+            String urlError = urlError(url);
+            if (urlError != null) {
+                return Mono.just(errorResponse(HttpStatus.BAD_REQUEST, urlError));
+            }
+        }
+
+        boolean strictLint = strict != null ? strict : specLinter.isStrict();
+        return specMergeService.fetchMerged(distinctUrls, title)
+                .flatMap(fetched -> {
+                    // Проверяется сводная спецификация: висячие $ref и конфликты видны только после слияния
+                    specLinter.check(fetched.spec(), strictLint);
+                    logger.info("Generating merged Word document for {} specs", distinctUrls.size());
+                    return renderCoordinator.render(fetched.contentHash(), options,
+                            job -> renderLanes.submit(fetched.spec(), job),
+                            () -> wordDocumentService.generateWordDocument(fetched, options));
+                })
+                .map(filePath -> documentResponse(filePath, requestHeaders))
+                .onErrorResume(e -> {
+                    if (e instanceof SpecLinter.LintFailedException lintFailed) {
+                        logger.warn("Merged specification from URLs {} rejected by lint: {}", distinctUrls, e.getMessage());
+                        return Mono.just(lintErrorResponse(lintFailed.getReport()));
+                    }
+                    if (e instanceof RenderBudget.ExceededException) {
+                        logger.warn("Merged render for URLs {} aborted by render budget: {}", distinctUrls, e.getMessage());
+                        return Mono.just(errorResponse(HttpStatus.UNPROCESSABLE_ENTITY, "Error: " + e.getMessage()));
+                    }
+                    logger.error("Error in merged documentation generation from URLs: {}", distinctUrls, e);
+                    return Mono.just(errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Error: " + e.getMessage()));
+                });
+    }
+
+    // Журнал изменений между двумя версиями спецификации: ?from=<старая>&to=<новая>
+    @GetMapping("/changelog")
+    public Mono<ResponseEntity<Resource>> generateChangelog(@RequestParam(required = false) String from,
+                                                            @RequestParam(required = false) String to,
+                                                            RenderOptions options,
+                                                            @RequestHeader HttpHeaders requestHeaders) {
+        if (from == null || from.trim().isEmpty() || to == null || to.trim().isEmpty()) {
+            logger.warn("Changelog URL parameters are missing");
+            return Mono.just(errorResponse(HttpStatus.BAD_REQUEST, "Error: 'from' and 'to' parameters are required"));
+        }
+        for (String url : List.of(from, to)) {
+            String urlError = urlError(url);
+            if (urlError != null) {
+                return Mono.just(errorResponse(HttpStatus.BAD_REQUEST, urlError));
+            }
+        }
+
+        return Mono.zip(apiDocsService.fetchSpec(from), apiDocsService.fetchSpec(to))
+                .flatMap(specs -> {
+                    ApiDocsService.FetchedSpec previous = specs.getT1();
+                    ApiDocsService.FetchedSpec current = specs.getT2();
+
+                    // Ключ рендера - пара версий: тот же журнал не пересобирается другими узлами
+                    String changelogHash = SpecCacheService.contentHash(("changelog\n" + previous.contentHash()
+                            + "\n" + current.contentHash()).getBytes(StandardCharsets.UTF_8));
+                    // Сравнение и рендер - в полосе по суммарной стоимости обеих версий
+                    return renderCoordinator.render(changelogHash, options,
+                            job -> renderLanes.submit(List.of(previous.spec(), current.spec()), job), () -> {
+                                SpecDiffService.Changelog changelog = specDiffService.diff(previous.spec(), current.spec());
+                                logger.info("Generating changelog with {} changes from {} to {}", changelog.size(), from, to);
+                                return wordDocumentService.generateChangelogDocument(changelog, previous, current, options);
+                            });
+                })
+                .map(filePath -> documentResponse(filePath, requestHeaders))
+                .onErrorResume(e -> {
+                    if (e instanceof RenderBudget.ExceededException) {
+                        logger.warn("Changelog render from {} to {} aborted by render budget: {}", from, to, e.getMessage());
+                        return Mono.just(errorResponse(HttpStatus.UNPROCESSABLE_ENTITY, "Error: " + e.getMessage()));
+                    }
+                    logger.error("Error in changelog generation from {} to {}", from, to, e);
+                    return Mono.just(errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Error: " + e.getMessage()));
+                });
+    }
+
+    // Ранее сгенерированный файл из app.output-directory; поддерживает Range / If-Range для докачки
+    @GetMapping("/files/{fileName:.+}")
+    public ResponseEntity<Resource> downloadDocument(@PathVariable String fileName,
+                                                     @RequestHeader HttpHeaders requestHeaders) {
+        Path directory = Paths.get(outputDirectory).toAbsolutePath().normalize();
+        Path file = directory.resolve(fileName).normalize();
+        boolean profileSidecar = fileName.endsWith(PROFILE_SUFFIX);
+        if (!directory.equals(file.getParent()) || !(fileName.endsWith(".docx") || profileSidecar)) {
+            logger.warn("Rejected document download outside output directory: {}", fileName);
+            return errorResponse(HttpStatus.BAD_REQUEST, "Error: Invalid file name: " + fileName);
+        }
+        if (!Files.isRegularFile(file)) {
+            return errorResponse(HttpStatus.NOT_FOUND, "Error: Document not found: " + fileName);
+        }
+
+        try {
+            return profileSidecar
+                    ? DocumentFileResponses.file(file, MediaType.APPLICATION_JSON, requestHeaders)
+                    : DocumentFileResponses.docx(file, requestHeaders);
+        } catch (IOException e) {
+            logger.error("Failed to read document: {}", file, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Error: " + e.getMessage());
+        }
+    }
+
+    // Готовый документ: потоком с диска (Range, условные запросы), Content-Location - адрес сохранённого файла,
+    // с которого можно докачать по Range
+    private static ResponseEntity<Resource> documentResponse(String filePath, HttpHeaders requestHeaders) {
+        return documentResponse(filePath, requestHeaders, HttpHeaders.EMPTY);
+    }
+
+    private static ResponseEntity<Resource> documentResponse(String filePath, HttpHeaders requestHeaders,
+                                                             HttpHeaders extraHeaders) {
+        Path file = Paths.get(filePath);
+        if (!Files.isRegularFile(file)) {
+            throw new RuntimeException("Generated file not found: " + filePath);
         }
 
         try {
-            new URL(url); // Валидация URL
-        } catch (MalformedURLException e) {
+            ResponseEntity<Resource> response = DocumentFileResponses.docx(file, requestHeaders);
+            HttpHeaders headers = new HttpHeaders();
+            headers.addAll(response.getHeaders());
+            headers.addAll(extraHeaders);
+            headers.set(HttpHeaders.CONTENT_LOCATION, "/api/generate-doc/files/" + file.getFileName());
+            return ResponseEntity.status(response.getStatusCode())
+                    .headers(headers)
+                    .body(response.getBody());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read generated document: " + e.getMessage(), e);
+        }
+    }
+
+    // Текст ошибки 400 для URL источника спецификации или null, если URL годится
+    private static String urlError(String url) {
+        Optional<SpecUrls.Problem> problem = SpecUrls.check(url);
+        if (problem.isEmpty()) return null;
+
+        if (problem.get() == SpecUrls.Problem.MISSING) {
+            logger.warn("URL parameter is missing");
+        } else {
             logger.warn("Invalid URL format: {}", url);
-            return Mono.just(ResponseEntity.badRequest()
-                    .contentType(MediaType.TEXT_PLAIN)
-                    .body(("Error: Invalid URL format: " + url).getBytes()));
         }
+        return "Error: " + problem.get().message(url);
+    }
 
-        return apiDocsService.fetchApiDocs(url)
-                .map(apiSpec -> {
-                    try {
-                        logger.info("Generating Word document for API: {} from URL: {}", apiSpec.getInfo().getTitle(), url);
+    // Профиль генерации: фазы верхнего уровня - в заголовке, полный список с секциями - в файле рядом с .docx
+    private void addProfile(HttpHeaders headers, Path document, String url, RenderProfile profile) {
+        Path sidecar = document.resolveSibling(document.getFileName() + PROFILE_SUFFIX);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("url", url);
+        report.put("document", document.getFileName().toString());
+        report.put("phases", profile.getPhases());
+        try {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(sidecar.toFile(), report);
+            headers.set(PROFILE_HEADER, objectMapper.writeValueAsString(profile.getTopLevelPhases()));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write render profile: " + e.getMessage(), e);
+        }
+        headers.set(PROFILE_LOCATION_HEADER, "/api/generate-doc/files/" + sidecar.getFileName());
+        logger.info("Render profile for {}: {}", url, headers.getFirst(PROFILE_HEADER));
+    }
 
-                        String filePath = wordDocumentService.generateWordDocument(apiSpec);
-                        File file = new File(filePath);
+    // Отчёт проверки спецификации в строгом режиме: 422 с замечаниями в JSON
+    private ResponseEntity<Resource> lintErrorResponse(SpecLinter.LintReport report) {
+        try {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ByteArrayResource(lintReportJson(report)));
+        } catch (IOException e) {
+            return errorResponse(HttpStatus.UNPROCESSABLE_ENTITY, "Error: Specification failed validation");
+        }
+    }
 
-                        if (!file.exists()) {
-                            throw new RuntimeException("Generated file not found: " + filePath);
-                        }
+    private byte[] lintReportJson(SpecLinter.LintReport report) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", "Specification failed validation");
+        body.put("errors", report.errors());
+        body.put("warnings", report.warnings());
+        body.put("issues", report.issues());
+        return objectMapper.writeValueAsBytes(body);
+    }
 
-                        byte[] content = Files.readAllBytes(file.toPath());
+    private static ResponseEntity<Resource> errorResponse(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(new ByteArrayResource(message.getBytes()));
+    }
 
-                        logger.info("Document generated successfully: {}", file.getName());
+    // Предпросмотр в HTML/Markdown: файл на диске не создаётся, документ пишется потоком прямо в ответ.
+    // ETag считается по хэшу содержимого, формату и параметрам ещё до рендера - повторный запрос той же версии
+    // получает 304 без рендера
+    @GetMapping(params = {"format", "format!=docx"})
+    public Mono<ResponseEntity<StreamingResponseBody>> generateTextDocumentation(@RequestParam(required = false) String url,
+                                                                                 @RequestParam String format,
+                                                                                 RenderOptions options,
+                                                                                 @RequestParam(required = false) Boolean strict,
+                                                                                 @RequestHeader HttpHeaders requestHeaders) {
+        if (!TextDocumentService.isSupported(format)) {
+            logger.warn("Unsupported output format: {}", format);
+            return Mono.just(textError(HttpStatus.BAD_REQUEST, "Error: Unsupported format: " + format));
+        }
+        String urlError = urlError(url);
+        if (urlError != null) {
+            return Mono.just(textError(HttpStatus.BAD_REQUEST, urlError));
+        }
+
+        MediaType contentType = TextDocumentService.FORMAT_HTML.equalsIgnoreCase(format.trim())
+                ? new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8)
+                : new MediaType("text", "markdown", StandardCharsets.UTF_8);
+        boolean strictLint = strict != null ? strict : specLinter.isStrict();
 
-                        return ResponseEntity.ok()
-                                .header(HttpHeaders.CONTENT_DISPOSITION,
-                                        "attachment; filename=\"" + file.getName() + "\"")
-                                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                                .contentLength(content.length)
-                                .body(content);
+        return apiDocsService.fetchSpec(url)
+                .map(fetched -> {
+                    // Проверка - до 304: строгий запрос сломанной версии отклоняется, даже если клиент её видел
+                    specLinter.check(fetched.spec(), strictLint);
 
-                    } catch (Exception e) {
-                        logger.error("Failed to generate document from URL: {}", url, e);
-                        throw new RuntimeException("Failed to generate document: " + e.getMessage(), e);
+                    String etag = "\"" + SpecCacheService.contentHash((fetched.contentHash() + "\n" + format.trim()
+                            + "\n" + options).getBytes(StandardCharsets.UTF_8)).substring(0, 32) + "\"";
+                    if (requestHeaders.getIfNoneMatch().contains(etag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<StreamingResponseBody>build();
                     }
+
+                    logger.info("Generating {} document for API: {} from URL: {}", format,
+                            fetched.spec().getInfo().getTitle(), url);
+                    // Рендер идёт в полосе по стоимости спецификации и пишет прямо в ответ: слот полосы и резерв
+                    // памяти заняты, пока документ не отдан клиенту, поэтому число одновременных выгрузок ограничено
+                    StreamingResponseBody body = outputStream -> renderLanes.submit(fetched.spec(), () -> {
+                        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                        textDocumentService.render(fetched, options, format, writer);
+                        writer.flush();
+                        return Boolean.TRUE;
+                    }).block();
+                    return ResponseEntity.ok()
+                            .contentType(contentType)
+                            .eTag(etag)
+                            .body(body);
                 })
                 .onErrorResume(e -> {
+                    if (e instanceof SpecLinter.LintFailedException lintFailed) {
+                        logger.warn("Specification from URL {} rejected by lint: {}", url, e.getMessage());
+                        return Mono.just(textLintError(lintFailed.getReport()));
+                    }
                     logger.error("Error in documentation generation from URL: {}", url, e);
-                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                            .contentType(MediaType.TEXT_PLAIN)
-                            .body(("Error: " + e.getMessage()).getBytes()));
+                    return Mono.just(textError(HttpStatus.INTERNAL_SERVER_ERROR, "Error: " + e.getMessage()));
                 });
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<StreamingResponseBody> textLintError(SpecLinter.LintReport report) {
+        try {
+            byte[] content = lintReportJson(report);
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(outputStream -> outputStream.write(content));
+        } catch (IOException e) {
+            return textError(HttpStatus.UNPROCESSABLE_ENTITY, "Error: Specification failed validation");
+        }
+    }
+
+    private static ResponseEntity<StreamingResponseBody> textError(HttpStatus status, String message) {
+        byte[] content = message.getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(outputStream -> outputStream.write(content));
+    }
+}
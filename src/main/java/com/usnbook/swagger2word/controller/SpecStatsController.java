@@ -0,0 +1,49 @@
+package com.usnbook.swagger2word.controller;
+
+import com.usnbook.swagger2word.service.SpecStatsService;
+import com.usnbook.swagger2word.service.SpecUrls;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Статистика спецификации в JSON без генерации документа.
+ */
+@RestController
+@RequestMapping("/api/spec-stats")
+public class SpecStatsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpecStatsController.class);
+
+    private final SpecStatsService specStatsService;
+
+    public SpecStatsController(SpecStatsService specStatsService) {
+        this.specStatsService = specStatsService;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<?>> stats(@RequestParam(required = false) String url) {
+        Optional<SpecUrls.Problem> problem = SpecUrls.check(url);
+        if (problem.isPresent()) {
+            logger.warn("Rejected spec stats request for URL {}: {}", url, problem.get());
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", problem.get().message(url))));
+        }
+
+        return specStatsService.stats(url)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(e -> {
+                    logger.error("Error computing spec stats for URL: {}", url, e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(Map.of("error", String.valueOf(e.getMessage()))));
+                });
+    }
+}
@@ -0,0 +1,51 @@
+package com.usnbook.swagger2word.controller;
+
+import com.usnbook.swagger2word.service.DocxTemplateService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/template")
+public class TemplateController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplateController.class);
+
+    private final DocxTemplateService templateService;
+
+    public TemplateController(DocxTemplateService templateService) {
+        this.templateService = templateService;
+    }
+
+    @GetMapping
+    public Map<String, Object> templateStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("loaded", templateService.isTemplateLoaded());
+        status.put("source", templateService.getTemplateSource());
+        return status;
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reloadTemplate() {
+        try {
+            String source = templateService.reload();
+            logger.info("DOCX template reloaded from: {}", source);
+            return ResponseEntity.ok(templateStatus());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Template reload rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Failed to reload DOCX template", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to reload template: " + e.getMessage()));
+        }
+    }
+}
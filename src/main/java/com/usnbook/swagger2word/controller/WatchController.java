@@ -0,0 +1,63 @@
+package com.usnbook.swagger2word.controller;
+
+import com.usnbook.swagger2word.service.SpecWatchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/watch")
+public class WatchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(WatchController.class);
+
+    private final SpecWatchService specWatchService;
+
+    public WatchController(SpecWatchService specWatchService) {
+        this.specWatchService = specWatchService;
+    }
+
+    @GetMapping
+    public Collection<SpecWatchService.WatchedSpec> watchedSpecs() {
+        return specWatchService.getWatchedSpecs();
+    }
+
+    // interval в формате Spring Boot / ISO-8601: 10m, 1h, PT90S
+    @PostMapping
+    public ResponseEntity<?> watch(@RequestParam String url, @RequestParam(required = false) String interval) {
+        try {
+            Duration duration = interval != null ? parseInterval(interval) : null;
+            return ResponseEntity.ok(specWatchService.register(url, duration));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Watch registration rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> unwatch(@RequestParam String url) {
+        return specWatchService.unregister(url)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    private static Duration parseInterval(String value) {
+        try {
+            return DurationStyle.detectAndParse(value.trim());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректный интервал: " + value);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.usnbook.swagger2word.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Неизменяемое компактное представление спецификации, которое один раз собирается из {@link OpenApiSpec}.
+ * <p>
+ * Порядок операций, группировка по тегам, сортировка моделей, их свойств и кодов ответов посчитаны заранее,
+ * ссылки на модели разрешены, повторяющиеся строки дедуплицированы. Рендеры и кэши работают с этим
+ * представлением и ничего не пересчитывают. Массивы наружу отдаются без копирования — изменять их нельзя.
+ * <p>
+ * Исходный {@link OpenApiSpec} не хранится: операции, модели и общие сведения - собственные копии представления
+ * с дедуплицированными строками, так что в кэше версия спецификации занимает память один раз.
+ */
+@Getter
+public final class CompiledSpec {
+
+    public static final String UNCLASSIFIED_GROUP = "Не классифицировано";
+    public static final String SCHEMA_REF_PREFIX = "#/components/schemas/";
+
+    private final String openapi;
+    private final OpenApiSpec.Info info;
+    private final List<OpenApiSpec.Server> servers;
+    // Описания тегов в порядке спецификации (для разделов групп)
+    private final List<OpenApiSpec.Tag> tags;
+    private final String[] paths;
+    private final OperationEntry[] operations;
+    private final String[] specTags;
+
+    // Имена групп в порядке вывода и индексы операций каждой группы
+    private final String[] groupNames;
+    private final int[][] groupOperations;
+    // false - у операций нет ни id, ни summary, ни параметров, ни ответов: группировать нечего
+    private final boolean groupable;
+
+    // Модели отсортированы по имени без учёта регистра
+    private final SchemaEntry[] schemas;
+    private final Map<String, SchemaEntry> schemasByName;
+
+    // Текстовые описания типов схем (по идентичности объекта схемы). Заполняются лениво при рендере;
+    // представление делится между потоками через кэш - параллельные рендеры не должны ждать друг друга на общем замке
+    @Getter(AccessLevel.NONE)
+    private final Map<SchemaIdentity, String> schemaTypes = new ConcurrentHashMap<>();
+
+    public CompiledSpec(String openapi, OpenApiSpec.Info info, List<OpenApiSpec.Server> servers,
+                        List<OpenApiSpec.Tag> tags, String[] paths, OperationEntry[] operations, String[] specTags,
+                        String[] groupNames, int[][] groupOperations, boolean groupable,
+                        SchemaEntry[] schemas, Map<String, SchemaEntry> schemasByName) {
+        this.openapi = openapi;
+        this.info = info;
+        this.servers = servers != null ? Collections.unmodifiableList(servers) : null;
+        this.tags = tags != null ? Collections.unmodifiableList(tags) : null;
+        this.paths = paths;
+        this.operations = operations;
+        this.specTags = specTags;
+        this.groupNames = groupNames;
+        this.groupOperations = groupOperations;
+        this.groupable = groupable;
+        this.schemas = schemas;
+        this.schemasByName = Collections.unmodifiableMap(schemasByName);
+    }
+
+    public SchemaEntry findSchema(String name) {
+        return name != null ? schemasByName.get(name) : null;
+    }
+
+    /**
+     * Модель по $ref вида {@code #/components/schemas/Name}; для остальных ссылок - null.
+     */
+    public SchemaEntry resolveRef(String ref) {
+        if (ref == null || !ref.startsWith(SCHEMA_REF_PREFIX)) return null;
+        return schemasByName.get(ref.substring(SCHEMA_REF_PREFIX.length()));
+    }
+
+    /**
+     * Запомненное описание типа схемы или null, если её ещё не описывали.
+     */
+    public String findSchemaType(OpenApiSpec.Schema schema) {
+        return schemaTypes.get(new SchemaIdentity(schema));
+    }
+
+    public void putSchemaType(OpenApiSpec.Schema schema, String type) {
+        schemaTypes.putIfAbsent(new SchemaIdentity(schema), type);
+    }
+
+    // Ключ по ссылке на схему: equals/hashCode самой схемы обходят всё дерево (и зацикливаются на рекурсивных)
+    private record SchemaIdentity(OpenApiSpec.Schema schema) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof SchemaIdentity identity && identity.schema == schema;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(schema);
+        }
+    }
+
+    /**
+     * Операция спецификации. Метод в верхнем регистре, теги обрезаны; ответы отсортированы по коду.
+     */
+    public record OperationEntry(int index,
+                                 String path,
+                                 String method,
+                                 String[] tags,
+                                 boolean deprecated,
+                                 OpenApiSpec.Operation operation,
+                                 String[] responseCodes,
+                                 OpenApiSpec.Response[] responses) {
+    }
+
+    /**
+     * Модель из components.schemas со свойствами в порядке вывода.
+     */
+    public record SchemaEntry(String name,
+                              OpenApiSpec.Schema schema,
+                              String[] propertyNames,
+                              OpenApiSpec.Schema[] propertySchemas,
+                              boolean[] requiredProperties) {
+    }
+}
@@ -214,6 +214,7 @@ public class OpenApiSpec {
     public static class Schema {
         private String type;
         // Геттер для совместимости
+        @JsonProperty("$ref")
         private String ref;
         private String format;
         private String title;
@@ -235,7 +236,9 @@ public class OpenApiSpec {
         private Integer maxItems;
         private Boolean uniqueItems;
         private String discriminator;
-        private Map<String, String> enumValues;
+        @JsonProperty("enum")
+        private List<Object> enumValues;
+        @JsonProperty("default")
         private Object defaultValue;
         private Schema additionalProperties;
         private List<Schema> allOf;
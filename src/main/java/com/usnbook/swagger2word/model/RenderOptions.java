@@ -0,0 +1,41 @@
+package com.usnbook.swagger2word.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Параметры генерации документа. Заполняется из query-параметров запроса.
+ */
+@Data
+public class RenderOptions {
+
+    // Модели данных рендерятся один раз в разделе 5, операции ссылаются на них гиперссылками
+    private boolean schemaLinks = false;
+
+    // В раздел 5 попадают только модели, достижимые по ссылкам из отображаемых операций
+    private boolean pruneSchemas = false;
+
+    // Воспроизводимый .docx: одинаковая спецификация и параметры дают побайтно одинаковый файл
+    private boolean deterministic = false;
+
+    // Примеры JSON у тел запросов и ответов: из спецификации или построенные по схеме
+    private boolean examples = false;
+
+    // Блок диагностики (пути, операции с тегами и без, теги) в начале раздела 4;
+    // полная статистика в JSON - GET /api/spec-stats
+    private boolean includeDiagnostics = false;
+
+    // === ФИЛЬТРЫ ОПЕРАЦИЙ ===
+    // Теги сравниваются без учёта регистра, пути - Ant-шаблоны (/billing/**)
+    private List<String> includeTags;
+    private List<String> excludeTags;
+    private List<String> includePaths;
+    private List<String> excludePaths;
+    private List<String> methods;
+    private boolean includeDeprecated = true;
+
+    public static RenderOptions defaults() {
+        return new RenderOptions();
+    }
+}
@@ -1,13 +1,23 @@
 package com.usnbook.swagger2word.service;
 
 import com.usnbook.swagger2word.model.OpenApiSpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.URI;
 import java.util.Map;
 
 @Service
@@ -15,26 +25,171 @@ public class ApiDocsService {
 
     private static final Logger logger = LoggerFactory.getLogger(ApiDocsService.class);
 
+    // Предел тела, читаемого буферами (с отчётом о ходе загрузки)
+    @Value("${spring.codec.max-in-memory-size:10MB}")
+    private DataSize maxInMemorySize;
+
     private final WebClient.Builder webClientBuilder;
+    private final SpecCacheService specCacheService;
+    private final UpstreamGuard upstreamGuard;
 
-    public ApiDocsService(WebClient.Builder webClientBuilder) {
+    public ApiDocsService(WebClient.Builder webClientBuilder, SpecCacheService specCacheService,
+                          UpstreamGuard upstreamGuard) {
         this.webClientBuilder = webClientBuilder;
+        this.specCacheService = specCacheService;
+        this.upstreamGuard = upstreamGuard;
     }
 
     public Mono<OpenApiSpec> fetchApiDocs(String apiUrl) {
+        return fetchSpec(apiUrl).map(FetchedSpec::spec);
+    }
+
+    /**
+     * Спецификация вместе с хэшем содержимого - по нему узлы кластера узнают одну и ту же версию.
+     */
+    public Mono<FetchedSpec> fetchSpec(String apiUrl) {
+        return fetchSpec(apiUrl, RenderProfile.disabled());
+    }
+
+    /**
+     * С профилем: время запроса до получения тела (fetch) и разбор / чтение кэша (decode).
+     * <p>
+     * Запрос идёт через {@link UpstreamGuard} (повторы, breaker, хеджирование). Пока breaker хоста
+     * разомкнут, отдаётся последняя закэшированная версия спецификации, если она есть.
+     */
+    public Mono<FetchedSpec> fetchSpec(String apiUrl, RenderProfile profile) {
+        return fetchSpec(apiUrl, profile, RenderProgress.disabled());
+    }
+
+    /**
+     * С ходом загрузки: скачанные байты (тело читается буферами) и число разобранных путей.
+     */
+    public Mono<FetchedSpec> fetchSpec(String apiUrl, RenderProfile profile, RenderProgress progress) {
         logger.info("Fetching API docs from: {}", apiUrl);
 
+        Mono<ResponseEntity<byte[]>> attempt = Mono.defer(() -> progress.isEnabled()
+                ? countingRequest(apiUrl, progress)
+                : webClientBuilder.build()
+                        .get()
+                        .uri(apiUrl)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .retrieve()
+                        .toEntity(byte[].class));
+
+        long[] fetchStart = new long[1];
+        return upstreamGuard.call(hostOf(apiUrl), attempt, true)
+                .doOnSubscribe(subscription -> fetchStart[0] = System.nanoTime())
+                .doOnNext(entity -> profile.record("fetch", System.nanoTime() - fetchStart[0]))
+                // Разбор JSON или чтение кэша с диска - не на event loop
+                .publishOn(Schedulers.boundedElastic())
+                .map(entity -> {
+                    try (RenderProfile.Scope ignored = profile.phase("decode")) {
+                        byte[] content = entity.getBody() != null ? entity.getBody() : new byte[0];
+                        OpenApiSpec spec = parse(apiUrl, content);
+                        int paths = spec.getPaths() != null ? spec.getPaths().size() : 0;
+                        progress.update(RenderProgress.PARSE, paths, paths);
+                        return new FetchedSpec(spec, SpecCacheService.contentHash(content),
+                                entity.getHeaders().getETag(), entity.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED));
+                    }
+                })
+                .onErrorResume(UpstreamGuard.CircuitOpenException.class, e -> lastKnown(apiUrl, e))
+                .doOnSuccess(fetched -> logApiDocsInfo(fetched.spec()))
+                .doOnError(e -> logger.error("Failed to fetch API docs from: {}", apiUrl, e))
+                .onErrorMap(e -> new RuntimeException("Failed to fetch API docs from: " + apiUrl, e));
+    }
+
+    // То же, что toEntity(byte[].class), но с отчётом о скачанных байтах по мере прихода буферов
+    private Mono<ResponseEntity<byte[]>> countingRequest(String apiUrl, RenderProgress progress) {
         return webClientBuilder.build()
                 .get()
                 .uri(apiUrl)
                 .accept(MediaType.APPLICATION_JSON)
                 .retrieve()
-                .bodyToMono(OpenApiSpec.class)
-                .doOnSuccess(this::logApiDocsInfo)
-                .doOnError(e -> logger.error("Failed to fetch API docs from: {}", apiUrl, e))
+                .toEntityFlux(DataBuffer.class)
+                .flatMap(entity -> {
+                    long total = entity.getHeaders().getContentLength();
+                    long[] received = new long[1];
+                    Flux<DataBuffer> body = (entity.getBody() != null ? entity.getBody() : Flux.<DataBuffer>empty())
+                            .doOnNext(buffer -> {
+                                received[0] += buffer.readableByteCount();
+                                progress.update(RenderProgress.FETCH, received[0], total);
+                            });
+                    return DataBufferUtils.join(body, (int) maxInMemorySize.toBytes())
+                            .map(buffer -> {
+                                byte[] content = new byte[buffer.readableByteCount()];
+                                buffer.read(content);
+                                DataBufferUtils.release(buffer);
+                                return content;
+                            })
+                            .defaultIfEmpty(new byte[0])
+                            .map(content -> new ResponseEntity<>(content, entity.getHeaders(), entity.getStatusCode()));
+                });
+    }
+
+    private Mono<FetchedSpec> lastKnown(String apiUrl, UpstreamGuard.CircuitOpenException cause) {
+        return Mono.fromCallable(() -> specCacheService.lastKnown(apiUrl))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(cached -> {
+                    if (cached.isEmpty()) return Mono.error(cause);
+                    logger.warn("{} - serving last cached version of {}", cause.getMessage(), apiUrl);
+                    return Mono.just(new FetchedSpec(cached.get().spec(), cached.get().contentHash(), null, null));
+                });
+    }
+
+    /**
+     * Условный запрос для фонового опроса: If-None-Match / If-Modified-Since из прошлого ответа.
+     * Пустой Mono - сервер ответил 304 Not Modified.
+     */
+    public Mono<FetchedSpec> fetchIfChanged(String apiUrl, String etag, String lastModified) {
+        logger.debug("Polling API docs from: {}", apiUrl);
+
+        Mono<FetchedSpec> attempt = Mono.defer(() -> webClientBuilder.build()
+                .get()
+                .uri(apiUrl)
+                .accept(MediaType.APPLICATION_JSON)
+                .headers(headers -> {
+                    if (etag != null) headers.setIfNoneMatch(etag);
+                    if (lastModified != null) headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return response.releaseBody().then(Mono.<FetchedSpec>empty());
+                    }
+                    if (response.statusCode().isError()) {
+                        return response.createException().flatMap(Mono::error);
+                    }
+
+                    HttpHeaders headers = response.headers().asHttpHeaders();
+                    String newEtag = headers.getETag();
+                    String newLastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+                    return response.bodyToMono(byte[].class)
+                            .publishOn(Schedulers.boundedElastic())
+                            .map(content -> new FetchedSpec(parse(apiUrl, content),
+                                    SpecCacheService.contentHash(content), newEtag, newLastModified));
+                }));
+
+        // Фоновому опросу хеджирование не нужно - ответ никто не ждёт
+        return upstreamGuard.call(hostOf(apiUrl), attempt, false)
                 .onErrorMap(e -> new RuntimeException("Failed to fetch API docs from: " + apiUrl, e));
     }
 
+    private static String hostOf(String apiUrl) {
+        try {
+            URI uri = URI.create(apiUrl);
+            return uri.getPort() >= 0 ? uri.getHost() + ":" + uri.getPort() : String.valueOf(uri.getHost());
+        } catch (IllegalArgumentException e) {
+            return apiUrl;
+        }
+    }
+
+    private OpenApiSpec parse(String apiUrl, byte[] content) {
+        try {
+            return specCacheService.load(apiUrl, content);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse API docs: " + e.getMessage(), e);
+        }
+    }
+
     private void logApiDocsInfo(OpenApiSpec spec) {
         int pathsCount = 0;
         if (spec.getPaths() != null) {
@@ -66,4 +221,10 @@ public class ApiDocsService {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Результат условного запроса: спецификация, хэш содержимого и валидаторы для следующего запроса.
+     */
+    public record FetchedSpec(OpenApiSpec spec, String contentHash, String etag, String lastModified) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.model.CompiledSpec;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+import com.usnbook.swagger2word.model.RenderOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Общая для всех форматов часть генерации: фильтры операций, отбор моделей, группировка по тегам
+ * и порядок разделов. Форматы отличаются только реализацией {@link DocumentRenderer}.
+ */
+@Component
+public class DocumentPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentPipeline.class);
+
+    RenderContext prepare(CompiledSpec spec, RenderOptions options) {
+        return prepare(spec, options, RenderProfile.disabled());
+    }
+
+    RenderContext prepare(CompiledSpec spec, RenderOptions options, RenderProfile profile) {
+        return prepare(spec, options, profile, RenderProgress.disabled());
+    }
+
+    RenderContext prepare(CompiledSpec spec, RenderOptions options, RenderProfile profile, RenderProgress progress) {
+        RenderContext context = new RenderContext(spec, options, profile, progress);
+        try (RenderProfile.Scope ignored = context.profile.phase("prepare")) {
+            prepareSelection(context);
+        }
+        return context;
+    }
+
+    private void prepareSelection(RenderContext context) {
+        CompiledSpec spec = context.spec;
+
+        OperationFilter filter = OperationFilter.from(context.options);
+        context.operations = filter.select(spec);
+        if (filter.isActive()) {
+            logger.debug("Operation filter selected {} of {} operations",
+                    context.operations.size(), spec.getOperations().length);
+        }
+        context.tags = selectTags(spec.getTags(), filter);
+
+        if (context.options.isPruneSchemas()) {
+            try (RenderProfile.Scope ignored = context.profile.phase("pruneUnreachableSchemas")) {
+                pruneUnreachableSchemas(context);
+            }
+        }
+        context.schemas = selectSchemas(context);
+        try (RenderProfile.Scope ignored = context.profile.phase("groupOperationsByTags")) {
+            context.groupedOperations = spec.isGroupable() ? groupOperationsByTags(context, filter) : Collections.emptyMap();
+        }
+    }
+
+    void render(RenderContext context, DocumentRenderer renderer) throws IOException {
+        renderer.begin(context);
+        renderer.titlePage(context);
+        renderer.generalInfo(context);
+        renderer.servers(context, context.spec.getServers());
+        renderer.tags(context, context.tags);
+        renderer.endpoints(context, context.groupedOperations);
+        renderer.schemas(context, context.schemas);
+        renderer.end(context);
+    }
+
+    private List<OpenApiSpec.Tag> selectTags(List<OpenApiSpec.Tag> tags, OperationFilter filter) {
+        if (tags == null || !filter.isActive()) return tags;
+        return tags.stream()
+                .filter(tag -> tag != null && filter.acceptsTag(tag.getName()))
+                .collect(Collectors.toList());
+    }
+
+    // === ОТБОР МОДЕЛЕЙ ДАННЫХ ===
+    private void pruneUnreachableSchemas(RenderContext context) {
+        if (context.spec.getSchemas().length == 0) return;
+
+        Set<String> reachable = SchemaReachability.reachableSchemas(context.operations, context.spec);
+
+        context.renderedSchemas = reachable;
+        context.totalSchemas = context.spec.getSchemas().length;
+        context.skippedSchemas = context.totalSchemas - reachable.size();
+        logger.debug("Schema pruning: {} of {} schemas reachable from operations",
+                reachable.size(), context.totalSchemas);
+    }
+
+    // Модели отсортированы при компиляции спецификации
+    private List<CompiledSpec.SchemaEntry> selectSchemas(RenderContext context) {
+        List<CompiledSpec.SchemaEntry> schemas = new ArrayList<>();
+        for (CompiledSpec.SchemaEntry entry : context.spec.getSchemas()) {
+            if (context.isSchemaRendered(entry.name())) {
+                schemas.add(entry);
+            }
+        }
+        return schemas;
+    }
+
+    // === ГРУППИРОВКА ОПЕРАЦИЙ ПО ТЕГАМ ===
+    private Map<String, List<CompiledSpec.OperationEntry>> groupOperationsByTags(RenderContext context,
+                                                                                OperationFilter filter) {
+        CompiledSpec spec = context.spec;
+        CompiledSpec.OperationEntry[] allOperations = spec.getOperations();
+
+        boolean[] selected = new boolean[allOperations.length];
+        for (CompiledSpec.OperationEntry entry : context.operations) {
+            selected[entry.index()] = true;
+        }
+
+        // Порядок групп уже посчитан при компиляции спецификации
+        Map<String, List<CompiledSpec.OperationEntry>> grouped = new LinkedHashMap<>();
+        String[] groupNames = spec.getGroupNames();
+        for (int i = 0; i < groupNames.length; i++) {
+            // Операция с тегами [billing, admin] при includeTags=billing выводится только в группе billing;
+            // операции без тегов, прошедшие фильтр, остаются в общей группе
+            if (!CompiledSpec.UNCLASSIFIED_GROUP.equals(groupNames[i]) && !filter.acceptsTag(groupNames[i])) {
+                continue;
+            }
+            List<CompiledSpec.OperationEntry> groupOperations = new ArrayList<>();
+            for (int index : spec.getGroupOperations()[i]) {
+                if (selected[index]) groupOperations.add(allOperations[index]);
+            }
+            if (!groupOperations.isEmpty()) {
+                grouped.put(groupNames[i], groupOperations);
+            }
+        }
+
+        return grouped;
+    }
+}
@@ -0,0 +1,38 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.model.CompiledSpec;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Формат вывода документа. {@link DocumentPipeline} готовит выборку операций, группировку и список моделей
+ * и по очереди вызывает разделы; реализация только пишет их в свой формат.
+ */
+interface DocumentRenderer {
+
+    default void begin(RenderContext context) throws IOException {
+    }
+
+    void titlePage(RenderContext context) throws IOException;
+
+    void generalInfo(RenderContext context) throws IOException;
+
+    void servers(RenderContext context, List<OpenApiSpec.Server> servers) throws IOException;
+
+    void tags(RenderContext context, List<OpenApiSpec.Tag> tags) throws IOException;
+
+    /**
+     * Операции по группам в порядке вывода. Пустая карта при непустом {@code context.operations}
+     * означает, что группировать нечего и операции выводятся списком.
+     */
+    void endpoints(RenderContext context, Map<String, List<CompiledSpec.OperationEntry>> groupedOperations)
+            throws IOException;
+
+    void schemas(RenderContext context, List<CompiledSpec.SchemaEntry> schemas) throws IOException;
+
+    default void end(RenderContext context) throws IOException {
+    }
+}
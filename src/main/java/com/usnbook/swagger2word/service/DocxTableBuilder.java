@@ -0,0 +1,134 @@
+package com.usnbook.swagger2word.service;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.xmlbeans.impl.xb.xmlschema.SpaceAttribute;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.*;
+
+import java.math.BigInteger;
+
+/**
+ * Таблица, собранная прямо на уровне CTTbl / CTRow / CTTc за один проход.
+ * <p>
+ * {@code XWPFTable.createRow()} + {@code setText()} + стилизация обходят каждую ячейку дважды и на каждую
+ * создают обёртки XWPFTableRow / XWPFTableCell / XWPFParagraph / XWPFRun. Здесь строка сразу пишется
+ * с заливкой, выравниванием и свойствами run, а обёртки не создаются: таблица есть только в XML тела
+ * документа, в {@code document.getTables()} она не попадает. Для ячеек, куда нужно дописать
+ * гиперссылку, {@link #paragraph} оборачивает уже готовый CTP.
+ */
+final class DocxTableBuilder {
+
+    private final XWPFDocument document;
+    private final CTTbl table;
+    private final int columns;
+    private final String fontFamily;
+    private final String color;
+
+    private DocxTableBuilder(XWPFDocument document, CTTbl table, int columns, String fontFamily, String color) {
+        this.document = document;
+        this.table = table;
+        this.columns = columns;
+        this.fontFamily = fontFamily;
+        this.color = color;
+    }
+
+    /**
+     * Добавляет таблицу в конец тела документа: ширина в пятидесятых долях процента, сетка колонок в twips,
+     * одинарные границы и выравнивание по левому краю.
+     */
+    static DocxTableBuilder create(XWPFDocument document, int widthPct, int[] gridColumns,
+                                   String fontFamily, String color) {
+        CTTbl table = document.getDocument().getBody().addNewTbl();
+
+        CTTblPr tblPr = table.addNewTblPr();
+        CTTblWidth tblW = tblPr.addNewTblW();
+        tblW.setW(BigInteger.valueOf(widthPct));
+        tblW.setType(STTblWidth.PCT);
+        tblPr.addNewJc().setVal(STJcTable.LEFT);
+
+        CTTblBorders borders = tblPr.addNewTblBorders();
+        borders.addNewTop().setVal(STBorder.SINGLE);
+        borders.addNewLeft().setVal(STBorder.SINGLE);
+        borders.addNewBottom().setVal(STBorder.SINGLE);
+        borders.addNewRight().setVal(STBorder.SINGLE);
+        borders.addNewInsideH().setVal(STBorder.SINGLE);
+        borders.addNewInsideV().setVal(STBorder.SINGLE);
+        tblPr.addNewTblLayout().setType(STTblLayoutType.AUTOFIT);
+
+        CTTblGrid tblGrid = table.addNewTblGrid();
+        for (int width : gridColumns) {
+            tblGrid.addNewGridCol().setW(BigInteger.valueOf(width));
+        }
+        return new DocxTableBuilder(document, table, gridColumns.length, fontFamily, color);
+    }
+
+    /**
+     * Строка заголовка: заливка {@code fill}, текст по центру, жирный.
+     */
+    CTRow addHeaderRow(String fill, int fontSize, String... texts) {
+        return addRow(fill, STJc.CENTER, true, fontSize, texts);
+    }
+
+    /**
+     * Строка данных: текст по левому краю. null в {@code texts} - пустая ячейка без run
+     * (в неё потом пишут через {@link #paragraph}).
+     */
+    CTRow addRow(int fontSize, String... texts) {
+        return addRow(null, STJc.LEFT, false, fontSize, texts);
+    }
+
+    /**
+     * Параграф ячейки для дописывания через API XWPF (гиперссылки и т.п.).
+     */
+    XWPFParagraph paragraph(CTRow row, int column) {
+        return new XWPFParagraph(row.getTcArray(column).getPArray(0), document);
+    }
+
+    private CTRow addRow(String fill, STJc.Enum alignment, boolean bold, int fontSize, String[] texts) {
+        if (texts.length != columns) {
+            throw new IllegalArgumentException("Ожидалось " + columns + " ячеек, получено " + texts.length);
+        }
+
+        BigInteger halfPoints = BigInteger.valueOf(fontSize * 2L);
+        CTRow row = table.addNewTr();
+        for (String text : texts) {
+            CTTc cell = row.addNewTc();
+            if (fill != null) {
+                CTShd shd = cell.addNewTcPr().addNewShd();
+                shd.setColor("auto");
+                shd.setVal(STShd.CLEAR);
+                shd.setFill(fill);
+            }
+
+            CTP paragraph = cell.addNewP();
+            paragraph.addNewPPr().addNewJc().setVal(alignment);
+            if (text != null) {
+                addRun(paragraph, text, bold, halfPoints);
+            }
+        }
+        return row;
+    }
+
+    private void addRun(CTP paragraph, String text, boolean bold, BigInteger halfPoints) {
+        CTR run = paragraph.addNewR();
+        CTRPr rPr = run.addNewRPr();
+        CTFonts fonts = rPr.addNewRFonts();
+        fonts.setAscii(fontFamily);
+        fonts.setHAnsi(fontFamily);
+        fonts.setCs(fontFamily);
+        fonts.setEastAsia(fontFamily);
+        if (bold) {
+            rPr.addNewB();
+        }
+        rPr.addNewSz().setVal(halfPoints);
+        rPr.addNewColor().setVal(color);
+
+        CTText t = run.addNewT();
+        t.setStringValue(text);
+        // Как XWPFRun.setText: без preserve Word съедает пробелы по краям
+        if (!text.isEmpty() && (Character.isWhitespace(text.charAt(0))
+                || Character.isWhitespace(text.charAt(text.length() - 1)))) {
+            t.setSpace(SpaceAttribute.Space.PRESERVE);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.usnbook.swagger2word.service;
+
+import jakarta.annotation.PostConstruct;
+import org.apache.poi.ooxml.POIXMLDocumentPart;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.wp.usermodel.HeaderFooterType;
+import org.apache.poi.xwpf.model.XWPFHeaderFooterPolicy;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFHeaderFooter;
+import org.apache.poi.xwpf.usermodel.XWPFNumbering;
+import org.apache.poi.xwpf.usermodel.XWPFPictureData;
+import org.apache.xmlbeans.XmlObject;
+import org.openxmlformats.schemas.drawingml.x2006.main.CTBlip;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Корпоративный шаблон (.dotx/.docx) для генерируемых документов.
+ * <p>
+ * Шаблон разбирается один раз (при старте или по reload) в набор XMLBeans-объектов:
+ * стили, нумерация, колонтитулы и тело (титульная страница). Каждый рендер получает
+ * новый {@link XWPFDocument}, в который эти объекты копируются в памяти — XML шаблона
+ * повторно не парсится.
+ */
+@Service
+public class DocxTemplateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocxTemplateService.class);
+
+    private static final String BLIP_PATH =
+            "declare namespace a='http://schemas.openxmlformats.org/drawingml/2006/main' $this//a:blip";
+
+    @Value("${app.template.path:}")
+    private String templatePath;
+
+    private final AtomicReference<TemplateSnapshot> snapshot = new AtomicReference<>(TemplateSnapshot.EMPTY);
+
+    @PostConstruct
+    public void init() {
+        if (templatePath == null || templatePath.trim().isEmpty()) {
+            logger.info("DOCX template is not configured, documents will be created from scratch");
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            // Сервис должен стартовать и без шаблона — документы будут без корпоративного оформления
+            logger.error("Failed to load DOCX template: {}", templatePath, e);
+        }
+    }
+
+    /**
+     * Перечитывает шаблон из {@code app.template.path} и атомарно подменяет текущий снимок.
+     * Рендеры, уже начавшие работу, дорабатывают на старом снимке. Путь из запроса не принимается:
+     * иначе любой клиент мог бы подложить всем рендерам произвольный файл с диска сервера.
+     */
+    public String reload() throws IOException {
+        if (templatePath == null || templatePath.trim().isEmpty()) {
+            throw new IllegalArgumentException("Путь к шаблону не указан");
+        }
+        String source = templatePath.trim();
+
+        Path file = Paths.get(source);
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Файл шаблона не найден: " + source);
+        }
+
+        long start = System.currentTimeMillis();
+        byte[] content = Files.readAllBytes(file);
+        try (XWPFDocument template = new XWPFDocument(new ByteArrayInputStream(content))) {
+            TemplateSnapshot loaded = TemplateSnapshot.of(source, SpecCacheService.contentHash(content), template);
+            snapshot.set(loaded);
+            logger.info("DOCX template loaded from {} in {} ms (headers: {}, footers: {}, pictures: {})",
+                    source, System.currentTimeMillis() - start,
+                    loaded.headers.size(), loaded.footers.size(), loaded.pictureCount());
+        }
+        return source;
+    }
+
+    public boolean isTemplateLoaded() {
+        return snapshot.get() != TemplateSnapshot.EMPTY;
+    }
+
+    public String getTemplateSource() {
+        return snapshot.get().source;
+    }
+
+    /**
+     * Отпечаток текущего шаблона - SHA-256 его файла; пустая строка, если шаблона нет. Входит в версию
+     * готового документа: после reload с другим файлом документы собираются заново.
+     */
+    public String getFingerprint() {
+        return snapshot.get().fingerprint;
+    }
+
+    /**
+     * Новый документ для рендера: пустой, либо с оформлением из шаблона.
+     */
+    public XWPFDocument createDocument() throws IOException {
+        TemplateSnapshot current = snapshot.get();
+        XWPFDocument document = new XWPFDocument();
+        if (current == TemplateSnapshot.EMPTY) {
+            return document;
+        }
+
+        try {
+            current.applyTo(document);
+        } catch (InvalidFormatException e) {
+            document.close();
+            throw new IOException("Failed to apply DOCX template: " + current.source, e);
+        }
+        return document;
+    }
+
+    // === СНИМОК ШАБЛОНА ===
+    private static final class TemplateSnapshot {
+        static final TemplateSnapshot EMPTY = new TemplateSnapshot();
+
+        String source;
+        String fingerprint = "";
+        CTStyles styles;
+        CTNumbering numbering;
+        CTBody body;
+        final Map<HeaderFooterType, TemplateHeaderFooter> headers = new EnumMap<>(HeaderFooterType.class);
+        final Map<HeaderFooterType, TemplateHeaderFooter> footers = new EnumMap<>(HeaderFooterType.class);
+        // relationId картинки в теле шаблона -> данные картинки
+        final Map<String, TemplatePicture> pictures = new HashMap<>();
+
+        static TemplateSnapshot of(String source, String fingerprint, XWPFDocument template) throws IOException {
+            TemplateSnapshot snapshot = new TemplateSnapshot();
+            snapshot.source = source;
+            snapshot.fingerprint = fingerprint;
+
+            try {
+                snapshot.styles = (CTStyles) template.getStyle().copy();
+            } catch (Exception e) {
+                logger.warn("Template has no readable styles part: {}", e.getMessage());
+            }
+
+            XWPFNumbering numbering = template.getNumbering();
+            if (numbering != null) {
+                try (InputStream in = numbering.getPackagePart().getInputStream()) {
+                    snapshot.numbering = NumberingDocument.Factory.parse(in).getNumbering();
+                } catch (Exception e) {
+                    logger.warn("Template numbering part could not be read: {}", e.getMessage());
+                }
+            }
+
+            XWPFHeaderFooterPolicy policy = template.getHeaderFooterPolicy();
+            if (policy != null) {
+                putHeaderFooter(snapshot.headers, HeaderFooterType.DEFAULT, policy.getDefaultHeader());
+                putHeaderFooter(snapshot.headers, HeaderFooterType.FIRST, policy.getFirstPageHeader());
+                putHeaderFooter(snapshot.headers, HeaderFooterType.EVEN, policy.getEvenPageHeader());
+                putHeaderFooter(snapshot.footers, HeaderFooterType.DEFAULT, policy.getDefaultFooter());
+                putHeaderFooter(snapshot.footers, HeaderFooterType.FIRST, policy.getFirstPageFooter());
+                putHeaderFooter(snapshot.footers, HeaderFooterType.EVEN, policy.getEvenPageFooter());
+            }
+
+            CTBody body = (CTBody) template.getDocument().getBody().copy();
+            if (body.isSetSectPr()) {
+                // Ссылки на колонтитулы шаблона указывают на его relationships — создадим свои
+                CTSectPr sectPr = body.getSectPr();
+                while (sectPr.sizeOfHeaderReferenceArray() > 0) sectPr.removeHeaderReference(0);
+                while (sectPr.sizeOfFooterReferenceArray() > 0) sectPr.removeFooterReference(0);
+            }
+            collectPictures(body, template, snapshot.pictures);
+            snapshot.body = body;
+
+            return snapshot;
+        }
+
+        private static void putHeaderFooter(Map<HeaderFooterType, TemplateHeaderFooter> target, HeaderFooterType type,
+                                            XWPFHeaderFooter headerFooter) {
+            if (headerFooter != null) {
+                CTHdrFtr xml = (CTHdrFtr) headerFooter._getHdrFtr().copy();
+                // Картинки колонтитула (логотип) - в relationships его собственной части, не документа
+                Map<String, TemplatePicture> pictures = new HashMap<>();
+                collectPictures(xml, headerFooter, pictures);
+                target.put(type, new TemplateHeaderFooter(xml, pictures));
+            }
+        }
+
+        private static void collectPictures(XmlObject xml, POIXMLDocumentPart owner,
+                                            Map<String, TemplatePicture> pictures) {
+            for (XmlObject blipObject : xml.selectPath(BLIP_PATH)) {
+                CTBlip blip = (CTBlip) blipObject;
+                String relationId = blip.getEmbed();
+                if (relationId == null || pictures.containsKey(relationId)) continue;
+                POIXMLDocumentPart part = owner.getRelationById(relationId);
+                if (part instanceof XWPFPictureData pictureData) {
+                    pictures.put(relationId, new TemplatePicture(pictureData.getData(), pictureData.getPictureType()));
+                }
+            }
+        }
+
+        int pictureCount() {
+            int count = pictures.size();
+            for (TemplateHeaderFooter headerFooter : headers.values()) count += headerFooter.pictures().size();
+            for (TemplateHeaderFooter headerFooter : footers.values()) count += headerFooter.pictures().size();
+            return count;
+        }
+
+        void applyTo(XWPFDocument document) throws InvalidFormatException {
+            // Каждому документу - своя копия: setStyles/setNumbering хранят объект по ссылке
+            if (styles != null) {
+                document.createStyles().setStyles((CTStyles) styles.copy());
+            }
+            if (numbering != null) {
+                document.createNumbering().setNumbering((CTNumbering) numbering.copy());
+            }
+            if (body != null) {
+                // set() копирует дерево XMLBeans в документ, снимок остаётся нетронутым
+                document.getDocument().setBody(body);
+                if (!pictures.isEmpty()) {
+                    Map<String, String> newIds = new HashMap<>();
+                    for (Map.Entry<String, TemplatePicture> entry : pictures.entrySet()) {
+                        TemplatePicture picture = entry.getValue();
+                        newIds.put(entry.getKey(), document.addPictureData(picture.data, picture.format));
+                    }
+                    relinkPictures(document.getDocument().getBody(), newIds);
+                }
+            }
+            for (Map.Entry<HeaderFooterType, TemplateHeaderFooter> entry : headers.entrySet()) {
+                entry.getValue().applyTo(document.createHeader(entry.getKey()));
+            }
+            for (Map.Entry<HeaderFooterType, TemplateHeaderFooter> entry : footers.entrySet()) {
+                entry.getValue().applyTo(document.createFooter(entry.getKey()));
+            }
+        }
+
+        private static void relinkPictures(XmlObject xml, Map<String, String> newIds) {
+            for (XmlObject blipObject : xml.selectPath(BLIP_PATH)) {
+                CTBlip blip = (CTBlip) blipObject;
+                String newId = newIds.get(blip.getEmbed());
+                if (newId != null) {
+                    blip.setEmbed(newId);
+                }
+            }
+        }
+    }
+
+    private record TemplatePicture(byte[] data, int format) {
+    }
+
+    // Колонтитул шаблона и его картинки по relationId в части колонтитула шаблона
+    private record TemplateHeaderFooter(CTHdrFtr xml, Map<String, TemplatePicture> pictures) {
+
+        void applyTo(XWPFHeaderFooter target) throws InvalidFormatException {
+            target.setHeaderFooter((CTHdrFtr) xml.copy());
+            if (pictures.isEmpty()) return;
+
+            // Картинки добавляются в relationships новой части колонтитула, ссылки переписываются на них
+            Map<String, String> newIds = new HashMap<>();
+            for (Map.Entry<String, TemplatePicture> entry : pictures.entrySet()) {
+                newIds.put(entry.getKey(), target.addPictureData(entry.getValue().data(), entry.getValue().format()));
+            }
+            TemplateSnapshot.relinkPictures(target._getHdrFtr(), newIds);
+        }
+    }
+}
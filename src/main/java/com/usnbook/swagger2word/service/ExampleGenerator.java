@@ -0,0 +1,282 @@
+package com.usnbook.swagger2word.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.usnbook.swagger2word.model.CompiledSpec;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+
+import java.util.*;
+
+/**
+ * Примеры тел запросов и ответов в JSON. Берётся пример из спецификации (example media type,
+ * первый из examples, example схемы), а если его нет - пример строится по схеме: типы, форматы,
+ * enum, minimum/maximum, длины строк, items, allOf, первая ветка oneOf/anyOf.
+ * <p>
+ * Построение ограничено глубиной {@link #MAX_DEPTH}, числом элементов массива {@link #MAX_ARRAY_ITEMS}
+ * и объёмом текста {@link #MAX_CHARS}: рекурсивная модель замыкается на {@code {}}, а огромная
+ * обрывается, и пример помечается как сокращённый. Результат запоминается по схеме (для $ref -
+ * по модели, на которую он ссылается), так что модель, которую возвращают сотни операций,
+ * строится один раз за рендер. Живёт в {@link RenderContext} и между потоками не делится.
+ */
+final class ExampleGenerator {
+
+    static final int MAX_DEPTH = 5;
+    static final int MAX_ARRAY_ITEMS = 2;
+    static final int MAX_CHARS = 4 * 1024;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectWriter PRETTY = MAPPER.writerWithDefaultPrettyPrinter();
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private final CompiledSpec spec;
+    private final Map<OpenApiSpec.Schema, Sample> samples = new IdentityHashMap<>();
+
+    // Состояние текущего построения
+    private final Set<OpenApiSpec.Schema> stack = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int budget;
+    private boolean truncated;
+
+    ExampleGenerator(CompiledSpec spec) {
+        this.spec = spec;
+    }
+
+    /**
+     * Пример для содержимого с типом {@code contentType}; null, если показать нечего. Построенные
+     * по схеме примеры - только для JSON: форма или XML в виде JSON ввели бы читателя в заблуждение.
+     */
+    Sample sample(String contentType, OpenApiSpec.MediaType mediaType) {
+        if (mediaType == null) return null;
+
+        Object explicit = explicitExample(mediaType);
+        if (explicit != null) return format(explicit);
+
+        if (!isJson(contentType) || mediaType.getSchema() == null) return null;
+        return samples.computeIfAbsent(memoKey(mediaType.getSchema()), this::generate);
+    }
+
+    private static Object explicitExample(OpenApiSpec.MediaType mediaType) {
+        if (mediaType.getExample() != null) return mediaType.getExample();
+        if (mediaType.getExamples() != null) {
+            for (OpenApiSpec.Example example : mediaType.getExamples().values()) {
+                if (example != null && example.getValue() != null) return example.getValue();
+            }
+        }
+        OpenApiSpec.Schema schema = mediaType.getSchema();
+        return schema != null ? schema.getExample() : null;
+    }
+
+    static boolean isJson(String contentType) {
+        if (contentType == null) return false;
+        String lower = contentType.toLowerCase(Locale.ROOT);
+        return lower.contains("json") || lower.startsWith("*/*");
+    }
+
+    // $ref на модель запоминается по самой модели: у каждой ссылки в спецификации свой объект
+    private OpenApiSpec.Schema memoKey(OpenApiSpec.Schema schema) {
+        CompiledSpec.SchemaEntry target = schema.getRef() != null ? spec.resolveRef(schema.getRef()) : null;
+        return target != null && target.schema() != null ? target.schema() : schema;
+    }
+
+    private Sample generate(OpenApiSpec.Schema schema) {
+        budget = MAX_CHARS;
+        truncated = false;
+        stack.clear();
+        JsonNode node = build(schema, 0);
+        Sample sample = format(node);
+        return truncated && !sample.truncated() ? new Sample(sample.text(), true) : sample;
+    }
+
+    // === ПОСТРОЕНИЕ ПО СХЕМЕ ===
+    private JsonNode build(OpenApiSpec.Schema schema, int depth) {
+        if (schema == null) return NODES.nullNode();
+
+        if (schema.getRef() != null) {
+            CompiledSpec.SchemaEntry target = spec.resolveRef(schema.getRef());
+            if (target == null || target.schema() == null) return NODES.objectNode();
+            return buildResolved(target.schema(), depth);
+        }
+        return buildResolved(schema, depth);
+    }
+
+    private JsonNode buildResolved(OpenApiSpec.Schema schema, int depth) {
+        // Рекурсивная модель замыкается на пустой объект на втором входе
+        if (!stack.add(schema)) return NODES.objectNode();
+        try {
+            return buildValue(schema, depth);
+        } finally {
+            stack.remove(schema);
+        }
+    }
+
+    private JsonNode buildValue(OpenApiSpec.Schema schema, int depth) {
+        if (schema.getExample() != null) return charge(MAPPER.valueToTree(schema.getExample()));
+        if (schema.getEnumValues() != null && !schema.getEnumValues().isEmpty()) {
+            return charge(MAPPER.valueToTree(schema.getEnumValues().get(0)));
+        }
+        if (schema.getDefaultValue() != null) return charge(MAPPER.valueToTree(schema.getDefaultValue()));
+
+        if (schema.getAllOf() != null && !schema.getAllOf().isEmpty()) return buildAllOf(schema, depth);
+        OpenApiSpec.Schema alternative = firstOf(schema.getOneOf(), schema.getAnyOf());
+        if (alternative != null && schema.getProperties() == null) return build(alternative, depth);
+
+        String type = schema.getType();
+        if ("array".equals(type) || (type == null && schema.getItems() != null)) return buildArray(schema, depth);
+        if ("string".equals(type)) return charge(NODES.textNode(stringValue(schema)));
+        if ("integer".equals(type)) return charge(NODES.numberNode(integerValue(schema)));
+        if ("number".equals(type)) return charge(NODES.numberNode((double) integerValue(schema)));
+        if ("boolean".equals(type)) return charge(NODES.booleanNode(true));
+        return buildObject(schema, depth);
+    }
+
+    private JsonNode buildObject(OpenApiSpec.Schema schema, int depth) {
+        ObjectNode object = NODES.objectNode();
+        budget -= 2;
+        if (depth >= MAX_DEPTH) {
+            if (schema.getProperties() != null && !schema.getProperties().isEmpty()) truncated = true;
+            return object;
+        }
+        putProperties(object, schema, depth);
+        return object;
+    }
+
+    private void putProperties(ObjectNode object, OpenApiSpec.Schema schema, int depth) {
+        if (schema.getProperties() != null) {
+            for (Map.Entry<String, OpenApiSpec.Schema> property : schema.getProperties().entrySet()) {
+                if (!put(object, property.getKey(), property.getValue(), depth)) return;
+            }
+        } else if (schema.getAdditionalProperties() != null) {
+            put(object, "key", schema.getAdditionalProperties(), depth);
+        }
+    }
+
+    // false - бюджет исчерпан, остальные свойства не добавляются
+    private boolean put(ObjectNode object, String name, OpenApiSpec.Schema schema, int depth) {
+        if (budget <= 0) {
+            truncated = true;
+            return false;
+        }
+        // Имя, кавычки, двоеточие и отступ
+        budget -= name.length() + 6 + 2 * depth;
+        object.set(name, build(schema, depth + 1));
+        return true;
+    }
+
+    private JsonNode buildAllOf(OpenApiSpec.Schema schema, int depth) {
+        ObjectNode merged = NODES.objectNode();
+        for (OpenApiSpec.Schema part : schema.getAllOf()) {
+            JsonNode partNode = build(part, depth);
+            if (partNode instanceof ObjectNode partObject) {
+                merged.setAll(partObject);
+            }
+        }
+        if (depth < MAX_DEPTH) putProperties(merged, schema, depth);
+        return merged;
+    }
+
+    private JsonNode buildArray(OpenApiSpec.Schema schema, int depth) {
+        ArrayNode array = NODES.arrayNode();
+        budget -= 2;
+        if (depth >= MAX_DEPTH || schema.getItems() == null) {
+            if (schema.getItems() != null) truncated = true;
+            return array;
+        }
+
+        int count = Math.max(1, schema.getMinItems() != null ? schema.getMinItems() : 1);
+        if (schema.getMaxItems() != null) count = Math.min(count, schema.getMaxItems());
+        if (count > MAX_ARRAY_ITEMS) truncated = true;
+        count = Math.min(count, MAX_ARRAY_ITEMS);
+        if (count == 0) return array;
+
+        int before = budget;
+        JsonNode item = build(schema.getItems(), depth + 1);
+        array.add(item);
+        // Повторы того же элемента стоят столько же, сколько первый
+        int itemCost = Math.max(1, before - budget);
+        for (int i = 1; i < count; i++) {
+            if (budget < itemCost) {
+                truncated = true;
+                break;
+            }
+            budget -= itemCost;
+            array.add(item.deepCopy());
+        }
+        return array;
+    }
+
+    private JsonNode charge(JsonNode value) {
+        budget -= value.isValueNode() ? value.asText().length() + 2 : value.toString().length();
+        return value;
+    }
+
+    private static OpenApiSpec.Schema firstOf(List<OpenApiSpec.Schema> oneOf, List<OpenApiSpec.Schema> anyOf) {
+        if (oneOf != null && !oneOf.isEmpty()) return oneOf.get(0);
+        if (anyOf != null && !anyOf.isEmpty()) return anyOf.get(0);
+        return null;
+    }
+
+    // === ЗНАЧЕНИЯ ПРОСТЫХ ТИПОВ ===
+    private static String stringValue(OpenApiSpec.Schema schema) {
+        String format = schema.getFormat() != null ? schema.getFormat().toLowerCase(Locale.ROOT) : "";
+        String value = switch (format) {
+            case "date" -> "2024-01-31";
+            case "date-time" -> "2024-01-31T12:00:00Z";
+            case "time" -> "12:00:00";
+            case "uuid" -> "3fa85f64-5717-4562-b3fc-2c963f66afa6";
+            case "email" -> "user@example.com";
+            case "uri", "url" -> "https://example.com";
+            case "hostname" -> "example.com";
+            case "ipv4" -> "192.168.0.1";
+            case "ipv6" -> "2001:db8::1";
+            case "byte" -> "U3dhZ2dlcg==";
+            case "binary" -> "<двоичные данные>";
+            case "password" -> "********";
+            default -> "string";
+        };
+        if (!format.isEmpty() && !"string".equals(value)) return value;
+
+        if (schema.getMinLength() != null && value.length() < schema.getMinLength()) {
+            value = value + "x".repeat(Math.min(schema.getMinLength(), MAX_CHARS) - value.length());
+        }
+        if (schema.getMaxLength() != null && value.length() > schema.getMaxLength()) {
+            value = value.substring(0, Math.max(0, schema.getMaxLength()));
+        }
+        return value;
+    }
+
+    private static long integerValue(OpenApiSpec.Schema schema) {
+        if (schema.getMinimum() != null) return schema.getMinimum();
+        if (schema.getMaximum() != null && schema.getMaximum() < 0) return schema.getMaximum();
+        return 0;
+    }
+
+    // === ФОРМАТИРОВАНИЕ ===
+    private static Sample format(Object value) {
+        String text;
+        if (value instanceof String string) {
+            text = string;
+        } else {
+            try {
+                text = PRETTY.writeValueAsString(value);
+            } catch (JsonProcessingException e) {
+                return null;
+            }
+        }
+        text = text.replace("\r\n", "\n");
+        if (text.length() <= MAX_CHARS) return new Sample(text, false);
+
+        // Длинный пример из спецификации обрезается по границе строки
+        int cut = text.lastIndexOf('\n', MAX_CHARS);
+        return new Sample(text.substring(0, cut > 0 ? cut : MAX_CHARS) + "\n...", true);
+    }
+
+    /**
+     * Текст примера и признак того, что он сокращён по одному из лимитов.
+     */
+    record Sample(String text, boolean truncated) {
+    }
+}
@@ -0,0 +1,345 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.model.CompiledSpec;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Потоковый HTML: каждый раздел пишется сразу в {@link Writer} ответа за один проход, без промежуточной модели.
+ * Ссылки на модели данных - обычные якоря {@code #schema-Name}.
+ */
+class HtmlDocumentRenderer implements DocumentRenderer {
+
+    private static final String STYLE = "body{font-family:'Times New Roman',serif;max-width:960px;margin:0 auto;padding:16px}"
+            + "code,.method{font-family:'Courier New',monospace}.method{font-weight:bold}"
+            + ".GET{color:#008000}.POST{color:#0000FF}.PUT{color:#FF8C00}.DELETE{color:#FF0000}.PATCH{color:#800080}"
+            + ".op{border-bottom:1px solid #ccc;padding:6px 0}.muted{color:#666}.deprecated{text-decoration:line-through}"
+            + "table{border-collapse:collapse;width:100%}th,td{border:1px solid #999;padding:2px 6px;text-align:left}"
+            + "th{background:#F0F8FF}";
+
+    private final Writer out;
+
+    HtmlDocumentRenderer(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void begin(RenderContext context) throws IOException {
+        out.write("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>");
+        text(context.spec.getInfo().getTitle());
+        out.write("</title><style>");
+        out.write(STYLE);
+        out.write("</style></head><body>\n");
+    }
+
+    @Override
+    public void titlePage(RenderContext context) throws IOException {
+        OpenApiSpec.Info info = context.spec.getInfo();
+        out.write("<h1>");
+        text(info.getTitle());
+        out.write("</h1>\n<p class=\"muted\">Версия API: ");
+        text(info.getVersion() != null ? info.getVersion() : "N/A");
+        out.write(" | OpenAPI: ");
+        String openapi = context.spec.getOpenapi();
+        text(openapi != null ? openapi : "N/A");
+        out.write("</p>\n");
+
+        if (info.getContact() != null) {
+            OpenApiSpec.Contact contact = info.getContact();
+            out.write("<p>");
+            if (contact.getName() != null) {
+                out.write("Разработчик: ");
+                text(contact.getName());
+                out.write("<br>");
+            }
+            if (contact.getEmail() != null) {
+                out.write("Email: ");
+                text(contact.getEmail());
+                out.write("<br>");
+            }
+            if (contact.getUrl() != null) {
+                out.write("Сайт: ");
+                text(contact.getUrl());
+            }
+            out.write("</p>\n");
+        }
+        if (info.getLicense() != null) {
+            out.write("<p>Лицензия: ");
+            text(info.getLicense().getName());
+            out.write("</p>\n");
+        }
+    }
+
+    @Override
+    public void generalInfo(RenderContext context) throws IOException {
+        String description = context.spec.getInfo().getDescription();
+        if (description == null) return;
+        out.write("<h2>1. Общая информация</h2>\n<p>");
+        text(description);
+        out.write("</p>\n");
+    }
+
+    @Override
+    public void servers(RenderContext context, List<OpenApiSpec.Server> servers) throws IOException {
+        if (servers == null || servers.isEmpty()) return;
+        out.write("<h2>2. Серверы</h2>\n<ol>\n");
+        for (OpenApiSpec.Server server : servers) {
+            out.write("<li><code>");
+            text(server.getUrl());
+            out.write("</code>");
+            if (server.getDescription() != null) {
+                out.write(" <i>");
+                text(server.getDescription());
+                out.write("</i>");
+            }
+            out.write("</li>\n");
+        }
+        out.write("</ol>\n");
+    }
+
+    @Override
+    public void tags(RenderContext context, List<OpenApiSpec.Tag> tags) throws IOException {
+        if (tags == null || tags.isEmpty()) return;
+        out.write("<h2>3. Группы API</h2>\n<ol>\n");
+        for (OpenApiSpec.Tag tag : tags) {
+            out.write("<li><b>");
+            text(tag.getName());
+            out.write("</b>");
+            if (tag.getDescription() != null) {
+                out.write(" - <i>");
+                text(tag.getDescription());
+                out.write("</i>");
+            }
+            out.write("</li>\n");
+        }
+        out.write("</ol>\n");
+    }
+
+    @Override
+    public void endpoints(RenderContext context, Map<String, List<CompiledSpec.OperationEntry>> groupedOperations)
+            throws IOException {
+        out.write("<h2>4. Endpoints</h2>\n");
+        if (context.operations.isEmpty()) {
+            out.write("<p class=\"muted\"><i>В спецификации API не определены endpoints (paths).</i></p>\n");
+            return;
+        }
+
+        if (groupedOperations.isEmpty()) {
+            out.write("<h3>4.1. Все endpoints (без группировки)</h3>\n");
+            for (CompiledSpec.OperationEntry entry : context.operations) {
+                operation(context, entry);
+            }
+            return;
+        }
+
+        int groupNum = 1;
+        for (Map.Entry<String, List<CompiledSpec.OperationEntry>> group : groupedOperations.entrySet()) {
+            out.write("<h3>");
+            out.write(Integer.toString(groupNum++));
+            out.write(". ");
+            text(group.getKey());
+            out.write(" (");
+            out.write(Integer.toString(group.getValue().size()));
+            out.write(" операций)</h3>\n");
+            for (CompiledSpec.OperationEntry entry : group.getValue()) {
+                operation(context, entry);
+            }
+        }
+    }
+
+    private void operation(RenderContext context, CompiledSpec.OperationEntry entry) throws IOException {
+        OpenApiSpec.Operation operation = entry.operation();
+        out.write("<div class=\"op\"><span class=\"method ");
+        out.write(entry.method());
+        out.write("\">");
+        out.write(entry.method());
+        out.write("</span> <code");
+        if (entry.deprecated()) out.write(" class=\"deprecated\"");
+        out.write(">");
+        text(entry.path());
+        out.write("</code>");
+        if (operation.getOperationId() != null) {
+            out.write(" <span class=\"muted\">ID: ");
+            text(operation.getOperationId());
+            out.write("</span>");
+        }
+        out.write("\n");
+        if (operation.getSummary() != null) {
+            out.write("<p><i>");
+            text(operation.getSummary());
+            out.write("</i></p>\n");
+        }
+        if (operation.getDescription() != null) {
+            out.write("<p>");
+            text(operation.getDescription());
+            out.write("</p>\n");
+        }
+
+        if (operation.getParameters() != null && !operation.getParameters().isEmpty()) {
+            out.write("<p><b>Параметры:</b></p>\n<ul>\n");
+            for (OpenApiSpec.Parameter param : operation.getParameters()) {
+                if (param == null || param.getName() == null) continue;
+                out.write("<li><b>");
+                text(param.getName());
+                out.write("</b> (");
+                text(SchemaTypeFormatter.locationText(param.getIn()));
+                out.write(")");
+                if (Boolean.TRUE.equals(param.getRequired())) out.write(" *");
+                if (param.getSchema() != null) {
+                    out.write(" - ");
+                    schemaType(context, param.getSchema());
+                }
+                if (param.getDescription() != null && !param.getDescription().trim().isEmpty()) {
+                    out.write("<br>");
+                    text(param.getDescription());
+                }
+                out.write("</li>\n");
+            }
+            out.write("</ul>\n");
+        }
+
+        OpenApiSpec.RequestBody requestBody = operation.getRequestBody();
+        if (requestBody != null) {
+            out.write("<p><b>Тело запроса");
+            if (Boolean.TRUE.equals(requestBody.getRequired())) out.write(" (обязательное)");
+            out.write(":</b></p>\n<ul>\n");
+            if (requestBody.getDescription() != null && !requestBody.getDescription().trim().isEmpty()) {
+                out.write("<li>");
+                text(requestBody.getDescription());
+                out.write("</li>\n");
+            }
+            content(context, requestBody.getContent());
+            out.write("</ul>\n");
+        }
+
+        if (entry.responses().length > 0) {
+            out.write("<p><b>Ответы:</b></p>\n<ul>\n");
+            for (int i = 0; i < entry.responses().length; i++) {
+                OpenApiSpec.Response response = entry.responses()[i];
+                out.write("<li><b>HTTP ");
+                text(entry.responseCodes()[i]);
+                out.write(":</b> ");
+                String description = response.getDescription();
+                text(description != null && !description.trim().isEmpty() ? description : "Успешный ответ");
+                if (response.getContent() != null && !response.getContent().isEmpty()) {
+                    out.write("\n<ul>\n");
+                    content(context, response.getContent());
+                    out.write("</ul>\n");
+                }
+                out.write("</li>\n");
+            }
+            out.write("</ul>\n");
+        }
+        out.write("</div>\n");
+    }
+
+    private void content(RenderContext context, Map<String, OpenApiSpec.MediaType> content) throws IOException {
+        if (content == null) return;
+        for (Map.Entry<String, OpenApiSpec.MediaType> contentEntry : content.entrySet()) {
+            out.write("<li><code>");
+            text(contentEntry.getKey());
+            out.write("</code>");
+            if (contentEntry.getValue() != null && contentEntry.getValue().getSchema() != null) {
+                out.write(": ");
+                schemaType(context, contentEntry.getValue().getSchema());
+            }
+            out.write("</li>\n");
+        }
+    }
+
+    @Override
+    public void schemas(RenderContext context, List<CompiledSpec.SchemaEntry> schemas) throws IOException {
+        if (schemas.isEmpty()) return;
+        out.write("<h2>5. Модели данных</h2>\n");
+
+        int schemaNum = 1;
+        for (CompiledSpec.SchemaEntry entry : schemas) {
+            OpenApiSpec.Schema schema = entry.schema();
+            out.write("<h3 id=\"schema-");
+            text(entry.name());
+            out.write("\">");
+            out.write(Integer.toString(schemaNum++));
+            out.write(". ");
+            text(entry.name());
+            out.write("</h3>\n");
+            if (schema.getDescription() != null && !schema.getDescription().trim().isEmpty()) {
+                out.write("<p><i>");
+                text(schema.getDescription());
+                out.write("</i></p>\n");
+            }
+            if (schema.getType() != null) {
+                out.write("<p>Тип: ");
+                text(schema.getType());
+                if (schema.getFormat() != null) {
+                    out.write(" | Формат: ");
+                    text(schema.getFormat());
+                }
+                out.write("</p>\n");
+            }
+
+            String[] propertyNames = entry.propertyNames();
+            if (propertyNames.length == 0) continue;
+            out.write("<table><tr><th>Поле</th><th>Тип</th><th>Обязательное</th><th>Описание</th></tr>\n");
+            for (int i = 0; i < propertyNames.length; i++) {
+                OpenApiSpec.Schema property = entry.propertySchemas()[i];
+                out.write("<tr><td>");
+                text(propertyNames[i]);
+                out.write("</td><td>");
+                schemaType(context, property);
+                out.write("</td><td>");
+                out.write(entry.requiredProperties()[i] ? "Да" : "Нет");
+                out.write("</td><td>");
+                if (property != null && property.getDescription() != null) text(property.getDescription());
+                out.write("</td></tr>\n");
+            }
+            out.write("</table>\n");
+        }
+    }
+
+    @Override
+    public void end(RenderContext context) throws IOException {
+        out.write("</body></html>\n");
+        out.flush();
+    }
+
+    private void schemaType(RenderContext context, OpenApiSpec.Schema schema) throws IOException {
+        CompiledSpec.SchemaEntry linked = schema != null ? SchemaTypeFormatter.referencedSchema(schema, context.spec) : null;
+        if (linked == null || !context.isSchemaRendered(linked.name())) {
+            text(SchemaTypeFormatter.schemaType(schema, context.spec));
+            return;
+        }
+
+        int arrayDepth = SchemaTypeFormatter.arrayDepth(schema);
+        out.write("array[".repeat(arrayDepth));
+        out.write("<a href=\"#schema-");
+        text(linked.name());
+        out.write("\">");
+        text(linked.name());
+        out.write("</a>");
+        out.write("]".repeat(arrayDepth));
+    }
+
+    // Экранирование без промежуточных строк: безопасные участки пишутся в Writer диапазонами
+    private void text(String value) throws IOException {
+        if (value == null) return;
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            String replacement;
+            switch (value.charAt(i)) {
+                case '<': replacement = "&lt;"; break;
+                case '>': replacement = "&gt;"; break;
+                case '&': replacement = "&amp;"; break;
+                case '"': replacement = "&quot;"; break;
+                default: continue;
+            }
+            out.write(value, start, i - start);
+            out.write(replacement);
+            start = i + 1;
+        }
+        out.write(value, start, value.length() - start);
+    }
+}
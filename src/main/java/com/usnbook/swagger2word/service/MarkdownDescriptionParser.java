@@ -0,0 +1,460 @@
+package com.usnbook.swagger2word.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разбор описаний в CommonMark (операции, теги, модели) на блоки для Word: абзацы, заголовки,
+ * пункты списков, цитаты, блоки кода и таблицы GFM; внутри - жирный, курсив, код и ссылки.
+ * <p>
+ * Разбор идёт одним проходом по тексту: строка распознаётся по первым символам, без регулярных
+ * выражений, а строчная разметка - одним сканированием абзаца. Результат запоминается по тексту:
+ * одно и то же описание у десятков операций разбирается один раз за рендер.
+ * Живёт в {@link RenderContext} и между потоками не делится.
+ */
+final class MarkdownDescriptionParser {
+
+    static final int BOLD = 1;
+    static final int ITALIC = 2;
+    static final int CODE = 4;
+
+    private static final int MAX_LIST_LEVEL = 3;
+
+    private final Map<String, List<Block>> cache = new HashMap<>();
+
+    List<Block> parse(String text) {
+        if (text == null || text.isBlank()) return List.of();
+        return cache.computeIfAbsent(text, MarkdownDescriptionParser::parseBlocks);
+    }
+
+    // === БЛОКИ ===
+    private static List<Block> parseBlocks(String text) {
+        BlockBuilder builder = new BlockBuilder();
+        int length = text.length();
+        int pos = 0;
+        while (pos < length) {
+            int end = lineEnd(text, pos);
+            int next = end < length ? end + 1 : length;
+            int contentEnd = end > pos && text.charAt(end - 1) == '\r' ? end - 1 : end;
+            int start = skipSpaces(text, pos, contentEnd);
+
+            if (start == contentEnd) {
+                builder.flush();
+                pos = next;
+                continue;
+            }
+
+            char first = text.charAt(start);
+            int fence = fenceLength(text, start, contentEnd);
+            if (fence > 0) {
+                pos = readFence(text, next, first, fence, start - pos, builder);
+                continue;
+            }
+
+            if (first == '#') {
+                int level = repeat(text, start, contentEnd, '#');
+                if (level <= 6 && (start + level == contentEnd || text.charAt(start + level) == ' ')) {
+                    builder.flush();
+                    int titleEnd = headingEnd(text, start + level, contentEnd);
+                    builder.add(new Block(Kind.HEADING, level, null,
+                            parseInline(text.substring(skipSpaces(text, start + level, titleEnd), titleEnd)), null, null));
+                    pos = next;
+                    continue;
+                }
+            }
+
+            if ((first == '-' || first == '*' || first == '_') && isThematicBreak(text, start, contentEnd, first)) {
+                builder.flush();
+                pos = next;
+                continue;
+            }
+
+            if (first == '>') {
+                int quoteStart = start + 1 < contentEnd && text.charAt(start + 1) == ' ' ? start + 2 : start + 1;
+                builder.append(Kind.QUOTE, 0, null, text, quoteStart, contentEnd);
+                pos = next;
+                continue;
+            }
+
+            if ((first == '-' || first == '*' || first == '+') && start + 1 < contentEnd && text.charAt(start + 1) == ' ') {
+                builder.flush();
+                builder.append(Kind.ITEM, listLevel(start - pos), "•", text, start + 2, contentEnd);
+                pos = next;
+                continue;
+            }
+
+            int digits = repeatDigits(text, start, contentEnd);
+            if (digits > 0 && digits <= 9 && start + digits + 1 < contentEnd
+                    && (text.charAt(start + digits) == '.' || text.charAt(start + digits) == ')')
+                    && text.charAt(start + digits + 1) == ' ') {
+                builder.flush();
+                builder.append(Kind.ITEM, listLevel(start - pos), text.substring(start, start + digits) + ".",
+                        text, start + digits + 2, contentEnd);
+                pos = next;
+                continue;
+            }
+
+            if (indexOf(text, '|', start, contentEnd) >= 0) {
+                int after = readTable(text, pos, builder);
+                if (after > pos) {
+                    pos = after;
+                    continue;
+                }
+            }
+
+            // Строка абзаца: продолжает абзац, пункт списка или цитату
+            builder.append(builder.kind != null ? builder.kind : Kind.PARAGRAPH, builder.level, builder.marker,
+                    text, start, contentEnd);
+            pos = next;
+        }
+        builder.flush();
+        return List.copyOf(builder.blocks);
+    }
+
+    // Блок кода до закрывающей ограды того же символа (или до конца текста); отступ открывающей снимается
+    private static int readFence(String text, int pos, char fenceChar, int fence, int indent, BlockBuilder builder) {
+        builder.flush();
+        StringBuilder code = new StringBuilder();
+        int length = text.length();
+        while (pos < length) {
+            int end = lineEnd(text, pos);
+            int next = end < length ? end + 1 : length;
+            int contentEnd = end > pos && text.charAt(end - 1) == '\r' ? end - 1 : end;
+            int start = skipSpaces(text, pos, contentEnd);
+            if (start < contentEnd && text.charAt(start) == fenceChar
+                    && repeat(text, start, contentEnd, fenceChar) >= fence
+                    && skipSpaces(text, start + repeat(text, start, contentEnd, fenceChar), contentEnd) == contentEnd) {
+                pos = next;
+                break;
+            }
+            if (!code.isEmpty()) code.append('\n');
+            code.append(text, Math.min(pos + indent, start), contentEnd);
+            pos = next;
+        }
+        builder.add(new Block(Kind.CODE, 0, null, List.of(), code.toString(), null));
+        return pos;
+    }
+
+    /**
+     * Таблица GFM: строка с '|', за которой идёт строка-разделитель ({@code |---|:--:|}).
+     * Возвращает позицию после таблицы или {@code pos}, если это не таблица.
+     */
+    private static int readTable(String text, int pos, BlockBuilder builder) {
+        int length = text.length();
+        int end = lineEnd(text, pos);
+        int contentEnd = end > pos && text.charAt(end - 1) == '\r' ? end - 1 : end;
+        int next = end < length ? end + 1 : length;
+        int separatorEnd = lineEnd(text, next);
+        if (next >= length || !isTableSeparator(text, next, separatorEnd)) return pos;
+
+        builder.flush();
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(splitCells(text, pos, contentEnd));
+        pos = separatorEnd < length ? separatorEnd + 1 : length;
+        while (pos < length) {
+            end = lineEnd(text, pos);
+            contentEnd = end > pos && text.charAt(end - 1) == '\r' ? end - 1 : end;
+            int start = skipSpaces(text, pos, contentEnd);
+            if (start == contentEnd || indexOf(text, '|', start, contentEnd) < 0) break;
+            rows.add(splitCells(text, start, contentEnd));
+            pos = end < length ? end + 1 : length;
+        }
+        builder.add(new Block(Kind.TABLE, 0, null, List.of(), null, normalizeColumns(rows)));
+        return pos;
+    }
+
+    private static List<String> splitCells(String text, int start, int end) {
+        start = skipSpaces(text, start, end);
+        while (end > start && text.charAt(end - 1) == ' ') end--;
+        if (start < end && text.charAt(start) == '|') start++;
+        if (end > start && text.charAt(end - 1) == '|' && (end - 2 < start || text.charAt(end - 2) != '\\')) end--;
+
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < end && text.charAt(i + 1) == '|') {
+                cell.append('|');
+                i++;
+            } else if (c == '|') {
+                cells.add(plainText(cell.toString().trim()));
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(plainText(cell.toString().trim()));
+        return cells;
+    }
+
+    // Все строки - по числу колонок заголовка: DocxTableBuilder требует ровные строки
+    private static List<List<String>> normalizeColumns(List<List<String>> rows) {
+        int columns = rows.get(0).size();
+        List<List<String>> normalized = new ArrayList<>(rows.size());
+        for (List<String> row : rows) {
+            List<String> cells = new ArrayList<>(row.subList(0, Math.min(columns, row.size())));
+            while (cells.size() < columns) cells.add("");
+            normalized.add(List.copyOf(cells));
+        }
+        return List.copyOf(normalized);
+    }
+
+    private static boolean isTableSeparator(String text, int start, int end) {
+        boolean dash = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '-') dash = true;
+            else if (c != '|' && c != ':' && c != ' ' && c != '\r' && c != '\t') return false;
+        }
+        return dash;
+    }
+
+    private static boolean isThematicBreak(String text, int start, int end, char marker) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == marker) count++;
+            else if (c != ' ') return false;
+        }
+        return count >= 3;
+    }
+
+    // Конец текста заголовка: закрывающие '#' снимаются, только если перед ними пробел (# C# остаётся)
+    private static int headingEnd(String text, int start, int end) {
+        while (end > start && text.charAt(end - 1) == ' ') end--;
+        int hashes = end;
+        while (hashes > start && text.charAt(hashes - 1) == '#') hashes--;
+        if (hashes < end && (hashes == start || text.charAt(hashes - 1) == ' ')) end = hashes;
+        while (end > start && text.charAt(end - 1) == ' ') end--;
+        return end;
+    }
+
+    private static int fenceLength(String text, int start, int end) {
+        char c = text.charAt(start);
+        if (c != '`' && c != '~') return 0;
+        int count = repeat(text, start, end, c);
+        return count >= 3 ? count : 0;
+    }
+
+    private static int listLevel(int indent) {
+        return Math.min(indent / 2, MAX_LIST_LEVEL);
+    }
+
+    private static int indexOf(String text, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private static int lineEnd(String text, int pos) {
+        int end = text.indexOf('\n', pos);
+        return end < 0 ? text.length() : end;
+    }
+
+    private static int skipSpaces(String text, int pos, int end) {
+        while (pos < end && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) pos++;
+        return pos;
+    }
+
+    private static int repeat(String text, int pos, int end, char c) {
+        int count = 0;
+        while (pos + count < end && text.charAt(pos + count) == c) count++;
+        return count;
+    }
+
+    private static int repeatDigits(String text, int pos, int end) {
+        int count = 0;
+        while (pos + count < end && Character.isDigit(text.charAt(pos + count))) count++;
+        return count;
+    }
+
+    /**
+     * Копит строки текущего абзаца, пункта или цитаты. Строка, оканчивающаяся двумя пробелами
+     * или обратной косой чертой, даёт перенос строки, остальные склеиваются через пробел.
+     */
+    private static final class BlockBuilder {
+
+        final List<Block> blocks = new ArrayList<>();
+        final StringBuilder pending = new StringBuilder();
+        Kind kind;
+        int level;
+        String marker;
+
+        void append(Kind lineKind, int lineLevel, String lineMarker, String text, int start, int end) {
+            if (kind != null && kind != lineKind) flush();
+            if (kind == null) {
+                kind = lineKind;
+                level = lineLevel;
+                marker = lineMarker;
+            } else if (!pending.isEmpty() && pending.charAt(pending.length() - 1) != '\n') {
+                pending.append(' ');
+            }
+
+            boolean hardBreak = false;
+            if (end - start >= 2 && text.charAt(end - 1) == ' ' && text.charAt(end - 2) == ' ') {
+                hardBreak = true;
+            } else if (end > start && text.charAt(end - 1) == '\\') {
+                hardBreak = true;
+                end--;
+            }
+            while (end > start && text.charAt(end - 1) == ' ') end--;
+            pending.append(text, start, end);
+            if (hardBreak) pending.append('\n');
+        }
+
+        void flush() {
+            if (kind != null) {
+                int end = pending.length();
+                while (end > 0 && pending.charAt(end - 1) == '\n') end--;
+                blocks.add(new Block(kind, level, marker, parseInline(pending.substring(0, end)), null, null));
+            }
+            pending.setLength(0);
+            kind = null;
+            marker = null;
+            level = 0;
+        }
+
+        void add(Block block) {
+            blocks.add(block);
+        }
+    }
+
+    // === СТРОЧНАЯ РАЗМЕТКА ===
+    static List<Span> parseInline(String text) {
+        List<Span> spans = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int style = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+
+            if (c == '\\' && i + 1 < length && isPunctuation(text.charAt(i + 1))) {
+                current.append(text.charAt(i + 1));
+                i += 2;
+            } else if (c == '\n') {
+                flushSpan(spans, current, style, null);
+                spans.add(Span.BREAK);
+                i++;
+            } else if (c == '`') {
+                int ticks = repeat(text, i, length, '`');
+                int close = text.indexOf("`".repeat(ticks), i + ticks);
+                if (close < 0) {
+                    current.append(text, i, i + ticks);
+                    i += ticks;
+                    continue;
+                }
+                flushSpan(spans, current, style, null);
+                String code = text.substring(i + ticks, close);
+                if (code.length() > 2 && code.charAt(0) == ' ' && code.charAt(code.length() - 1) == ' ') {
+                    code = code.substring(1, code.length() - 1);
+                }
+                spans.add(new Span(code, style | CODE, null));
+                i = close + ticks;
+            } else if (c == '*' || c == '_') {
+                int run = repeat(text, i, length, c);
+                int width = run >= 2 ? 2 : 1;
+                int flag = width == 2 ? BOLD : ITALIC;
+                boolean intraword = c == '_' && i > 0 && Character.isLetterOrDigit(text.charAt(i - 1))
+                        && i + run < length && Character.isLetterOrDigit(text.charAt(i + run));
+                boolean opening = (style & flag) == 0;
+                String delimiter = String.valueOf(c).repeat(width);
+                if (intraword || (opening && (i + width >= length || text.charAt(i + width) == ' '
+                        || text.indexOf(delimiter, i + width) < 0))) {
+                    current.append(text, i, i + run);
+                    i += run;
+                    continue;
+                }
+                flushSpan(spans, current, style, null);
+                style ^= flag;
+                i += width;
+            } else if (c == '[' || (c == '!' && i + 1 < length && text.charAt(i + 1) == '[')) {
+                int labelStart = c == '!' ? i + 2 : i + 1;
+                int labelEnd = text.indexOf(']', labelStart);
+                int urlEnd = labelEnd > 0 && labelEnd + 1 < length && text.charAt(labelEnd + 1) == '('
+                        ? text.indexOf(')', labelEnd + 2) : -1;
+                if (urlEnd < 0) {
+                    current.append(c);
+                    i++;
+                    continue;
+                }
+                flushSpan(spans, current, style, null);
+                String label = text.substring(labelStart, labelEnd);
+                String url = text.substring(labelEnd + 2, urlEnd).trim();
+                int title = url.indexOf(' ');
+                if (title > 0) url = url.substring(0, title);
+                // Картинка в Word не встраивается - остаётся подпись
+                spans.add(new Span(label.isEmpty() ? url : label, style, c == '!' ? null : url));
+                i = urlEnd + 1;
+            } else if (c == '<') {
+                int close = text.indexOf('>', i + 1);
+                String inner = close > 0 ? text.substring(i + 1, close) : "";
+                if (isBreakTag(inner)) {
+                    flushSpan(spans, current, style, null);
+                    spans.add(Span.BREAK);
+                    i = close + 1;
+                } else if (isAutolink(inner)) {
+                    flushSpan(spans, current, style, null);
+                    spans.add(new Span(inner, style, inner));
+                    i = close + 1;
+                } else {
+                    current.append(c);
+                    i++;
+                }
+            } else {
+                current.append(c);
+                i++;
+            }
+        }
+        flushSpan(spans, current, style, null);
+        return List.copyOf(spans);
+    }
+
+    private static void flushSpan(List<Span> spans, StringBuilder current, int style, String link) {
+        if (current.isEmpty()) return;
+        spans.add(new Span(current.toString(), style, link));
+        current.setLength(0);
+    }
+
+    // Текст ячейки таблицы: разметка снимается, DocxTableBuilder пишет ячейку одним run
+    private static String plainText(String markdown) {
+        StringBuilder plain = new StringBuilder();
+        for (Span span : parseInline(markdown)) {
+            plain.append(span == Span.BREAK ? " " : span.text());
+        }
+        return plain.toString();
+    }
+
+    private static boolean isBreakTag(String tag) {
+        return tag.equalsIgnoreCase("br") || tag.equalsIgnoreCase("br/") || tag.equalsIgnoreCase("br /");
+    }
+
+    private static boolean isAutolink(String inner) {
+        return (inner.startsWith("http://") || inner.startsWith("https://") || inner.startsWith("mailto:"))
+                && inner.indexOf(' ') < 0;
+    }
+
+    private static boolean isPunctuation(char c) {
+        return c < 128 && !Character.isLetterOrDigit(c) && !Character.isWhitespace(c);
+    }
+
+    enum Kind {PARAGRAPH, HEADING, ITEM, QUOTE, CODE, TABLE}
+
+    /**
+     * Блок описания. {@code level} - уровень заголовка или вложенность пункта списка, {@code marker} -
+     * маркер пункта ("•" или "1."), {@code code} - текст блока кода, {@code rows} - ячейки таблицы
+     * (первая строка - заголовок).
+     */
+    record Block(Kind kind, int level, String marker, List<Span> spans, String code, List<List<String>> rows) {
+    }
+
+    /**
+     * Фрагмент текста со стилем ({@link #BOLD}, {@link #ITALIC}, {@link #CODE}) и ссылкой, если это ссылка.
+     */
+    record Span(String text, int style, String link) {
+        static final Span BREAK = new Span("\n", 0, null);
+    }
+}
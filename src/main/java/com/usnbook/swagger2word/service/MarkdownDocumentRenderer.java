@@ -0,0 +1,345 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.model.CompiledSpec;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Потоковый Markdown (GitHub-совместимый): разделы пишутся сразу в {@link Writer} за один проход.
+ * Ссылки на модели данных ведут на якоря {@code #schema-Name}, объявленные перед заголовком модели.
+ */
+class MarkdownDocumentRenderer implements DocumentRenderer {
+
+    private final Writer out;
+
+    MarkdownDocumentRenderer(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void titlePage(RenderContext context) throws IOException {
+        OpenApiSpec.Info info = context.spec.getInfo();
+        out.write("# ");
+        text(info.getTitle());
+        out.write("\n\n*Версия API: ");
+        text(info.getVersion() != null ? info.getVersion() : "N/A");
+        out.write(" | OpenAPI: ");
+        String openapi = context.spec.getOpenapi();
+        text(openapi != null ? openapi : "N/A");
+        out.write("*\n\n");
+
+        if (info.getContact() != null) {
+            OpenApiSpec.Contact contact = info.getContact();
+            if (contact.getName() != null) {
+                out.write("- Разработчик: ");
+                text(contact.getName());
+                out.write('\n');
+            }
+            if (contact.getEmail() != null) {
+                out.write("- Email: ");
+                text(contact.getEmail());
+                out.write('\n');
+            }
+            if (contact.getUrl() != null) {
+                out.write("- Сайт: ");
+                text(contact.getUrl());
+                out.write('\n');
+            }
+            out.write('\n');
+        }
+        if (info.getLicense() != null) {
+            out.write("Лицензия: ");
+            text(info.getLicense().getName());
+            out.write("\n\n");
+        }
+    }
+
+    @Override
+    public void generalInfo(RenderContext context) throws IOException {
+        String description = context.spec.getInfo().getDescription();
+        if (description == null) return;
+        out.write("## 1. Общая информация\n\n");
+        text(description);
+        out.write("\n\n");
+    }
+
+    @Override
+    public void servers(RenderContext context, List<OpenApiSpec.Server> servers) throws IOException {
+        if (servers == null || servers.isEmpty()) return;
+        out.write("## 2. Серверы\n\n");
+        int serverNum = 1;
+        for (OpenApiSpec.Server server : servers) {
+            out.write(Integer.toString(serverNum++));
+            out.write(". `");
+            code(server.getUrl());
+            out.write('`');
+            if (server.getDescription() != null) {
+                out.write(" *");
+                text(server.getDescription());
+                out.write('*');
+            }
+            out.write('\n');
+        }
+        out.write('\n');
+    }
+
+    @Override
+    public void tags(RenderContext context, List<OpenApiSpec.Tag> tags) throws IOException {
+        if (tags == null || tags.isEmpty()) return;
+        out.write("## 3. Группы API\n\n");
+        int tagNum = 1;
+        for (OpenApiSpec.Tag tag : tags) {
+            out.write(Integer.toString(tagNum++));
+            out.write(". **");
+            text(tag.getName());
+            out.write("**");
+            if (tag.getDescription() != null) {
+                out.write(" - *");
+                text(tag.getDescription());
+                out.write('*');
+            }
+            out.write('\n');
+        }
+        out.write('\n');
+    }
+
+    @Override
+    public void endpoints(RenderContext context, Map<String, List<CompiledSpec.OperationEntry>> groupedOperations)
+            throws IOException {
+        out.write("## 4. Endpoints\n\n");
+        if (context.operations.isEmpty()) {
+            out.write("*В спецификации API не определены endpoints (paths).*\n\n");
+            return;
+        }
+
+        if (groupedOperations.isEmpty()) {
+            out.write("### 4.1. Все endpoints (без группировки)\n\n");
+            for (CompiledSpec.OperationEntry entry : context.operations) {
+                operation(context, entry);
+            }
+            return;
+        }
+
+        int groupNum = 1;
+        for (Map.Entry<String, List<CompiledSpec.OperationEntry>> group : groupedOperations.entrySet()) {
+            out.write("### ");
+            out.write(Integer.toString(groupNum++));
+            out.write(". ");
+            text(group.getKey());
+            out.write(" (");
+            out.write(Integer.toString(group.getValue().size()));
+            out.write(" операций)\n\n");
+            for (CompiledSpec.OperationEntry entry : group.getValue()) {
+                operation(context, entry);
+            }
+        }
+    }
+
+    private void operation(RenderContext context, CompiledSpec.OperationEntry entry) throws IOException {
+        OpenApiSpec.Operation operation = entry.operation();
+        out.write("#### ");
+        if (entry.deprecated()) out.write("~~");
+        out.write('`');
+        out.write(entry.method());
+        out.write(' ');
+        code(entry.path());
+        out.write('`');
+        if (entry.deprecated()) out.write("~~");
+        out.write("\n\n");
+        if (operation.getOperationId() != null) {
+            out.write("ID: `");
+            code(operation.getOperationId());
+            out.write("`\n\n");
+        }
+        if (operation.getSummary() != null) {
+            out.write('*');
+            text(operation.getSummary());
+            out.write("*\n\n");
+        }
+        if (operation.getDescription() != null) {
+            text(operation.getDescription());
+            out.write("\n\n");
+        }
+
+        if (operation.getParameters() != null && !operation.getParameters().isEmpty()) {
+            out.write("**Параметры:**\n\n");
+            for (OpenApiSpec.Parameter param : operation.getParameters()) {
+                if (param == null || param.getName() == null) continue;
+                out.write("- **");
+                text(param.getName());
+                out.write("** (");
+                text(SchemaTypeFormatter.locationText(param.getIn()));
+                out.write(')');
+                if (Boolean.TRUE.equals(param.getRequired())) out.write(" \\*");
+                if (param.getSchema() != null) {
+                    out.write(" - ");
+                    schemaType(context, param.getSchema());
+                }
+                if (param.getDescription() != null && !param.getDescription().trim().isEmpty()) {
+                    out.write(": ");
+                    text(param.getDescription());
+                }
+                out.write('\n');
+            }
+            out.write('\n');
+        }
+
+        OpenApiSpec.RequestBody requestBody = operation.getRequestBody();
+        if (requestBody != null) {
+            out.write("**Тело запроса");
+            if (Boolean.TRUE.equals(requestBody.getRequired())) out.write(" (обязательное)");
+            out.write(":**\n\n");
+            if (requestBody.getDescription() != null && !requestBody.getDescription().trim().isEmpty()) {
+                out.write("- ");
+                text(requestBody.getDescription());
+                out.write('\n');
+            }
+            content(context, requestBody.getContent(), "- ");
+            out.write('\n');
+        }
+
+        if (entry.responses().length > 0) {
+            out.write("**Ответы:**\n\n");
+            for (int i = 0; i < entry.responses().length; i++) {
+                OpenApiSpec.Response response = entry.responses()[i];
+                out.write("- **HTTP ");
+                text(entry.responseCodes()[i]);
+                out.write(":** ");
+                String description = response.getDescription();
+                text(description != null && !description.trim().isEmpty() ? description : "Успешный ответ");
+                out.write('\n');
+                content(context, response.getContent(), "  - ");
+            }
+            out.write('\n');
+        }
+        out.write("---\n\n");
+    }
+
+    private void content(RenderContext context, Map<String, OpenApiSpec.MediaType> content, String bullet)
+            throws IOException {
+        if (content == null) return;
+        for (Map.Entry<String, OpenApiSpec.MediaType> contentEntry : content.entrySet()) {
+            out.write(bullet);
+            out.write('`');
+            code(contentEntry.getKey());
+            out.write('`');
+            if (contentEntry.getValue() != null && contentEntry.getValue().getSchema() != null) {
+                out.write(": ");
+                schemaType(context, contentEntry.getValue().getSchema());
+            }
+            out.write('\n');
+        }
+    }
+
+    @Override
+    public void schemas(RenderContext context, List<CompiledSpec.SchemaEntry> schemas) throws IOException {
+        if (schemas.isEmpty()) return;
+        out.write("## 5. Модели данных\n\n");
+
+        int schemaNum = 1;
+        for (CompiledSpec.SchemaEntry entry : schemas) {
+            OpenApiSpec.Schema schema = entry.schema();
+            out.write("<a id=\"schema-");
+            out.write(entry.name());
+            out.write("\"></a>\n### ");
+            out.write(Integer.toString(schemaNum++));
+            out.write(". ");
+            text(entry.name());
+            out.write("\n\n");
+            if (schema.getDescription() != null && !schema.getDescription().trim().isEmpty()) {
+                out.write('*');
+                text(schema.getDescription());
+                out.write("*\n\n");
+            }
+            if (schema.getType() != null) {
+                out.write("Тип: ");
+                text(schema.getType());
+                if (schema.getFormat() != null) {
+                    out.write(" | Формат: ");
+                    text(schema.getFormat());
+                }
+                out.write("\n\n");
+            }
+
+            String[] propertyNames = entry.propertyNames();
+            if (propertyNames.length == 0) continue;
+            out.write("| Поле | Тип | Обязательное | Описание |\n|---|---|---|---|\n");
+            for (int i = 0; i < propertyNames.length; i++) {
+                OpenApiSpec.Schema property = entry.propertySchemas()[i];
+                out.write("| ");
+                cell(propertyNames[i]);
+                out.write(" | ");
+                schemaType(context, property);
+                out.write(" | ");
+                out.write(entry.requiredProperties()[i] ? "Да" : "Нет");
+                out.write(" | ");
+                if (property != null && property.getDescription() != null) cell(property.getDescription());
+                out.write(" |\n");
+            }
+            out.write('\n');
+        }
+    }
+
+    @Override
+    public void end(RenderContext context) throws IOException {
+        out.flush();
+    }
+
+    private void schemaType(RenderContext context, OpenApiSpec.Schema schema) throws IOException {
+        CompiledSpec.SchemaEntry linked = schema != null ? SchemaTypeFormatter.referencedSchema(schema, context.spec) : null;
+        if (linked == null || !context.isSchemaRendered(linked.name())) {
+            cell(SchemaTypeFormatter.schemaType(schema, context.spec));
+            return;
+        }
+
+        int arrayDepth = SchemaTypeFormatter.arrayDepth(schema);
+        out.write("array\\[".repeat(arrayDepth));
+        out.write('[');
+        text(linked.name());
+        out.write("](#schema-");
+        out.write(linked.name());
+        out.write(')');
+        out.write("\\]".repeat(arrayDepth));
+    }
+
+    // Экранирование служебных символов Markdown; переводы строк сохраняются
+    private void text(String value) throws IOException {
+        escape(value, false);
+    }
+
+    // Внутри ячейки таблицы дополнительно нельзя переносить строки
+    private void cell(String value) throws IOException {
+        escape(value, true);
+    }
+
+    private void escape(String value, boolean inline) throws IOException {
+        if (value == null) return;
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            switch (c) {
+                case '\\', '`', '*', '_', '[', ']', '<', '>', '|', '#' -> replacement = "\\" + c;
+                case '\r' -> replacement = inline ? "" : "\r";
+                case '\n' -> replacement = inline ? "<br>" : "\n";
+                default -> {
+                    continue;
+                }
+            }
+            out.write(value, start, i - start);
+            out.write(replacement);
+            start = i + 1;
+        }
+        out.write(value, start, value.length() - start);
+    }
+
+    // Внутри `...` экранирование не работает - обратные кавычки заменяются
+    private void code(String value) throws IOException {
+        if (value == null) return;
+        out.write(value.replace('`', '\''));
+    }
+}
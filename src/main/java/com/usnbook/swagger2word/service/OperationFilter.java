@@ -0,0 +1,121 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.model.CompiledSpec;
+import com.usnbook.swagger2word.model.RenderOptions;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.*;
+
+/**
+ * Отбор операций по тегам, путям (Ant-шаблоны: {@code /billing/**}), HTTP-методам и признаку deprecated.
+ * Применяется до анализа структуры и группировки, поэтому дальнейшая работа идёт только с выбранной частью API.
+ */
+final class OperationFilter {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final Set<String> includeTags;
+    private final Set<String> excludeTags;
+    private final List<String> includePaths;
+    private final List<String> excludePaths;
+    private final Set<String> methods;
+    private final boolean includeDeprecated;
+
+    private OperationFilter(RenderOptions options) {
+        this.includeTags = normalize(options.getIncludeTags(), false);
+        this.excludeTags = normalize(options.getExcludeTags(), false);
+        this.includePaths = trimmed(options.getIncludePaths());
+        this.excludePaths = trimmed(options.getExcludePaths());
+        this.methods = normalize(options.getMethods(), true);
+        this.includeDeprecated = options.isIncludeDeprecated();
+    }
+
+    static OperationFilter from(RenderOptions options) {
+        return new OperationFilter(options);
+    }
+
+    boolean isActive() {
+        return !includeTags.isEmpty() || !excludeTags.isEmpty()
+                || !includePaths.isEmpty() || !excludePaths.isEmpty()
+                || !methods.isEmpty() || !includeDeprecated;
+    }
+
+    /**
+     * Операции спецификации, прошедшие фильтры, в исходном порядке.
+     */
+    List<CompiledSpec.OperationEntry> select(CompiledSpec spec) {
+        CompiledSpec.OperationEntry[] operations = spec.getOperations();
+        if (!isActive()) return Arrays.asList(operations);
+
+        List<CompiledSpec.OperationEntry> selected = new ArrayList<>();
+        String lastPath = null;
+        boolean lastPathAccepted = false;
+        for (CompiledSpec.OperationEntry entry : operations) {
+            // Операции одного пути идут подряд - шаблоны пути проверяем один раз на путь
+            if (!entry.path().equals(lastPath)) {
+                lastPath = entry.path();
+                lastPathAccepted = acceptsPath(lastPath);
+            }
+            if (lastPathAccepted && acceptsOperation(entry)) {
+                selected.add(entry);
+            }
+        }
+        return selected;
+    }
+
+    boolean acceptsTag(String tag) {
+        if (tag == null) return includeTags.isEmpty();
+        String key = tag.trim().toLowerCase(Locale.ROOT);
+        return (includeTags.isEmpty() || includeTags.contains(key)) && !excludeTags.contains(key);
+    }
+
+    private boolean acceptsPath(String path) {
+        if (!includePaths.isEmpty() && includePaths.stream().noneMatch(p -> PATH_MATCHER.match(p, path))) {
+            return false;
+        }
+        return excludePaths.stream().noneMatch(p -> PATH_MATCHER.match(p, path));
+    }
+
+    private boolean acceptsOperation(CompiledSpec.OperationEntry entry) {
+        if (!methods.isEmpty() && !methods.contains(entry.method())) {
+            return false;
+        }
+        if (!includeDeprecated && entry.deprecated()) {
+            return false;
+        }
+        if (includeTags.isEmpty() && excludeTags.isEmpty()) {
+            return true;
+        }
+
+        if (entry.tags().length == 0) {
+            return includeTags.isEmpty();
+        }
+        boolean included = includeTags.isEmpty();
+        for (String tag : entry.tags()) {
+            String key = tag.toLowerCase(Locale.ROOT);
+            if (excludeTags.contains(key)) return false;
+            if (includeTags.contains(key)) included = true;
+        }
+        return included;
+    }
+
+    private static Set<String> normalize(List<String> values, boolean upperCase) {
+        if (values == null || values.isEmpty()) return Collections.emptySet();
+        Set<String> result = new HashSet<>();
+        for (String value : values) {
+            if (value == null || value.trim().isEmpty()) continue;
+            String trimmed = value.trim();
+            result.add(upperCase ? trimmed.toUpperCase(Locale.ROOT) : trimmed.toLowerCase(Locale.ROOT));
+        }
+        return result;
+    }
+
+    private static List<String> trimmed(List<String> values) {
+        if (values == null || values.isEmpty()) return Collections.emptyList();
+        List<String> result = new ArrayList<>();
+        for (String value : values) {
+            if (value != null && !value.trim().isEmpty()) result.add(value.trim());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,170 @@
+package com.usnbook.swagger2word.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Бюджет одного рендера: число элементов документа, оценка его размера, время и память, выделенная
+ * потоком рендера. Расход набирается по ходу генерации ({@link #charge}), а не оценивается заранее.
+ * <p>
+ * При превышении рендер либо прерывается ({@link Mode#ABORT}), либо оставшиеся операции и модели
+ * выводятся кратко ({@link Mode#SUMMARIZE}). Сокращённый рендер всё равно прерывается, если расход
+ * дошёл до {@link #HARD_LIMIT_FACTOR} бюджетов. Живёт один рендер и между потоками не делится:
+ * выделенная память считается по потоку, в котором бюджет создан.
+ */
+public final class RenderBudget {
+
+    private static final Logger logger = LoggerFactory.getLogger(RenderBudget.class);
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    // Разметка одного абзаца или строки таблицы со свойствами run, без текста (байты XML)
+    static final int ELEMENT_XML_BYTES = 400;
+    // Выделенная память дороже остальных проверок - смотрим её раз в столько списаний
+    static final int ALLOCATION_CHECK_INTERVAL = 64;
+    static final int HARD_LIMIT_FACTOR = 2;
+
+    private static final RenderBudget UNLIMITED = new RenderBudget(0, 0, null, 0, Mode.SUMMARIZE);
+
+    public enum Mode {
+        ABORT, SUMMARIZE
+    }
+
+    // 0 - ограничения нет
+    private final long maxElements;
+    private final long maxDocumentBytes;
+    private final long maxWallNanos;
+    private final long maxAllocatedBytes;
+    private final Mode mode;
+    private final boolean limited;
+
+    private final long startNanos = System.nanoTime();
+    private final long startAllocated;
+
+    private long elements;
+    private long documentBytes;
+    private int charges;
+
+    // null - бюджет не превышен
+    private String exceededReason;
+    private final Set<String> noticedSections = new HashSet<>();
+
+    RenderBudget(long maxElements, long maxDocumentBytes, Duration maxWallTime, long maxAllocatedBytes, Mode mode) {
+        this.maxElements = Math.max(0, maxElements);
+        this.maxDocumentBytes = Math.max(0, maxDocumentBytes);
+        this.maxWallNanos = maxWallTime != null && !maxWallTime.isNegative() ? maxWallTime.toNanos() : 0;
+        this.maxAllocatedBytes = Math.max(0, maxAllocatedBytes);
+        this.mode = mode != null ? mode : Mode.SUMMARIZE;
+        this.limited = this.maxElements > 0 || this.maxDocumentBytes > 0 || this.maxWallNanos > 0
+                || this.maxAllocatedBytes > 0;
+        this.startAllocated = this.maxAllocatedBytes > 0 ? allocatedBytes() : -1;
+    }
+
+    static RenderBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Списывает {@code elements} абзацев/строк таблиц и {@code textChars} символов текста.
+     * В режиме ABORT при превышении, а в режиме SUMMARIZE - при превышении жёсткого предела бросает
+     * {@link ExceededException}.
+     */
+    void charge(int elements, long textChars) {
+        if (!limited) return;
+        this.elements += elements;
+        // Текст в XML - UTF-8, кириллица занимает два байта
+        this.documentBytes += (long) elements * ELEMENT_XML_BYTES + textChars * 2;
+
+        String reason = overrun(exceededReason == null ? 1 : HARD_LIMIT_FACTOR);
+        if (reason == null) return;
+
+        if (mode == Mode.ABORT || exceededReason != null) {
+            logger.warn("Render budget exceeded ({}), aborting render", reason);
+            throw new ExceededException(reason);
+        }
+        exceededReason = reason;
+        logger.warn("Render budget exceeded ({}), summarizing remaining sections", reason);
+    }
+
+    // Описание первого превышенного предела или null
+    private String overrun(int factor) {
+        if (over(elements, maxElements, factor)) {
+            return "элементов " + elements + " при лимите " + maxElements;
+        }
+        if (over(documentBytes, maxDocumentBytes, factor)) {
+            return "объём документа около " + megabytes(documentBytes) + " МБ при лимите "
+                    + megabytes(maxDocumentBytes) + " МБ";
+        }
+        long wallNanos = System.nanoTime() - startNanos;
+        if (over(wallNanos, maxWallNanos, factor)) {
+            return "время рендера " + wallNanos / 1_000_000_000 + " с при лимите "
+                    + maxWallNanos / 1_000_000_000 + " с";
+        }
+        if (startAllocated >= 0 && ++charges % ALLOCATION_CHECK_INTERVAL == 0) {
+            long allocated = allocatedBytes() - startAllocated;
+            if (over(allocated, maxAllocatedBytes, factor)) {
+                return "выделено памяти " + megabytes(allocated) + " МБ при лимите "
+                        + megabytes(maxAllocatedBytes) + " МБ";
+            }
+        }
+        return null;
+    }
+
+    private static boolean over(long value, long limit, int factor) {
+        if (limit <= 0) return false;
+        return value > (limit > Long.MAX_VALUE / factor ? Long.MAX_VALUE : limit * factor);
+    }
+
+    /**
+     * Оставшиеся операции и модели выводятся кратко.
+     */
+    boolean isExceeded() {
+        return exceededReason != null;
+    }
+
+    String getExceededReason() {
+        return exceededReason;
+    }
+
+    /**
+     * true один раз для раздела, начиная с которого документ сокращён, - там выводится пояснение.
+     */
+    boolean noticeDue(String section) {
+        return exceededReason != null && noticedSections.add(section);
+    }
+
+    long getElements() {
+        return elements;
+    }
+
+    long getDocumentBytes() {
+        return documentBytes;
+    }
+
+    private static long megabytes(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Рендер прерван: документ превысил бюджет (или жёсткий предел в режиме сокращения).
+     */
+    public static class ExceededException extends RuntimeException {
+
+        ExceededException(String reason) {
+            super("Документ слишком большой, рендер прерван: " + reason);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.model.CompiledSpec;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+import com.usnbook.swagger2word.model.RenderOptions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Состояние одного рендера: параметры и всё, что накапливается по ходу генерации.
+ * Заполняется в {@link DocumentPipeline#prepare}, живёт один рендер и между потоками не делится.
+ */
+class RenderContext {
+
+    final CompiledSpec spec;
+    final RenderOptions options;
+    final RenderProfile profile;
+    final RenderProgress progress;
+
+    // Операции после фильтров, в порядке спецификации
+    List<CompiledSpec.OperationEntry> operations;
+    Map<String, List<CompiledSpec.OperationEntry>> groupedOperations;
+    List<OpenApiSpec.Tag> tags;
+    List<CompiledSpec.SchemaEntry> schemas;
+
+    // null - рендерятся все модели из components.schemas
+    Set<String> renderedSchemas;
+    int totalSchemas;
+    int skippedSchemas;
+
+    // имя схемы -> имя закладки в разделе 5
+    final Map<String, String> schemaBookmarks = new HashMap<>();
+    private int nextBookmarkId = 1;
+
+    // Примеры тел запросов и ответов, запомненные по схемам
+    final ExampleGenerator examples;
+
+    // Разобранные описания в Markdown, по тексту описания
+    final MarkdownDescriptionParser markdown = new MarkdownDescriptionParser();
+
+    // Расход элементов, объёма, времени и памяти; ограничен только в рендере Word
+    RenderBudget budget = RenderBudget.unlimited();
+
+    RenderContext(CompiledSpec spec, RenderOptions options, RenderProfile profile, RenderProgress progress) {
+        this.spec = spec;
+        this.options = options != null ? options : RenderOptions.defaults();
+        this.profile = profile != null ? profile : RenderProfile.disabled();
+        this.progress = progress != null ? progress : RenderProgress.disabled();
+        this.examples = new ExampleGenerator(spec);
+    }
+
+    boolean isSchemaRendered(String name) {
+        return renderedSchemas == null || renderedSchemas.contains(name);
+    }
+
+    int nextBookmarkId() {
+        return nextBookmarkId++;
+    }
+}
@@ -0,0 +1,329 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.model.RenderOptions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Согласование рендера между несколькими экземплярами сервиса через общий каталог {@code app.output-directory}
+ * (NFS или локальный каталог в тестах).
+ * <p>
+ * Версия документа - хэш содержимого спецификации, параметры рендера и отпечаток корпоративного шаблона
+ * ({@link DocxTemplateService#getFingerprint()}): после смены шаблона документ собирается заново. Узел захватывает рендер, атомарно
+ * создавая {@code <key>.lock}, и пока рендерит, продлевает аренду, обновляя время изменения файла. Готовый
+ * документ публикуется атомарной записью {@code <key>.ref} с именем файла; остальные узлы ждут этот маркер и
+ * отдают тот же файл. Замок, который не продлевался дольше {@code lease}, считается брошенным упавшим узлом:
+ * его атомарно переименовывают (это удаётся только одному узлу), сверяют токен и время изменения ещё раз и
+ * повторяют захват.
+ * <p>
+ * При {@code app.shared-storage.enabled=false} рендер выполняется сразу, без файлов блокировок.
+ */
+@Service
+public class RenderCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(RenderCoordinator.class);
+
+    @Value("${app.shared-storage.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.output-directory:./generated-docs}")
+    private String outputDirectory;
+
+    @Value("${app.shared-storage.lease:30s}")
+    private Duration lease;
+
+    @Value("${app.shared-storage.wait-timeout:5m}")
+    private Duration waitTimeout;
+
+    @Value("${app.shared-storage.poll-interval:500ms}")
+    private Duration pollInterval;
+
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+    private final DocxTemplateService templateService;
+    private ScheduledExecutorService heartbeats;
+
+    public RenderCoordinator(DocxTemplateService templateService) {
+        this.templateService = templateService;
+    }
+
+    // Для тестов: согласование включено, каталог и сроки заданы явно, шаблона нет
+    RenderCoordinator(String outputDirectory, Duration lease, Duration waitTimeout, Duration pollInterval) {
+        this.templateService = new DocxTemplateService();
+        this.enabled = true;
+        this.outputDirectory = outputDirectory;
+        this.lease = lease;
+        this.waitTimeout = waitTimeout;
+        this.pollInterval = pollInterval;
+        init();
+    }
+
+    @FunctionalInterface
+    public interface Renderer {
+        String render() throws Exception;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) return;
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "render-lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("Shared render coordination enabled in {} (node {}, lease {})", outputDirectory, nodeId, lease);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (heartbeats != null) heartbeats.shutdownNow();
+    }
+
+    public boolean isShared() {
+        return enabled;
+    }
+
+    /**
+     * Путь к документу для данной версии спецификации: уже готовый в общем каталоге, дождавшийся чужого
+     * рендера или только что отрисованный этим узлом через {@code renderer}.
+     * <p>
+     * Ожидание чужого рендера идёт вне полосы: {@code lane} (обычно {@link RenderLanes#submit}) вызывается,
+     * только когда замок свободен и этот узел будет рендерить сам, - иначе ждущие запросы занимали бы слоты
+     * полосы на всё время {@code wait-timeout}.
+     */
+    public Mono<String> render(String contentHash, RenderOptions options,
+                               Function<Callable<String>, Mono<String>> lane, Renderer renderer) {
+        if (!enabled || contentHash == null) {
+            return lane.apply(renderer::render);
+        }
+
+        Path directory = Paths.get(outputDirectory);
+        String key = renderKey(contentHash, options, templateService.getFingerprint());
+        Turn turn = new Turn(directory, key, directory.resolve(key + ".ref"), directory.resolve(key + ".lock"),
+                System.nanoTime() + waitTimeout.toNanos(), lane, renderer);
+        return Mono.fromCallable(() -> Files.createDirectories(directory))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(awaitTurn(turn));
+    }
+
+    private record Turn(Path directory, String key, Path ref, Path lock, long deadline,
+                        Function<Callable<String>, Mono<String>> lane, Renderer renderer) {
+    }
+
+    // Что увидели в общем каталоге: готовый файл, свободный замок или чужой живой рендер
+    private record Probe(String ready, boolean lockFree) {
+    }
+
+    private Mono<String> awaitTurn(Turn turn) {
+        return Mono.fromCallable(() -> probe(turn))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(probe -> {
+                    if (probe.ready() != null) {
+                        return Mono.just(probe.ready());
+                    }
+                    if (probe.lockFree()) {
+                        // Замок захватывается уже в полосе; если его перехватили, пока ждали слот, ждём дальше
+                        return turn.lane().apply(() -> renderIfClaimed(turn))
+                                .switchIfEmpty(Mono.defer(() -> awaitTurn(turn)));
+                    }
+                    if (System.nanoTime() > turn.deadline()) {
+                        // Не ждём бесконечно: лучше лишний рендер, чем отказ пользователю
+                        logger.warn("Timed out waiting for render {} claimed by another node, rendering locally",
+                                turn.key());
+                        return turn.lane().apply(turn.renderer()::render);
+                    }
+                    long pollMillis = pollInterval.toMillis();
+                    return Mono.delay(Duration.ofMillis(pollMillis + ThreadLocalRandom.current().nextLong(pollMillis + 1)))
+                            .then(Mono.defer(() -> awaitTurn(turn)));
+                });
+    }
+
+    private Probe probe(Turn turn) {
+        Path ready = readRef(turn.directory(), turn.ref());
+        if (ready != null) {
+            logger.debug("Reusing document rendered by the cluster: {}", ready.getFileName());
+            return new Probe(ready.toString(), false);
+        }
+        String expiredToken = expiredToken(turn.lock());
+        if (expiredToken != null) {
+            breakLock(turn.lock(), expiredToken);
+        }
+        return new Probe(null, Files.notExists(turn.lock()));
+    }
+
+    // null - замок успел захватить другой узел
+    private String renderIfClaimed(Turn turn) throws Exception {
+        String token = tryClaim(turn.lock());
+        return token != null
+                ? renderClaimed(turn.directory(), turn.key(), turn.ref(), turn.lock(), token, turn.renderer())
+                : null;
+    }
+
+    private String renderClaimed(Path directory, String key, Path ref, Path lock, String token,
+                                 Renderer renderer) throws Exception {
+        long heartbeatMillis = Math.max(1, lease.toMillis() / 3);
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(() -> touch(lock),
+                heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        try {
+            // Замок мог быть отобран, пока мы проверяли маркер - тогда результат всё равно корректен
+            Path ready = readRef(directory, ref);
+            if (ready != null) return ready.toString();
+
+            String filePath = renderer.render();
+            publishRef(directory, key, ref, Paths.get(filePath).getFileName().toString());
+            logger.debug("Rendered {} for the cluster as {}", key, filePath);
+            return filePath;
+        } finally {
+            heartbeat.cancel(false);
+            release(lock, token);
+        }
+    }
+
+    // === ФАЙЛЫ БЛОКИРОВОК ===
+    // Токен в замке - чтобы после долгой паузы не снять замок, который уже захватил другой узел
+    private String tryClaim(Path lock) throws IOException {
+        String token = nodeId + " " + UUID.randomUUID();
+        try {
+            Files.write(lock, token.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE);
+            return token;
+        } catch (FileAlreadyExistsException e) {
+            return null;
+        }
+    }
+
+    private void release(Path lock, String token) {
+        try {
+            if (token.equals(new String(Files.readAllBytes(lock), StandardCharsets.UTF_8))) {
+                Files.deleteIfExists(lock);
+            } else {
+                logger.warn("Render lease {} was taken over by another node", lock.getFileName());
+            }
+        } catch (IOException e) {
+            logger.debug("Could not release render lease {}: {}", lock.getFileName(), e.getMessage());
+        }
+    }
+
+    // Токен замка, который не продлевался дольше аренды; null - замка нет или он жив
+    private String expiredToken(Path lock) {
+        try {
+            if (!isStale(lock)) return null;
+            return new String(Files.readAllBytes(lock), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // Замок уже снят - на следующей итерации попробуем захватить
+            return null;
+        }
+    }
+
+    private boolean isStale(Path lock) throws IOException {
+        long age = System.currentTimeMillis() - Files.getLastModifiedTime(lock).toMillis();
+        return age > lease.toMillis();
+    }
+
+    /**
+     * Снимает просроченный замок с токеном {@code expiredToken}. Проверка и переименование - два шага: между
+     * ними владелец мог продлить аренду, а замок - смениться. Поэтому переименованный файл проверяется ещё раз,
+     * и живой замок возвращается на место ссылкой, которая, в отличие от переименования, не затирает
+     * замок, созданный тем временем другим узлом.
+     */
+    void breakLock(Path lock, String expiredToken) {
+        Path stale = lock.resolveSibling(lock.getFileName() + ".stale-" + ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE));
+        try {
+            Files.move(lock, stale, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Другой узел успел первым
+            logger.debug("Expired lease {} already recovered: {}", lock.getFileName(), e.getMessage());
+            return;
+        }
+        try {
+            String token = new String(Files.readAllBytes(stale), StandardCharsets.UTF_8);
+            if (token.equals(expiredToken) && isStale(stale)) {
+                logger.warn("Recovered expired render lease {} held by {}", lock.getFileName(), token);
+                return;
+            }
+            try {
+                Files.createLink(lock, stale);
+                logger.debug("Render lease {} was renewed by {} while being recovered, restored it",
+                        lock.getFileName(), token);
+            } catch (FileAlreadyExistsException e) {
+                // Замок уже захватил другой узел - владелец живого узнает об этом при снятии
+                logger.warn("Render lease {} held by {} was lost while being recovered", lock.getFileName(), token);
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("Could not check recovered render lease {}: {}", lock.getFileName(), e.getMessage());
+        } finally {
+            deleteQuietly(stale);
+        }
+    }
+
+    private void touch(Path lock) {
+        try {
+            Files.setLastModifiedTime(lock, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.warn("Failed to renew render lease {}: {}", lock.getFileName(), e.getMessage());
+        }
+    }
+
+    // === МАРКЕР ГОТОВНОСТИ ===
+    private Path readRef(Path directory, Path ref) {
+        try {
+            String fileName = new String(Files.readAllBytes(ref), StandardCharsets.UTF_8).trim();
+            Path file = directory.resolve(fileName);
+            // Маркер без файла (файл удалили) считается отсутствующим
+            return Files.isRegularFile(file) ? file : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.debug("Could not read render marker {}: {}", ref.getFileName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void publishRef(Path directory, String key, Path ref, String fileName) throws IOException {
+        Path temp = Files.createTempFile(directory, key, ".ref.tmp");
+        try {
+            Files.write(temp, fileName.getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, ref, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    static String renderKey(String contentHash, RenderOptions options, String templateFingerprint) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(contentHash.getBytes(StandardCharsets.UTF_8));
+            digest.update(String.valueOf(options).getBytes(StandardCharsets.UTF_8));
+            digest.update(templateFingerprint.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest()).substring(0, 32);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+}
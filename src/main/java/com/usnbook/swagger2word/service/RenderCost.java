@@ -0,0 +1,57 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.model.OpenApiSpec;
+
+import java.util.Map;
+
+/**
+ * Оценка стоимости рендера по размеру спецификации - считается сразу после загрузки, до компиляции.
+ * <p>
+ * Веса грубо отражают, сколько абзацев и строк таблиц даёт каждый элемент в .docx: операция - заголовок,
+ * описание и таблица ответов, параметр и свойство модели - строка таблицы, путь - группировка.
+ */
+record RenderCost(int paths, int operations, int parameters, int responses, int schemaProperties) {
+
+    static final int PATH_WEIGHT = 1;
+    static final int OPERATION_WEIGHT = 10;
+    static final int PARAMETER_WEIGHT = 2;
+    static final int RESPONSE_WEIGHT = 3;
+    static final int PROPERTY_WEIGHT = 2;
+
+    static RenderCost of(OpenApiSpec spec) {
+        int paths = 0;
+        int operations = 0;
+        int parameters = 0;
+        int responses = 0;
+        if (spec.getPaths() != null) {
+            paths = spec.getPaths().size();
+            for (OpenApiSpec.Path path : spec.getPaths().values()) {
+                Map<String, OpenApiSpec.Operation> pathOperations = path != null ? path.getAllOperations() : null;
+                if (pathOperations == null) continue;
+                for (OpenApiSpec.Operation operation : pathOperations.values()) {
+                    if (operation == null) continue;
+                    operations++;
+                    if (operation.getParameters() != null) parameters += operation.getParameters().size();
+                    if (operation.getResponses() != null) responses += operation.getResponses().size();
+                }
+            }
+        }
+
+        int schemaProperties = 0;
+        if (spec.getComponents() != null && spec.getComponents().getSchemas() != null) {
+            for (OpenApiSpec.Schema schema : spec.getComponents().getSchemas().values()) {
+                // Сама модель - заголовок и описание, как одно свойство
+                schemaProperties += 1 + (schema != null && schema.getProperties() != null ? schema.getProperties().size() : 0);
+            }
+        }
+        return new RenderCost(paths, operations, parameters, responses, schemaProperties);
+    }
+
+    long cost() {
+        return (long) paths * PATH_WEIGHT
+                + (long) operations * OPERATION_WEIGHT
+                + (long) parameters * PARAMETER_WEIGHT
+                + (long) responses * RESPONSE_WEIGHT
+                + (long) schemaProperties * PROPERTY_WEIGHT;
+    }
+}
@@ -0,0 +1,192 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.model.OpenApiSpec;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Очереди рендера по стоимости: спецификация на 10 000 путей не должна стоять впереди десятков маленьких.
+ * <p>
+ * Стоимость ({@link RenderCost}) считается сразу после загрузки. Задания дешевле {@code heavy-threshold}
+ * идут в быструю полосу, остальные - в тяжёлую; у каждой полосы свои рабочие потоки и бюджет памяти.
+ * Задание резервирует в бюджете оценку своей памяти (стоимость × {@code bytes-per-unit}, но не больше
+ * всего бюджета) и ждёт, пока она освободится, - так несколько огромных рендеров не выбивают heap.
+ * <p>
+ * Метрики (Micrometer, тег {@code lane}): {@code render.lane.queue.wait} - ожидание от постановки до начала,
+ * {@code render.lane.execution} - время рендера, {@code render.lane.utilization} - доля занятых потоков,
+ * {@code render.lane.queued} - длина очереди, {@code render.lane.memory.reserved} - зарезервировано байт.
+ * <p>
+ * При {@code app.render-lanes.enabled=false} задание выполняется сразу в вызывающем потоке.
+ */
+@Service
+public class RenderLanes {
+
+    private static final Logger logger = LoggerFactory.getLogger(RenderLanes.class);
+
+    @Value("${app.render-lanes.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.render-lanes.heavy-threshold:20000}")
+    private long heavyThreshold;
+
+    @Value("${app.render-lanes.bytes-per-unit:4KB}")
+    private DataSize bytesPerUnit;
+
+    @Value("${app.render-lanes.fast.workers:4}")
+    private int fastWorkers;
+
+    @Value("${app.render-lanes.fast.memory-budget:256MB}")
+    private DataSize fastMemoryBudget;
+
+    @Value("${app.render-lanes.heavy.workers:1}")
+    private int heavyWorkers;
+
+    @Value("${app.render-lanes.heavy.memory-budget:1GB}")
+    private DataSize heavyMemoryBudget;
+
+    private final MeterRegistry meterRegistry;
+    private Lane fast;
+    private Lane heavy;
+
+    public RenderLanes(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) return;
+        fast = new Lane("fast", fastWorkers, fastMemoryBudget);
+        heavy = new Lane("heavy", heavyWorkers, heavyMemoryBudget);
+        logger.info("Render lanes: fast {} workers / {}, heavy {} workers / {}, heavy threshold {}",
+                fastWorkers, fastMemoryBudget, heavyWorkers, heavyMemoryBudget, heavyThreshold);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fast != null) fast.executor.shutdownNow();
+        if (heavy != null) heavy.executor.shutdownNow();
+    }
+
+    /**
+     * Выполняет рендер в полосе по стоимости {@code spec}. Mono завершается результатом {@code job}
+     * в потоке полосы; отмена до начала снимает задание с очереди.
+     */
+    public <T> Mono<T> submit(OpenApiSpec spec, Callable<T> job) {
+        return submit(List.of(spec), job);
+    }
+
+    /**
+     * Задание над несколькими спецификациями (журнал изменений сравнивает и рендерит обе версии):
+     * стоимость - сумма их стоимостей.
+     */
+    public <T> Mono<T> submit(List<OpenApiSpec> specs, Callable<T> job) {
+        if (!enabled) return Mono.fromCallable(job);
+
+        long cost = 0;
+        for (OpenApiSpec spec : specs) {
+            cost += RenderCost.of(spec).cost();
+        }
+        Lane lane = cost < heavyThreshold ? fast : heavy;
+        long reservation = Math.min(cost * bytesPerUnit.toBytes(), lane.memoryBudget);
+        logger.debug("Render cost {} ({} specs) -> {} lane, reserving {} bytes", cost, specs.size(), lane.name,
+                reservation);
+
+        return Mono.create(sink -> {
+            long submittedAt = System.nanoTime();
+            Future<?> task = lane.executor.submit(() -> lane.run(submittedAt, reservation, job, sink::success, sink::error));
+            sink.onCancel(() -> task.cancel(false));
+        });
+    }
+
+    // === ПОЛОСА ===
+    private final class Lane {
+
+        final String name;
+        final int workers;
+        final long memoryBudget;
+        final ThreadPoolExecutor executor;
+        // Бюджет памяти в КБ: Semaphore считает в int
+        final Semaphore memory;
+        final AtomicInteger active = new AtomicInteger();
+        final Timer queueWait;
+        final Timer execution;
+
+        Lane(String name, int workers, DataSize memoryBudget) {
+            this.name = name;
+            this.workers = Math.max(1, workers);
+            this.memoryBudget = Math.max(1024, memoryBudget.toBytes());
+            this.memory = new Semaphore(kilobytes(this.memoryBudget), true);
+
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(this.workers, this.workers, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "render-" + name + "-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+            queueWait = Timer.builder("render.lane.queue.wait").tag("lane", name)
+                    .description("Время от постановки рендера в очередь до начала")
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+            execution = Timer.builder("render.lane.execution").tag("lane", name)
+                    .description("Время рендера в полосе")
+                    .register(meterRegistry);
+            Gauge.builder("render.lane.utilization", active, value -> (double) value.get() / this.workers)
+                    .tag("lane", name).description("Доля занятых рабочих потоков").register(meterRegistry);
+            Gauge.builder("render.lane.queued", executor, pool -> pool.getQueue().size())
+                    .tag("lane", name).description("Рендеры в очереди").register(meterRegistry);
+            Gauge.builder("render.lane.memory.reserved", memory,
+                            permits -> (kilobytes(this.memoryBudget) - permits.availablePermits()) * 1024.0)
+                    .tag("lane", name).baseUnit("bytes").description("Зарезервированная память")
+                    .register(meterRegistry);
+        }
+
+        <T> void run(long submittedAt, long reservation, Callable<T> job, Consumer<T> onSuccess,
+                     Consumer<Throwable> onError) {
+            int permits = Math.max(1, kilobytes(reservation));
+            try {
+                memory.acquire(permits);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                onError.accept(e);
+                return;
+            }
+
+            // Ожидание - и в очереди потоков, и в очереди за памятью
+            queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            active.incrementAndGet();
+            long start = System.nanoTime();
+            T result;
+            try {
+                result = job.call();
+            } catch (Throwable e) {
+                onError.accept(e);
+                return;
+            } finally {
+                execution.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                active.decrementAndGet();
+                memory.release(permits);
+            }
+            onSuccess.accept(result);
+        }
+    }
+
+    private static int kilobytes(long bytes) {
+        return (int) Math.min(Integer.MAX_VALUE, (bytes + 1023) / 1024);
+    }
+}
@@ -0,0 +1,112 @@
+package com.usnbook.swagger2word.service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Профиль одной генерации ({@code profile=true}): wall time, CPU time и выделенная память по фазам.
+ * <p>
+ * CPU и память берутся из счётчиков текущего потока {@link ThreadMXBean}, поэтому фаза должна начинаться
+ * и заканчиваться в одном потоке. Фазы вкладываются; в списке они идут в порядке начала, с глубиной.
+ * Выключенный профиль ничего не измеряет и не выделяет.
+ */
+public final class RenderProfile {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final RenderProfile DISABLED = new RenderProfile(false);
+    private static final Scope NO_OP = () -> {
+    };
+
+    private final boolean enabled;
+    private final List<Phase> phases = new ArrayList<>();
+    private int depth;
+
+    private RenderProfile(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static RenderProfile start() {
+        return new RenderProfile(true);
+    }
+
+    public static RenderProfile disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Начинает фазу; закрытие {@link Scope} её завершает. Использовать в try-with-resources.
+     */
+    public Scope phase(String name) {
+        if (!enabled) return NO_OP;
+
+        int index = phases.size();
+        int phaseDepth = depth++;
+        phases.add(null); // место в порядке начала; заполняется при закрытии
+
+        long wallStart = System.nanoTime();
+        long cpuStart = cpuTime();
+        long allocatedStart = allocatedBytes();
+        return () -> {
+            depth--;
+            long cpuEnd = cpuTime();
+            long allocatedEnd = allocatedBytes();
+            phases.set(index, new Phase(name, phaseDepth,
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - wallStart),
+                    cpuStart >= 0 && cpuEnd >= 0 ? TimeUnit.NANOSECONDS.toMicros(cpuEnd - cpuStart) : -1,
+                    allocatedStart >= 0 && allocatedEnd >= 0 ? allocatedEnd - allocatedStart : -1));
+        };
+    }
+
+    /**
+     * Фаза, прошедшая в чужих потоках (например, сетевой запрос на event loop): известно только wall time.
+     */
+    public void record(String name, long wallNanos) {
+        if (!enabled) return;
+        phases.add(new Phase(name, depth, TimeUnit.NANOSECONDS.toMicros(wallNanos), -1, -1));
+    }
+
+    public List<Phase> getPhases() {
+        List<Phase> completed = new ArrayList<>(phases.size());
+        for (Phase phase : phases) {
+            if (phase != null) completed.add(phase);
+        }
+        return Collections.unmodifiableList(completed);
+    }
+
+    /**
+     * Только фазы верхнего уровня - для компактного заголовка ответа.
+     */
+    public List<Phase> getTopLevelPhases() {
+        return getPhases().stream().filter(phase -> phase.depth() == 0).toList();
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Время в микросекундах; -1 - счётчик недоступен в этой JVM или для этой фазы.
+     */
+    public record Phase(String name, int depth, long wallMicros, long cpuMicros, long allocatedBytes) {
+    }
+}
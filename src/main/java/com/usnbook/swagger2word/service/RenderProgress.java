@@ -0,0 +1,76 @@
+package com.usnbook.swagger2word.service;
+
+import java.time.Duration;
+
+/**
+ * Ход одной генерации для клиента, который ждёт документ: скачанные байты, разобранные пути,
+ * отрисованные группы и модели, упаковка.
+ * <p>
+ * Отчёты прореживаются: слушатель получает событие при смене этапа, по завершении этапа и не чаще
+ * {@code interval} внутри этапа, так что частые вызовы {@link #update} в циклах рендера стоят одного
+ * чтения таймера. Выключенный ход ничего не делает.
+ */
+public final class RenderProgress {
+
+    public static final String FETCH = "fetch";
+    public static final String PARSE = "parse";
+    public static final String GROUPS = "groups";
+    public static final String ENDPOINTS = "endpoints";
+    public static final String SCHEMAS = "schemas";
+    public static final String PACKAGING = "packaging";
+
+    private static final RenderProgress DISABLED = new RenderProgress(null, Duration.ZERO);
+
+    private final Listener listener;
+    private final long intervalNanos;
+    private String lastStage;
+    private long lastEmitted;
+
+    private RenderProgress(Listener listener, Duration interval) {
+        this.listener = listener;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public static RenderProgress to(Listener listener, Duration interval) {
+        return new RenderProgress(listener, interval);
+    }
+
+    public static RenderProgress disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return listener != null;
+    }
+
+    /**
+     * {@code total} - -1, если объём этапа заранее неизвестен (ответ без Content-Length).
+     * Вызовы приходят из разных потоков по очереди (сеть, затем рендер), но не одновременно.
+     */
+    public synchronized void update(String stage, long done, long total) {
+        if (listener == null) return;
+
+        long now = System.nanoTime();
+        boolean stageChanged = !stage.equals(lastStage);
+        boolean stageDone = total >= 0 && done >= total;
+        if (!stageChanged && !stageDone && now - lastEmitted < intervalNanos) return;
+
+        lastStage = stage;
+        lastEmitted = now;
+        listener.onProgress(new Event(stage, done, total));
+    }
+
+    /**
+     * Этап без счётчика (упаковка): сообщается сразу.
+     */
+    public void stage(String stage) {
+        update(stage, 0, 0);
+    }
+
+    public interface Listener {
+        void onProgress(Event event);
+    }
+
+    public record Event(String stage, long done, long total) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.usnbook.swagger2word.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Перепаковка .docx с фиксированными атрибутами записей.
+ * <p>
+ * POI ставит каждой записи архива текущее время, поэтому два рендера одной спецификации различаются
+ * байтами. Здесь записи копируются в том же порядке с одинаковым временем (минимальная дата DOS, без
+ * расширенных полей и без учёта часового пояса) и одинаковым сжатием.
+ */
+final class ReproducibleZip {
+
+    static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 1, 1, 0, 0);
+
+    private ReproducibleZip() {
+    }
+
+    static byte[] normalize(byte[] zip) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(zip.length);
+        byte[] chunk = new byte[8192];
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip));
+             ZipOutputStream out = new ZipOutputStream(buffer)) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                ZipEntry normalized = new ZipEntry(entry.getName());
+                normalized.setTimeLocal(ENTRY_TIME);
+                normalized.setMethod(ZipEntry.DEFLATED);
+                out.putNextEntry(normalized);
+                int read;
+                while ((read = in.read(chunk)) > 0) {
+                    out.write(chunk, 0, read);
+                }
+                out.closeEntry();
+            }
+        }
+        return buffer.toByteArray();
+    }
+}
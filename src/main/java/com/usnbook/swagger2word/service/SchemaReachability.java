@@ -0,0 +1,102 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.model.CompiledSpec;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+
+import java.util.*;
+
+/**
+ * Обход графа схем от операций: какие модели из components.schemas реально используются.
+ * Идёт по $ref, items, allOf/oneOf/anyOf/not, properties и additionalProperties;
+ * каждая модель посещается один раз, так что циклические ссылки безопасны.
+ */
+final class SchemaReachability {
+
+    private final CompiledSpec spec;
+    private final Set<String> reachable = new LinkedHashSet<>();
+    private final Deque<OpenApiSpec.Schema> pending = new ArrayDeque<>();
+
+    private SchemaReachability(CompiledSpec spec) {
+        this.spec = spec;
+    }
+
+    /**
+     * Имена моделей из components.schemas, достижимых из переданных операций.
+     */
+    static Set<String> reachableSchemas(Collection<CompiledSpec.OperationEntry> operations, CompiledSpec spec) {
+        SchemaReachability reachability = new SchemaReachability(spec);
+        for (CompiledSpec.OperationEntry entry : operations) {
+            reachability.addOperation(entry.operation());
+        }
+
+        reachability.drain();
+        return reachability.reachable;
+    }
+
+    private void addOperation(OpenApiSpec.Operation operation) {
+        if (operation == null) return;
+
+        if (operation.getParameters() != null) {
+            for (OpenApiSpec.Parameter parameter : operation.getParameters()) {
+                if (parameter == null) continue;
+                push(parameter.getSchema());
+                if (parameter.getContent() != null) {
+                    addContent(parameter.getContent().getMediaTypes());
+                }
+            }
+        }
+
+        if (operation.getRequestBody() != null) {
+            addContent(operation.getRequestBody().getContent());
+        }
+
+        if (operation.getResponses() != null) {
+            for (OpenApiSpec.Response response : operation.getResponses().values()) {
+                if (response == null) continue;
+                addContent(response.getContent());
+                if (response.getHeaders() != null) {
+                    for (OpenApiSpec.Header header : response.getHeaders().values()) {
+                        if (header != null) push(header.getSchema());
+                    }
+                }
+            }
+        }
+    }
+
+    private void addContent(Map<String, OpenApiSpec.MediaType> content) {
+        if (content == null) return;
+        for (OpenApiSpec.MediaType mediaType : content.values()) {
+            if (mediaType != null) push(mediaType.getSchema());
+        }
+    }
+
+    private void push(OpenApiSpec.Schema schema) {
+        if (schema != null) pending.push(schema);
+    }
+
+    private void pushAll(Collection<OpenApiSpec.Schema> schemas) {
+        if (schemas == null) return;
+        for (OpenApiSpec.Schema schema : schemas) push(schema);
+    }
+
+    private void drain() {
+        while (!pending.isEmpty()) {
+            OpenApiSpec.Schema schema = pending.pop();
+
+            CompiledSpec.SchemaEntry referenced = spec.resolveRef(schema.getRef());
+            if (referenced != null && reachable.add(referenced.name())) {
+                push(referenced.schema());
+            }
+
+            push(schema.getItems());
+            push(schema.getAdditionalProperties());
+            push(schema.getNot());
+            pushAll(schema.getAllOf());
+            pushAll(schema.getOneOf());
+            pushAll(schema.getAnyOf());
+            if (schema.getProperties() != null) {
+                pushAll(schema.getProperties().values());
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.model.CompiledSpec;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Текстовые описания типов и мест параметров, общие для всех форматов вывода.
+ */
+final class SchemaTypeFormatter {
+
+    private static final Pattern REF_NAME = Pattern.compile(".*/([^/]+)$");
+    // Глубже вложенные массивы и составные схемы не раскрываются: защита от патологически глубоких
+    // (и зацикленных) схем
+    static final int MAX_ITEMS_DEPTH = 32;
+    private static final String TRUNCATED = "...";
+
+    private SchemaTypeFormatter() {
+    }
+
+    static String locationText(String location) {
+        if (location == null) return "Неизвестно";
+        switch (location) {
+            case "path": return "Путь";
+            case "query": return "Запрос";
+            case "header": return "Заголовок";
+            case "cookie": return "Куки";
+            default: return location;
+        }
+    }
+
+    /**
+     * Описание типа с запоминанием в скомпилированной спецификации: общие DTO печатаются в параметрах, телах,
+     * ответах и таблицах свойств тысячи раз, а описываются один раз - при первом обращении.
+     */
+    static String schemaType(OpenApiSpec.Schema schema, CompiledSpec spec) {
+        return new Describer(spec).describe(schema, 0);
+    }
+
+    static String schemaType(OpenApiSpec.Schema schema) {
+        return new Describer(null).describe(schema, 0);
+    }
+
+    /**
+     * Описание типа с запоминанием в {@code spec} (по идентичности схемы) - и для самой схемы, и для вложенных:
+     * items и вариантов allOf / oneOf / anyOf. Вложенность глубже {@link #MAX_ITEMS_DEPTH} не раскрывается.
+     */
+    private static final class Describer {
+
+        private final CompiledSpec spec;
+        // Где-то ниже описание обрезано по глубине - такие описания не запоминаются
+        private boolean truncated;
+
+        Describer(CompiledSpec spec) {
+            this.spec = spec;
+        }
+
+        String describe(OpenApiSpec.Schema schema, int depth) {
+            if (schema == null) return "не определен";
+            if (depth > MAX_ITEMS_DEPTH) {
+                truncated = true;
+                return TRUNCATED;
+            }
+            if (spec != null) {
+                String cached = spec.findSchemaType(schema);
+                if (cached != null) return cached;
+            }
+
+            String type;
+            if (schema.getRef() != null && !schema.getRef().trim().isEmpty()) {
+                type = schemaName(schema.getRef()) + " {...}";
+            } else {
+                StringBuilder typeInfo = new StringBuilder();
+                if (schema.getType() != null && !schema.getType().trim().isEmpty()) {
+                    typeInfo.append(schema.getType());
+                }
+                if (schema.getFormat() != null && !schema.getFormat().trim().isEmpty()) {
+                    typeInfo.append(" ($").append(schema.getFormat()).append(")");
+                }
+                if (schema.getItems() != null) {
+                    typeInfo.append("[").append(describe(schema.getItems(), depth + 1)).append("]");
+                }
+                composed(typeInfo, "allOf", ", ", schema.getAllOf(), depth);
+                composed(typeInfo, "oneOf", " | ", schema.getOneOf(), depth);
+                composed(typeInfo, "anyOf", " | ", schema.getAnyOf(), depth);
+                type = !typeInfo.isEmpty() ? typeInfo.toString() : "object";
+            }
+
+            // Обрезанное описание зависит от глубины, на которой схему встретили, - его не запоминаем,
+            // иначе вывод зависел бы от того, какой рендер первым дошёл до схемы
+            if (spec != null && !truncated) spec.putSchemaType(schema, type);
+            return type;
+        }
+
+        // allOf(A, B) / oneOf(A | B): варианты составной схемы в порядке спецификации
+        private void composed(StringBuilder typeInfo, String keyword, String separator,
+                              List<OpenApiSpec.Schema> variants, int depth) {
+            if (variants == null || variants.isEmpty()) return;
+            if (!typeInfo.isEmpty()) typeInfo.append(" ");
+            typeInfo.append(keyword).append("(");
+            for (int i = 0; i < variants.size(); i++) {
+                if (i > 0) typeInfo.append(separator);
+                typeInfo.append(describe(variants.get(i), depth + 1));
+            }
+            typeInfo.append(")");
+        }
+    }
+
+    static String schemaName(String ref) {
+        if (ref == null || ref.trim().isEmpty()) return "";
+        Matcher matcher = REF_NAME.matcher(ref.trim());
+        return matcher.find() ? matcher.group(1) : ref.trim();
+    }
+
+    /**
+     * Модель, на которую ссылается схема: сам $ref или $ref элементов (вложенного) массива.
+     */
+    static CompiledSpec.SchemaEntry referencedSchema(OpenApiSpec.Schema schema, CompiledSpec spec) {
+        OpenApiSpec.Schema target = schema;
+        while (target != null && target.getRef() == null) {
+            target = target.getItems();
+        }
+        return target != null ? spec.resolveRef(target.getRef()) : null;
+    }
+
+    // Глубина вложенности массивов до $ref: array[array[Ref]] -> 2
+    static int arrayDepth(OpenApiSpec.Schema schema) {
+        int depth = 0;
+        for (OpenApiSpec.Schema current = schema; current != null && current.getRef() == null;
+             current = current.getItems()) {
+            depth++;
+        }
+        return depth;
+    }
+}
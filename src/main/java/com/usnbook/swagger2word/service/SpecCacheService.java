@@ -0,0 +1,227 @@
+package com.usnbook.swagger2word.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.usnbook.swagger2word.model.CompiledSpec;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Кэш спецификаций, чтобы не разбирать текстовый JSON и не компилировать одну версию повторно.
+ * <p>
+ * Ключ - SHA-256 содержимого (на диске - вместе с URL), так что изменившаяся спецификация никогда не берётся
+ * из кэша. Два уровня:
+ * <ul>
+ *     <li>в памяти - только {@link CompiledSpec} (ограниченный LRU): рендеры и статистика одной версии
+ *     делят одно представление, исходный граф {@link OpenApiSpec} в памяти не удерживается;</li>
+ *     <li>на диске - разобранная спецификация в бинарном Smile, читается через memory-mapped файл и переживает
+ *     перезапуск. Из неё каждый запрос получает собственный {@link OpenApiSpec} для проверки и сравнения,
+ *     который после запроса не хранится. Файл пишется во временный и атомарно переименовывается.</li>
+ * </ul>
+ */
+@Service
+public class SpecCacheService {
+
+    // Меняется при несовместимых изменениях модели OpenApiSpec - старые файлы просто перестают находиться
+    private static final String FORMAT_VERSION = "v2";
+    private static final String FILE_SUFFIX = "." + FORMAT_VERSION + ".smile";
+
+    private static final Logger logger = LoggerFactory.getLogger(SpecCacheService.class);
+
+    @Value("${app.spec-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.spec-cache.directory:./spec-cache}")
+    private String directory;
+
+    @Value("${app.spec-cache.heap-entries:16}")
+    private int heapEntries;
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final SpecCompiler specCompiler;
+    // хэш содержимого -> скомпилированная спецификация, вытесняется давно не запрошенная
+    private final Map<String, CompiledSpec> compiledCache;
+
+    public SpecCacheService(ObjectMapper jsonMapper, SpecCompiler specCompiler) {
+        this.jsonMapper = jsonMapper;
+        this.specCompiler = specCompiler;
+        // Те же настройки, что у JSON; null-поля в кэш не пишем
+        this.smileMapper = jsonMapper.copyWith(new SmileFactory())
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .addMixIn(OpenApiSpec.Path.class, PathCacheMixin.class);
+        this.compiledCache = new LinkedHashMap<>(32, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledSpec> eldest) {
+                return size() > heapEntries;
+            }
+        };
+    }
+
+    /**
+     * Спецификация для тела ответа {@code content}, полученного по {@code url}: с диска или разбором JSON
+     * с последующим сохранением на диск. Каждый вызов возвращает новый экземпляр - вызывающий им владеет.
+     */
+    public OpenApiSpec load(String url, byte[] content) throws IOException {
+        if (!enabled) {
+            return jsonMapper.readValue(content, OpenApiSpec.class);
+        }
+
+        String urlKey = urlKey(url);
+        String key = urlKey + "-" + contentHash(content);
+
+        Path file = Paths.get(directory, key + FILE_SUFFIX);
+        OpenApiSpec spec = readFromDisk(file);
+        if (spec != null) {
+            logger.debug("Spec cache hit (disk) for: {}", url);
+        } else {
+            spec = jsonMapper.readValue(content, OpenApiSpec.class);
+            writeToDisk(file, urlKey, spec);
+        }
+        return spec;
+    }
+
+    /**
+     * Скомпилированная спецификация для загруженной версии. Компилируется один раз на хэш содержимого;
+     * без хэша (или с выключенным кэшем) - заново при каждом вызове.
+     */
+    public CompiledSpec compiled(ApiDocsService.FetchedSpec fetched) {
+        String hash = fetched.contentHash();
+        if (!enabled || hash == null) {
+            return specCompiler.compile(fetched.spec());
+        }
+
+        synchronized (compiledCache) {
+            CompiledSpec cached = compiledCache.get(hash);
+            if (cached != null) return cached;
+        }
+
+        // Компиляция вне блокировки: параллельный первый запрос той же версии соберёт копию, это дешевле
+        // ожидания всеми рендерами одной компиляции
+        CompiledSpec compiled = specCompiler.compile(fetched.spec());
+        synchronized (compiledCache) {
+            CompiledSpec raced = compiledCache.putIfAbsent(hash, compiled);
+            return raced != null ? raced : compiled;
+        }
+    }
+
+    /**
+     * Последняя закэшированная версия спецификации по URL - запасной вариант, когда источник недоступен.
+     * Читается с диска: на диске по URL хранится только одна версия.
+     */
+    public Optional<CachedSpec> lastKnown(String url) {
+        if (!enabled) return Optional.empty();
+
+        String urlKey = urlKey(url);
+        Path newest = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(directory), urlKey + "-*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                if (newest == null || Files.getLastModifiedTime(file).compareTo(Files.getLastModifiedTime(newest)) > 0) {
+                    newest = file;
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("No cached spec for {}: {}", url, e.getMessage());
+            return Optional.empty();
+        }
+        if (newest == null) return Optional.empty();
+
+        OpenApiSpec spec = readFromDisk(newest);
+        if (spec == null) return Optional.empty();
+        String fileName = newest.getFileName().toString();
+        return Optional.of(new CachedSpec(spec,
+                fileName.substring(urlKey.length() + 1, fileName.length() - FILE_SUFFIX.length())));
+    }
+
+    /**
+     * SHA-256 содержимого в hex - по нему же определяется, изменилась ли спецификация.
+     */
+    public static String contentHash(byte[] content) {
+        return sha256(content);
+    }
+
+    public record CachedSpec(OpenApiSpec spec, String contentHash) {
+    }
+
+    private static String urlKey(String url) {
+        return sha256(url.getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+    }
+
+    // === ДИСКОВЫЙ УРОВЕНЬ ===
+    private OpenApiSpec readFromDisk(Path file) {
+        if (!Files.isRegularFile(file)) return null;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return smileMapper.readValue(new ByteBufferBackedInputStream(buffer), OpenApiSpec.class);
+        } catch (IOException e) {
+            logger.warn("Discarding unreadable spec cache file {}: {}", file, e.getMessage());
+            deleteQuietly(file);
+            return null;
+        }
+    }
+
+    private void writeToDisk(Path file, String urlKey, OpenApiSpec spec) {
+        try {
+            Path dir = file.getParent();
+            Files.createDirectories(dir);
+
+            Path temp = Files.createTempFile(dir, urlKey, ".tmp");
+            try {
+                smileMapper.writeValue(temp.toFile(), spec);
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                deleteQuietly(temp);
+            }
+
+            // Предыдущие версии той же спецификации (и файлы старых форматов) больше не понадобятся
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(dir, urlKey + "-*.smile")) {
+                for (Path old : stale) {
+                    if (!old.equals(file)) deleteQuietly(old);
+                }
+            }
+        } catch (IOException e) {
+            // Кэш - только ускорение: ошибка записи не должна ломать генерацию
+            logger.warn("Failed to write spec cache file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    // Вычисляемые геттеры Path дублируют поля get/put/... - в кэш их не пишем
+    @JsonIgnoreProperties(value = {"allOperations", "operations"}, ignoreUnknown = true)
+    private abstract static class PathCacheMixin {
+    }
+}
@@ -0,0 +1,237 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.model.CompiledSpec;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Сборка {@link CompiledSpec} из распарсенной спецификации.
+ * Здесь один раз делается всё, что раньше рендер пересчитывал при каждом проходе:
+ * извлечение операций из путей, группировка по тегам, сортировки и разрешение ссылок на модели.
+ * <p>
+ * Исходная спецификация только читается и после компиляции не нужна: операции, модели и общие сведения
+ * копируются в представление ({@link SpecCopier}) с дедуплицированными строками. Готовое представление
+ * кэшируется по хэшу содержимого в {@link SpecCacheService#compiled} - в памяти хранится только оно.
+ */
+@Component
+public class SpecCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpecCompiler.class);
+
+    private static final String[] EMPTY_STRINGS = new String[0];
+    private static final Pattern NON_WORD_CHARS = Pattern.compile("[^a-zа-я0-9]");
+
+    public CompiledSpec compile(OpenApiSpec apiSpec) {
+        long start = System.nanoTime();
+        Map<String, String> strings = new HashMap<>();
+        SpecCopier copier = new SpecCopier(strings);
+
+        // === ОПЕРАЦИИ ===
+        List<String> paths = new ArrayList<>();
+        List<CompiledSpec.OperationEntry> operations = new ArrayList<>();
+        if (apiSpec.getPaths() != null) {
+            for (Map.Entry<String, OpenApiSpec.Path> pathEntry : apiSpec.getPaths().entrySet()) {
+                if (pathEntry.getKey() == null) continue;
+                String path = copier.intern(pathEntry.getKey());
+                paths.add(path);
+
+                Map<String, OpenApiSpec.Operation> pathOperations = extractOperationsFromPath(pathEntry.getValue());
+                if (pathOperations == null) continue;
+
+                for (Map.Entry<String, OpenApiSpec.Operation> opEntry : pathOperations.entrySet()) {
+                    OpenApiSpec.Operation operation = opEntry.getValue();
+                    if (operation == null) continue;
+                    operations.add(compileOperation(copier, operations.size(), path, opEntry.getKey(), operation));
+                }
+            }
+        }
+
+        String[] specTags = EMPTY_STRINGS;
+        if (apiSpec.getTags() != null) {
+            specTags = apiSpec.getTags().stream()
+                    .filter(tag -> tag != null && tag.getName() != null && !tag.getName().trim().isEmpty())
+                    .map(tag -> copier.intern(tag.getName().trim()))
+                    .toArray(String[]::new);
+        }
+
+        // === ГРУППИРОВКА ПО ТЕГАМ ===
+        Map<String, List<Integer>> grouped = new LinkedHashMap<>();
+        for (CompiledSpec.OperationEntry entry : operations) {
+            if (entry.tags().length > 0) {
+                for (String tag : entry.tags()) {
+                    grouped.computeIfAbsent(tag, k -> new ArrayList<>()).add(entry.index());
+                }
+            } else {
+                String inferredTag = inferTagFromOperation(entry.operation(), specTags);
+                String group = inferredTag != null ? inferredTag : CompiledSpec.UNCLASSIFIED_GROUP;
+                grouped.computeIfAbsent(group, k -> new ArrayList<>()).add(entry.index());
+            }
+        }
+
+        String[] groupNames = grouped.keySet().toArray(EMPTY_STRINGS);
+        Arrays.sort(groupNames, (a, b) -> {
+            if (CompiledSpec.UNCLASSIFIED_GROUP.equals(a)) return 1;
+            if (CompiledSpec.UNCLASSIFIED_GROUP.equals(b)) return -1;
+            return a.compareToIgnoreCase(b);
+        });
+        int[][] groupOperations = new int[groupNames.length][];
+        for (int i = 0; i < groupNames.length; i++) {
+            groupOperations[i] = grouped.get(groupNames[i]).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        // === МОДЕЛИ ДАННЫХ ===
+        List<CompiledSpec.SchemaEntry> schemas = new ArrayList<>();
+        Map<String, CompiledSpec.SchemaEntry> schemasByName = new HashMap<>();
+        OpenApiSpec.Components components = apiSpec.getComponents();
+        if (components != null && components.getSchemas() != null) {
+            for (Map.Entry<String, OpenApiSpec.Schema> entry : components.getSchemas().entrySet()) {
+                if (entry.getKey() == null || entry.getValue() == null) continue;
+                CompiledSpec.SchemaEntry schemaEntry = compileSchema(copier, copier.intern(entry.getKey()),
+                        entry.getValue());
+                schemas.add(schemaEntry);
+                schemasByName.put(schemaEntry.name(), schemaEntry);
+            }
+        }
+        schemas.sort((e1, e2) -> e1.name().compareToIgnoreCase(e2.name()));
+
+        CompiledSpec compiled = new CompiledSpec(copier.intern(apiSpec.getOpenapi()),
+                copier.info(apiSpec.getInfo()),
+                copier.servers(apiSpec.getServers()),
+                copier.tags(apiSpec.getTags()),
+                paths.toArray(EMPTY_STRINGS),
+                operations.toArray(new CompiledSpec.OperationEntry[0]),
+                specTags,
+                groupNames,
+                groupOperations,
+                hasValidOperations(operations),
+                schemas.toArray(new CompiledSpec.SchemaEntry[0]),
+                schemasByName);
+
+        logger.debug("Compiled spec: {} paths, {} operations, {} groups, {} schemas, {} distinct strings in {} ms",
+                paths.size(), operations.size(), groupNames.length, schemas.size(), strings.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return compiled;
+    }
+
+    private CompiledSpec.OperationEntry compileOperation(SpecCopier copier, int index, String path,
+                                                         String method, OpenApiSpec.Operation source) {
+        OpenApiSpec.Operation operation = copier.operation(source);
+        String[] tags = EMPTY_STRINGS;
+        if (operation.getTags() != null && !operation.getTags().isEmpty()) {
+            tags = operation.getTags().stream()
+                    .filter(tag -> tag != null && !tag.trim().isEmpty())
+                    .map(tag -> copier.intern(tag.trim()))
+                    .distinct()
+                    .toArray(String[]::new);
+        }
+
+        String[] responseCodes = EMPTY_STRINGS;
+        OpenApiSpec.Response[] responses = new OpenApiSpec.Response[0];
+        if (operation.getResponses() != null && !operation.getResponses().isEmpty()) {
+            List<Map.Entry<String, OpenApiSpec.Response>> sortedResponses = new ArrayList<>();
+            for (Map.Entry<String, OpenApiSpec.Response> entry : operation.getResponses().entrySet()) {
+                if (entry.getValue() != null) sortedResponses.add(entry);
+            }
+            sortedResponses.sort(Comparator.comparingInt(e -> {
+                try {
+                    return Integer.parseInt(e.getKey());
+                } catch (NumberFormatException ex) {
+                    return Integer.MAX_VALUE;
+                }
+            }));
+            responseCodes = new String[sortedResponses.size()];
+            responses = new OpenApiSpec.Response[sortedResponses.size()];
+            for (int i = 0; i < sortedResponses.size(); i++) {
+                responseCodes[i] = copier.intern(sortedResponses.get(i).getKey());
+                responses[i] = sortedResponses.get(i).getValue();
+            }
+        }
+
+        String upperMethod = method != null ? copier.intern(method.toUpperCase(Locale.ROOT)) : "UNKNOWN";
+        return new CompiledSpec.OperationEntry(index, path, upperMethod, tags,
+                Boolean.TRUE.equals(operation.getDeprecated()), operation, responseCodes, responses);
+    }
+
+    private CompiledSpec.SchemaEntry compileSchema(SpecCopier copier, String name, OpenApiSpec.Schema source) {
+        OpenApiSpec.Schema schema = copier.schema(source);
+        if (schema.getProperties() == null || schema.getProperties().isEmpty()) {
+            return new CompiledSpec.SchemaEntry(name, schema, EMPTY_STRINGS, new OpenApiSpec.Schema[0], new boolean[0]);
+        }
+
+        Set<String> requiredFields = schema.getRequired() != null ?
+                new HashSet<>(schema.getRequired()) : Collections.emptySet();
+
+        List<Map.Entry<String, OpenApiSpec.Schema>> sortedProperties = new ArrayList<>();
+        for (Map.Entry<String, OpenApiSpec.Schema> entry : schema.getProperties().entrySet()) {
+            if (entry.getKey() != null && !entry.getKey().trim().isEmpty()) sortedProperties.add(entry);
+        }
+        sortedProperties.sort((e1, e2) -> e1.getKey().compareToIgnoreCase(e2.getKey()));
+
+        String[] propertyNames = new String[sortedProperties.size()];
+        OpenApiSpec.Schema[] propertySchemas = new OpenApiSpec.Schema[sortedProperties.size()];
+        boolean[] required = new boolean[sortedProperties.size()];
+        for (int i = 0; i < sortedProperties.size(); i++) {
+            Map.Entry<String, OpenApiSpec.Schema> entry = sortedProperties.get(i);
+            propertyNames[i] = copier.intern(entry.getKey().trim());
+            propertySchemas[i] = entry.getValue();
+            required[i] = requiredFields.contains(entry.getKey());
+        }
+        return new CompiledSpec.SchemaEntry(name, schema, propertyNames, propertySchemas, required);
+    }
+
+    private Map<String, OpenApiSpec.Operation> extractOperationsFromPath(OpenApiSpec.Path pathItem) {
+        if (pathItem == null) return null;
+        // getAllOperations учитывает и карту operations, и отдельные поля get/put/post/...
+        Map<String, OpenApiSpec.Operation> operations = pathItem.getAllOperations();
+        return operations == null || operations.isEmpty() ? null : operations;
+    }
+
+    // === ОПРЕДЕЛЕНИЕ ТЕГА ПО OPERATIONID ===
+    private String inferTagFromOperation(OpenApiSpec.Operation operation, String[] availableTags) {
+        if (availableTags.length == 0) return null;
+
+        String operationId = operation.getOperationId();
+        String summary = operation.getSummary();
+
+        if (operationId != null && !operationId.trim().isEmpty()) {
+            String opIdClean = NON_WORD_CHARS.matcher(operationId.toLowerCase()).replaceAll("");
+
+            for (String tag : availableTags) {
+                String tagClean = NON_WORD_CHARS.matcher(tag.toLowerCase()).replaceAll("");
+                if (!tagClean.isEmpty() && (opIdClean.contains(tagClean) || tagClean.contains(opIdClean))) {
+                    return tag;
+                }
+            }
+        }
+
+        if (summary != null && !summary.trim().isEmpty()) {
+            String summaryLower = summary.toLowerCase();
+            for (String tag : availableTags) {
+                if (summaryLower.contains(tag.toLowerCase())) {
+                    return tag;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    // === ПРОВЕРКА НА ВАЛИДНЫЕ ОПЕРАЦИИ ===
+    private boolean hasValidOperations(List<CompiledSpec.OperationEntry> operations) {
+        for (CompiledSpec.OperationEntry entry : operations) {
+            OpenApiSpec.Operation operation = entry.operation();
+            if (operation.getOperationId() != null ||
+                    operation.getSummary() != null ||
+                    operation.getParameters() != null ||
+                    operation.getResponses() != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
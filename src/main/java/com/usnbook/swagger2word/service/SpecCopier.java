@@ -0,0 +1,218 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.model.OpenApiSpec;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Копии частей спецификации, которые читают рендеры, для {@link com.usnbook.swagger2word.model.CompiledSpec}.
+ * <p>
+ * Исходная спецификация после компиляции не хранится: в кэше остаётся только представление, и его объекты
+ * не разделяются с экземпляром, который в это время проверяют или сравнивают другие потоки. Строки копий
+ * дедуплицируются общей для компиляции таблицей; то, что рендеры не выводят (security, links, encoding),
+ * не копируется. Значения примеров - деревья Jackson, их копии не нужны: никто их не изменяет.
+ */
+final class SpecCopier {
+
+    private final Map<String, String> strings;
+    // Схема может встречаться в графе несколько раз (и ссылаться на себя) - копируется один раз
+    private final Map<OpenApiSpec.Schema, OpenApiSpec.Schema> schemas = new IdentityHashMap<>();
+
+    SpecCopier(Map<String, String> strings) {
+        this.strings = strings;
+    }
+
+    String intern(String value) {
+        if (value == null) return null;
+        String existing = strings.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    // === ОБЩИЕ СВЕДЕНИЯ ===
+    OpenApiSpec.Info info(OpenApiSpec.Info source) {
+        if (source == null) return null;
+        OpenApiSpec.Info copy = new OpenApiSpec.Info();
+        copy.setTitle(intern(source.getTitle()));
+        copy.setDescription(intern(source.getDescription()));
+        copy.setVersion(intern(source.getVersion()));
+        if (source.getContact() != null) {
+            OpenApiSpec.Contact contact = new OpenApiSpec.Contact();
+            contact.setName(intern(source.getContact().getName()));
+            contact.setUrl(intern(source.getContact().getUrl()));
+            contact.setEmail(intern(source.getContact().getEmail()));
+            copy.setContact(contact);
+        }
+        if (source.getLicense() != null) {
+            OpenApiSpec.License license = new OpenApiSpec.License();
+            license.setName(intern(source.getLicense().getName()));
+            license.setUrl(intern(source.getLicense().getUrl()));
+            copy.setLicense(license);
+        }
+        return copy;
+    }
+
+    List<OpenApiSpec.Server> servers(List<OpenApiSpec.Server> source) {
+        return list(source, server -> {
+            OpenApiSpec.Server copy = new OpenApiSpec.Server();
+            copy.setUrl(intern(server.getUrl()));
+            copy.setDescription(intern(server.getDescription()));
+            return copy;
+        });
+    }
+
+    List<OpenApiSpec.Tag> tags(List<OpenApiSpec.Tag> source) {
+        return list(source, tag -> {
+            OpenApiSpec.Tag copy = new OpenApiSpec.Tag();
+            copy.setName(intern(tag.getName()));
+            copy.setDescription(intern(tag.getDescription()));
+            if (tag.getExternalDocs() != null) {
+                OpenApiSpec.ExternalDocs docs = new OpenApiSpec.ExternalDocs();
+                docs.setDescription(intern(tag.getExternalDocs().getDescription()));
+                docs.setUrl(intern(tag.getExternalDocs().getUrl()));
+                copy.setExternalDocs(docs);
+            }
+            return copy;
+        });
+    }
+
+    // === ОПЕРАЦИИ ===
+    OpenApiSpec.Operation operation(OpenApiSpec.Operation source) {
+        OpenApiSpec.Operation copy = new OpenApiSpec.Operation();
+        copy.setTags(list(source.getTags(), this::intern));
+        copy.setSummary(intern(source.getSummary()));
+        copy.setDescription(intern(source.getDescription()));
+        copy.setOperationId(intern(source.getOperationId()));
+        copy.setParameters(list(source.getParameters(), this::parameter));
+        copy.setRequestBody(requestBody(source.getRequestBody()));
+        copy.setResponses(map(source.getResponses(), this::response));
+        copy.setDeprecated(source.getDeprecated());
+        return copy;
+    }
+
+    OpenApiSpec.Response response(OpenApiSpec.Response source) {
+        if (source == null) return null;
+        OpenApiSpec.Response copy = new OpenApiSpec.Response();
+        copy.setDescription(intern(source.getDescription()));
+        copy.setContent(map(source.getContent(), this::mediaType));
+        copy.setHeaders(map(source.getHeaders(), this::header));
+        return copy;
+    }
+
+    private OpenApiSpec.Parameter parameter(OpenApiSpec.Parameter source) {
+        OpenApiSpec.Parameter copy = new OpenApiSpec.Parameter();
+        copy.setName(intern(source.getName()));
+        copy.setIn(intern(source.getIn()));
+        copy.setDescription(intern(source.getDescription()));
+        copy.setRequired(source.getRequired());
+        copy.setDeprecated(source.getDeprecated());
+        copy.setAllowEmptyValue(source.getAllowEmptyValue());
+        copy.setSchema(schema(source.getSchema()));
+        copy.setExample(source.getExample());
+        copy.setExamples(map(source.getExamples(), this::example));
+        if (source.getContent() != null) {
+            OpenApiSpec.Content content = new OpenApiSpec.Content();
+            content.setMediaTypes(map(source.getContent().getMediaTypes(), this::mediaType));
+            copy.setContent(content);
+        }
+        return copy;
+    }
+
+    private OpenApiSpec.RequestBody requestBody(OpenApiSpec.RequestBody source) {
+        if (source == null) return null;
+        OpenApiSpec.RequestBody copy = new OpenApiSpec.RequestBody();
+        copy.setDescription(intern(source.getDescription()));
+        copy.setRequired(source.getRequired());
+        copy.setContent(map(source.getContent(), this::mediaType));
+        return copy;
+    }
+
+    private OpenApiSpec.MediaType mediaType(OpenApiSpec.MediaType source) {
+        OpenApiSpec.MediaType copy = new OpenApiSpec.MediaType();
+        copy.setSchema(schema(source.getSchema()));
+        copy.setExample(source.getExample());
+        copy.setExamples(map(source.getExamples(), this::example));
+        return copy;
+    }
+
+    private OpenApiSpec.Example example(OpenApiSpec.Example source) {
+        OpenApiSpec.Example copy = new OpenApiSpec.Example();
+        copy.setSummary(intern(source.getSummary()));
+        copy.setDescription(intern(source.getDescription()));
+        copy.setValue(source.getValue());
+        copy.setExternalValue(intern(source.getExternalValue()));
+        return copy;
+    }
+
+    private OpenApiSpec.Header header(OpenApiSpec.Header source) {
+        OpenApiSpec.Header copy = new OpenApiSpec.Header();
+        copy.setDescription(intern(source.getDescription()));
+        copy.setRequired(source.getRequired());
+        copy.setDeprecated(source.getDeprecated());
+        copy.setSchema(schema(source.getSchema()));
+        copy.setExample(source.getExample());
+        return copy;
+    }
+
+    // === СХЕМЫ ===
+    OpenApiSpec.Schema schema(OpenApiSpec.Schema source) {
+        if (source == null) return null;
+        OpenApiSpec.Schema existing = schemas.get(source);
+        if (existing != null) return existing;
+
+        OpenApiSpec.Schema copy = new OpenApiSpec.Schema();
+        // До обхода вложенных схем - чтобы цикл замкнулся на копии, а не ушёл в бесконечную рекурсию
+        schemas.put(source, copy);
+        copy.setType(intern(source.getType()));
+        copy.setRef(intern(source.getRef()));
+        copy.setFormat(intern(source.getFormat()));
+        copy.setTitle(intern(source.getTitle()));
+        copy.setDescription(intern(source.getDescription()));
+        copy.setExample(source.getExample());
+        copy.setProperties(map(source.getProperties(), this::schema));
+        copy.setItems(schema(source.getItems()));
+        copy.setRequired(list(source.getRequired(), this::intern));
+        copy.setNullable(source.getNullable());
+        copy.setReadOnly(source.getReadOnly());
+        copy.setWriteOnly(source.getWriteOnly());
+        copy.setDeprecated(source.getDeprecated());
+        copy.setMinLength(source.getMinLength());
+        copy.setMaxLength(source.getMaxLength());
+        copy.setPattern(intern(source.getPattern()));
+        copy.setMinimum(source.getMinimum());
+        copy.setMaximum(source.getMaximum());
+        copy.setMinItems(source.getMinItems());
+        copy.setMaxItems(source.getMaxItems());
+        copy.setUniqueItems(source.getUniqueItems());
+        copy.setDiscriminator(intern(source.getDiscriminator()));
+        copy.setEnumValues(source.getEnumValues() != null ? new ArrayList<>(source.getEnumValues()) : null);
+        copy.setDefaultValue(source.getDefaultValue());
+        copy.setAdditionalProperties(schema(source.getAdditionalProperties()));
+        copy.setAllOf(list(source.getAllOf(), this::schema));
+        copy.setOneOf(list(source.getOneOf(), this::schema));
+        copy.setAnyOf(list(source.getAnyOf(), this::schema));
+        copy.setNot(schema(source.getNot()));
+        return copy;
+    }
+
+    // === КОЛЛЕКЦИИ ===
+    // Порядок сохраняется; null-элементы пропускаются так же, как их пропускают рендеры
+    private static <T, R> List<R> list(List<T> source, Function<T, R> copier) {
+        if (source == null) return null;
+        List<R> copy = new ArrayList<>(source.size());
+        for (T item : source) {
+            if (item != null) copy.add(copier.apply(item));
+        }
+        return copy;
+    }
+
+    private <T> Map<String, T> map(Map<String, T> source, Function<T, T> copier) {
+        if (source == null) return null;
+        Map<String, T> copy = new LinkedHashMap<>(Math.max(4, (int) (source.size() / 0.75f) + 1));
+        for (Map.Entry<String, T> entry : source.entrySet()) {
+            if (entry.getKey() == null) continue;
+            copy.put(intern(entry.getKey()), entry.getValue() != null ? copier.apply(entry.getValue()) : null);
+        }
+        return copy;
+    }
+}
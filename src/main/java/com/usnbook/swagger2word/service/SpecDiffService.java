@@ -0,0 +1,484 @@
+package com.usnbook.swagger2word.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Структурный журнал изменений между двумя версиями спецификации.
+ * <p>
+ * Операции, параметры, ответы, модели и их свойства индексируются по ключу ({@code GET /pets},
+ * {@code query:limit}, {@code 200}, имя модели) и получают отпечаток - SHA-256 канонического JSON (ключи
+ * словарей по алфавиту). Сравниваются индексы, а не вложенные циклы: совпавший отпечаток - объект не менялся,
+ * и внутрь него сравнение не спускается. Время линейно по размеру спецификаций.
+ */
+@Service
+public class SpecDiffService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpecDiffService.class);
+
+    private static final String[] HTTP_METHODS = {"get", "put", "post", "delete", "patch", "head", "options", "trace"};
+
+    private final ObjectMapper hashMapper;
+
+    public SpecDiffService(ObjectMapper objectMapper) {
+        this.hashMapper = objectMapper.copy().enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
+
+    public Changelog diff(OpenApiSpec from, OpenApiSpec to) {
+        long start = System.nanoTime();
+        Changelog changelog = new Changelog(version(from), version(to));
+        diffOperations(operations(from), operations(to), changelog);
+        diffSchemas(schemas(from), schemas(to), changelog);
+        logger.info("Diffed specs {} -> {}: {} changes in {} ms", changelog.fromVersion, changelog.toVersion,
+                changelog.size(), (System.nanoTime() - start) / 1_000_000);
+        return changelog;
+    }
+
+    // === ОПЕРАЦИИ ===
+    private void diffOperations(Map<String, OpenApiSpec.Operation> from, Map<String, OpenApiSpec.Operation> to,
+                                Changelog changelog) {
+        for (Map.Entry<String, OpenApiSpec.Operation> entry : from.entrySet()) {
+            if (!to.containsKey(entry.getKey())) {
+                changelog.operations.add(new Change(ChangeType.REMOVED, entry.getKey(), summary(entry.getValue())));
+            }
+        }
+        for (Map.Entry<String, OpenApiSpec.Operation> entry : to.entrySet()) {
+            String key = entry.getKey();
+            OpenApiSpec.Operation after = entry.getValue();
+            OpenApiSpec.Operation before = from.get(key);
+            if (before == null) {
+                changelog.operations.add(new Change(ChangeType.ADDED, key, summary(after)));
+            } else if (!fingerprint(before).equals(fingerprint(after))) {
+                diffOperation(key, before, after, changelog);
+            }
+        }
+    }
+
+    private void diffOperation(String key, OpenApiSpec.Operation before, OpenApiSpec.Operation after,
+                               Changelog changelog) {
+        List<String> details = new ArrayList<>();
+        if (!Boolean.TRUE.equals(before.getDeprecated()) && Boolean.TRUE.equals(after.getDeprecated())) {
+            details.add("помечена устаревшей");
+        } else if (Boolean.TRUE.equals(before.getDeprecated()) && !Boolean.TRUE.equals(after.getDeprecated())) {
+            details.add("снята пометка устаревшей");
+        }
+        compare(details, "краткое описание", before.getSummary(), after.getSummary());
+        compare(details, "описание", before.getDescription(), after.getDescription());
+        compare(details, "operationId", before.getOperationId(), after.getOperationId());
+        compare(details, "группы", before.getTags(), after.getTags());
+        compare(details, "требования безопасности", fingerprint(before.getSecurity()), fingerprint(after.getSecurity()));
+        if (!details.isEmpty()) {
+            changelog.operations.add(new Change(ChangeType.CHANGED, key, String.join("; ", details)));
+        }
+
+        diffIndexed(parameters(before), parameters(after), changelog.parameters, key + ": ",
+                (parameterKey, parameter) -> parameterText(parameter),
+                this::parameterDetails);
+        diffRequestBody(key, before.getRequestBody(), after.getRequestBody(), changelog);
+        diffIndexed(nonNull(before.getResponses()), nonNull(after.getResponses()), changelog.responses, key + ": ",
+                (code, response) -> response.getDescription(),
+                this::responseDetails);
+    }
+
+    private void diffRequestBody(String key, OpenApiSpec.RequestBody before, OpenApiSpec.RequestBody after,
+                                 Changelog changelog) {
+        String subject = key + ": тело запроса";
+        if (before == null && after == null) return;
+        if (before == null) {
+            changelog.responses.add(new Change(ChangeType.ADDED, subject, contentText(after.getContent())));
+        } else if (after == null) {
+            changelog.responses.add(new Change(ChangeType.REMOVED, subject, contentText(before.getContent())));
+        } else if (!fingerprint(before).equals(fingerprint(after))) {
+            List<String> details = new ArrayList<>();
+            compare(details, "обязательное", yesNo(before.getRequired()), yesNo(after.getRequired()));
+            compare(details, "описание", before.getDescription(), after.getDescription());
+            contentDetails(details, before.getContent(), after.getContent());
+            changelog.responses.add(new Change(ChangeType.CHANGED, subject, detailText(details)));
+        }
+    }
+
+    private List<String> parameterDetails(OpenApiSpec.Parameter before, OpenApiSpec.Parameter after) {
+        List<String> details = new ArrayList<>();
+        compare(details, "обязательный", yesNo(before.getRequired()), yesNo(after.getRequired()));
+        compare(details, "тип", SchemaTypeFormatter.schemaType(before.getSchema()),
+                SchemaTypeFormatter.schemaType(after.getSchema()));
+        compare(details, "устаревший", yesNo(before.getDeprecated()), yesNo(after.getDeprecated()));
+        compare(details, "описание", before.getDescription(), after.getDescription());
+        return details;
+    }
+
+    private List<String> responseDetails(OpenApiSpec.Response before, OpenApiSpec.Response after) {
+        List<String> details = new ArrayList<>();
+        compare(details, "описание", before.getDescription(), after.getDescription());
+        contentDetails(details, before.getContent(), after.getContent());
+        compare(details, "заголовки", nonNull(before.getHeaders()).keySet(), nonNull(after.getHeaders()).keySet());
+        return details;
+    }
+
+    private void contentDetails(List<String> details, Map<String, OpenApiSpec.MediaType> before,
+                                Map<String, OpenApiSpec.MediaType> after) {
+        Map<String, OpenApiSpec.MediaType> from = nonNull(before);
+        Map<String, OpenApiSpec.MediaType> to = nonNull(after);
+        compare(details, "типы содержимого", from.keySet(), to.keySet());
+        for (Map.Entry<String, OpenApiSpec.MediaType> entry : to.entrySet()) {
+            OpenApiSpec.MediaType previous = from.get(entry.getKey());
+            if (previous == null || entry.getValue() == null) continue;
+            compare(details, "схема " + entry.getKey(), SchemaTypeFormatter.schemaType(previous.getSchema()),
+                    SchemaTypeFormatter.schemaType(entry.getValue().getSchema()));
+        }
+    }
+
+    // === МОДЕЛИ ДАННЫХ ===
+    private void diffSchemas(Map<String, OpenApiSpec.Schema> from, Map<String, OpenApiSpec.Schema> to,
+                             Changelog changelog) {
+        for (Map.Entry<String, OpenApiSpec.Schema> entry : from.entrySet()) {
+            if (!to.containsKey(entry.getKey())) {
+                changelog.schemas.add(new Change(ChangeType.REMOVED, entry.getKey(), entry.getValue().getDescription()));
+            }
+        }
+        for (Map.Entry<String, OpenApiSpec.Schema> entry : to.entrySet()) {
+            String name = entry.getKey();
+            OpenApiSpec.Schema after = entry.getValue();
+            OpenApiSpec.Schema before = from.get(name);
+            if (before == null) {
+                changelog.schemas.add(new Change(ChangeType.ADDED, name, after.getDescription()));
+            } else if (!fingerprint(before).equals(fingerprint(after))) {
+                diffSchema(name, before, after, changelog);
+            }
+        }
+    }
+
+    private void diffSchema(String name, OpenApiSpec.Schema before, OpenApiSpec.Schema after, Changelog changelog) {
+        Set<String> requiredBefore = new HashSet<>(nonNull(before.getRequired()));
+        Set<String> requiredAfter = new HashSet<>(nonNull(after.getRequired()));
+        Map<String, OpenApiSpec.Schema> propertiesBefore = nonNull(before.getProperties());
+        Map<String, OpenApiSpec.Schema> propertiesAfter = nonNull(after.getProperties());
+
+        // Добавленное свойство описывается по новой версии модели, удалённое - по старой
+        Describer<OpenApiSpec.Schema> describer = (property, schema) -> {
+            boolean required = propertiesAfter.containsKey(property)
+                    ? requiredAfter.contains(property) : requiredBefore.contains(property);
+            return SchemaTypeFormatter.schemaType(schema) + (required ? ", обязательное" : "");
+        };
+
+        // Свойство с прежней схемой, ставшее (не)обязательным, - тоже изменение
+        int propertyChanges = changelog.schemas.size();
+        diffIndexed(propertiesBefore, propertiesAfter, changelog.schemas, name + ".", describer,
+                (property, schemaBefore, schemaAfter) -> propertyDetails(schemaBefore, schemaAfter),
+                property -> requiredBefore.contains(property) != requiredAfter.contains(property)
+                        ? List.of(requiredAfter.contains(property) ? "стало обязательным" : "стало необязательным")
+                        : List.of());
+        propertyChanges = changelog.schemas.size() - propertyChanges;
+
+        List<String> details = new ArrayList<>();
+        compare(details, "тип", SchemaTypeFormatter.schemaType(withoutProperties(before)),
+                SchemaTypeFormatter.schemaType(withoutProperties(after)));
+        compare(details, "описание", before.getDescription(), after.getDescription());
+        compare(details, "допустимые значения", fingerprint(before.getEnumValues()), fingerprint(after.getEnumValues()));
+        compare(details, "устаревшая", yesNo(before.getDeprecated()), yesNo(after.getDeprecated()));
+        if (!details.isEmpty() || propertyChanges == 0) {
+            changelog.schemas.add(changelog.schemas.size() - propertyChanges,
+                    new Change(ChangeType.CHANGED, name, detailText(details)));
+        }
+    }
+
+    private List<String> propertyDetails(OpenApiSpec.Schema before, OpenApiSpec.Schema after) {
+        List<String> details = new ArrayList<>();
+        compare(details, "тип", SchemaTypeFormatter.schemaType(before), SchemaTypeFormatter.schemaType(after));
+        compare(details, "описание", before.getDescription(), after.getDescription());
+        compare(details, "допустимые значения", fingerprint(before.getEnumValues()), fingerprint(after.getEnumValues()));
+        compare(details, "устаревшее", yesNo(before.getDeprecated()), yesNo(after.getDeprecated()));
+        return details;
+    }
+
+    // Описание типа самой модели без подробностей свойств: их изменения перечисляются отдельно
+    private static OpenApiSpec.Schema withoutProperties(OpenApiSpec.Schema schema) {
+        OpenApiSpec.Schema shallow = new OpenApiSpec.Schema();
+        shallow.setType(schema.getType());
+        shallow.setFormat(schema.getFormat());
+        shallow.setRef(schema.getRef());
+        shallow.setItems(schema.getItems());
+        return shallow;
+    }
+
+    // === СРАВНЕНИЕ ИНДЕКСОВ ===
+    private interface Describer<T> {
+        String describe(String key, T value);
+    }
+
+    private interface Detailer<T> {
+        List<String> details(String key, T before, T after);
+    }
+
+    private interface KeyDetailer {
+        List<String> details(String key);
+    }
+
+    private <T> void diffIndexed(Map<String, T> from, Map<String, T> to, List<Change> changes, String prefix,
+                                 Describer<T> describer, BiFunction<T, T, List<String>> detailer) {
+        diffIndexed(from, to, changes, prefix, describer, (key, before, after) -> detailer.apply(before, after),
+                key -> List.of());
+    }
+
+    /**
+     * Добавленные, удалённые и изменённые элементы двух индексов. {@code keyDetailer} - изменения, которые
+     * видны не в самом элементе, а в его владельце (обязательность свойства задаётся списком required модели).
+     */
+    private <T> void diffIndexed(Map<String, T> from, Map<String, T> to, List<Change> changes, String prefix,
+                                 Describer<T> describer, Detailer<T> detailer, KeyDetailer keyDetailer) {
+        for (Map.Entry<String, T> entry : from.entrySet()) {
+            if (entry.getValue() != null && to.get(entry.getKey()) == null) {
+                changes.add(new Change(ChangeType.REMOVED, prefix + entry.getKey(),
+                        describer.describe(entry.getKey(), entry.getValue())));
+            }
+        }
+        for (Map.Entry<String, T> entry : to.entrySet()) {
+            String key = entry.getKey();
+            T after = entry.getValue();
+            if (after == null) continue;
+            T before = from.get(key);
+            if (before == null) {
+                changes.add(new Change(ChangeType.ADDED, prefix + key, describer.describe(key, after)));
+                continue;
+            }
+
+            List<String> details = new ArrayList<>(keyDetailer.details(key));
+            if (!fingerprint(before).equals(fingerprint(after))) {
+                details.addAll(detailer.details(key, before, after));
+                if (details.isEmpty()) details.add("структура изменена");
+            }
+            if (!details.isEmpty()) {
+                changes.add(new Change(ChangeType.CHANGED, prefix + key, String.join("; ", details)));
+            }
+        }
+    }
+
+    private static void compare(List<String> details, String label, Object before, Object after) {
+        if (Objects.equals(before, after)) return;
+        if (before instanceof String || after instanceof String) {
+            if (before == null) {
+                details.add(label + ": добавлено");
+            } else if (after == null) {
+                details.add(label + ": удалено");
+            } else if (((String) before).length() + ((String) after).length() <= 80) {
+                details.add(label + ": " + before + " → " + after);
+            } else {
+                details.add(label + " изменено");
+            }
+        } else if (before instanceof Collection<?> removed && after instanceof Collection<?> added) {
+            List<Object> gone = new ArrayList<>(removed);
+            gone.removeAll(added);
+            List<Object> appeared = new ArrayList<>(added);
+            appeared.removeAll(removed);
+            if (gone.isEmpty() && appeared.isEmpty()) return;
+            StringBuilder text = new StringBuilder(label).append(":");
+            if (!appeared.isEmpty()) text.append(" +").append(appeared);
+            if (!gone.isEmpty()) text.append(" −").append(gone);
+            details.add(text.toString());
+        } else {
+            details.add(label + " изменено");
+        }
+    }
+
+    private static String detailText(List<String> details) {
+        return details.isEmpty() ? "структура изменена" : String.join("; ", details);
+    }
+
+    // === ОТПЕЧАТКИ ===
+    // SHA-256 канонического JSON: JSON пишется прямо в дайджест, без промежуточных строк и деревьев
+    private String fingerprint(Object value) {
+        if (value == null) return "";
+        MessageDigest digest = sha256();
+        try (OutputStream out = new DigestSink(digest)) {
+            hashMapper.writeValue(out, value);
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось вычислить отпечаток: " + e.getMessage(), e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    private static final class DigestSink extends OutputStream {
+        private final MessageDigest digest;
+
+        DigestSink(MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        public void write(int b) {
+            digest.update((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            digest.update(b, off, len);
+        }
+    }
+
+    // === ИНДЕКСЫ СПЕЦИФИКАЦИИ ===
+    private static Map<String, OpenApiSpec.Operation> operations(OpenApiSpec spec) {
+        Map<String, OpenApiSpec.Operation> operations = new LinkedHashMap<>();
+        if (spec == null || spec.getPaths() == null) return operations;
+        for (Map.Entry<String, OpenApiSpec.Path> path : spec.getPaths().entrySet()) {
+            Map<String, OpenApiSpec.Operation> pathOperations = path.getValue() != null
+                    ? path.getValue().getAllOperations() : null;
+            if (pathOperations == null) continue;
+            for (String method : HTTP_METHODS) {
+                OpenApiSpec.Operation operation = pathOperations.get(method);
+                if (operation != null) {
+                    operations.put(method.toUpperCase(Locale.ROOT) + " " + path.getKey(), operation);
+                }
+            }
+        }
+        return operations;
+    }
+
+    private static Map<String, OpenApiSpec.Schema> schemas(OpenApiSpec spec) {
+        if (spec == null || spec.getComponents() == null || spec.getComponents().getSchemas() == null) {
+            return Map.of();
+        }
+        Map<String, OpenApiSpec.Schema> schemas = new LinkedHashMap<>();
+        spec.getComponents().getSchemas().forEach((name, schema) -> {
+            if (name != null && schema != null) schemas.put(name, schema);
+        });
+        return schemas;
+    }
+
+    private static Map<String, OpenApiSpec.Parameter> parameters(OpenApiSpec.Operation operation) {
+        Map<String, OpenApiSpec.Parameter> parameters = new LinkedHashMap<>();
+        if (operation.getParameters() == null) return parameters;
+        for (OpenApiSpec.Parameter parameter : operation.getParameters()) {
+            if (parameter != null && parameter.getName() != null) {
+                parameters.put(parameter.getIn() + " " + parameter.getName(), parameter);
+            }
+        }
+        return parameters;
+    }
+
+    private static String parameterText(OpenApiSpec.Parameter parameter) {
+        return SchemaTypeFormatter.schemaType(parameter.getSchema())
+                + (Boolean.TRUE.equals(parameter.getRequired()) ? ", обязательный" : "");
+    }
+
+    private static String contentText(Map<String, OpenApiSpec.MediaType> content) {
+        if (content == null || content.isEmpty()) return null;
+        StringJoiner text = new StringJoiner(", ");
+        content.forEach((type, mediaType) -> text.add(type + (mediaType != null && mediaType.getSchema() != null
+                ? " (" + SchemaTypeFormatter.schemaType(mediaType.getSchema()) + ")" : "")));
+        return text.toString();
+    }
+
+    private static String summary(OpenApiSpec.Operation operation) {
+        return operation.getSummary() != null ? operation.getSummary() : operation.getOperationId();
+    }
+
+    private static String version(OpenApiSpec spec) {
+        return spec != null && spec.getInfo() != null && spec.getInfo().getVersion() != null
+                ? spec.getInfo().getVersion() : "N/A";
+    }
+
+    private static String yesNo(Boolean value) {
+        return Boolean.TRUE.equals(value) ? "да" : "нет";
+    }
+
+    private static <K, V> Map<K, V> nonNull(Map<K, V> map) {
+        return map != null ? map : Map.of();
+    }
+
+    private static <T> List<T> nonNull(List<T> list) {
+        return list != null ? list : List.of();
+    }
+
+    // === РЕЗУЛЬТАТ ===
+    public enum ChangeType {
+        ADDED("Добавлено"),
+        REMOVED("Удалено"),
+        CHANGED("Изменено");
+
+        private final String label;
+
+        ChangeType(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * {@code subject} - что изменилось ({@code GET /pets: query limit}, {@code Pet.name}),
+     * {@code detail} - подробности или краткое описание добавленного/удалённого, может быть null.
+     */
+    public record Change(ChangeType type, String subject, String detail) {
+    }
+
+    /**
+     * Изменения по разделам, в порядке спецификации: сначала удалённое, затем добавленное и изменённое.
+     * Тела запросов перечисляются вместе с ответами.
+     */
+    public static final class Changelog {
+        private final String fromVersion;
+        private final String toVersion;
+        private final List<Change> operations = new ArrayList<>();
+        private final List<Change> parameters = new ArrayList<>();
+        private final List<Change> responses = new ArrayList<>();
+        private final List<Change> schemas = new ArrayList<>();
+
+        Changelog(String fromVersion, String toVersion) {
+            this.fromVersion = fromVersion;
+            this.toVersion = toVersion;
+        }
+
+        public String getFromVersion() {
+            return fromVersion;
+        }
+
+        public String getToVersion() {
+            return toVersion;
+        }
+
+        public List<Change> getOperations() {
+            return operations;
+        }
+
+        public List<Change> getParameters() {
+            return parameters;
+        }
+
+        public List<Change> getResponses() {
+            return responses;
+        }
+
+        public List<Change> getSchemas() {
+            return schemas;
+        }
+
+        public int size() {
+            return operations.size() + parameters.size() + responses.size() + schemas.size();
+        }
+
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+    }
+}
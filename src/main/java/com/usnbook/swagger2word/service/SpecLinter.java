@@ -0,0 +1,340 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.config.LintProperties;
+import com.usnbook.swagger2word.config.LintProperties.Severity;
+import com.usnbook.swagger2word.model.CompiledSpec;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Быстрая проверка спецификации до рендера: висячие $ref, операции без ответов, повторяющиеся
+ * operationId и другие поломки, из-за которых документ выходит наполовину пустым.
+ * <p>
+ * Пути и модели проверяются независимо друг от друга (на больших спецификациях - параллельно),
+ * общие для всей спецификации проверки (уникальность operationId) делаются после. Уровень каждого
+ * правила настраивается в {@code app.lint.severity}; в строгом режиме ошибки прерывают генерацию
+ * {@link LintFailedException} с полным отчётом.
+ */
+@Service
+public class SpecLinter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpecLinter.class);
+
+    private static final int LOGGED_ISSUES = 10;
+
+    private final LintProperties properties;
+
+    public SpecLinter(LintProperties properties) {
+        this.properties = properties;
+    }
+
+    public boolean isStrict() {
+        return properties.isStrict();
+    }
+
+    /**
+     * Проверяет спецификацию и пишет найденное в лог. В строгом режиме при ошибках бросает
+     * {@link LintFailedException}; предупреждения генерацию не прерывают.
+     */
+    public LintReport check(OpenApiSpec spec, boolean strict) {
+        if (!properties.isEnabled()) return LintReport.EMPTY;
+
+        long start = System.nanoTime();
+        LintReport report = lint(spec);
+        if (!report.issues().isEmpty()) {
+            logger.warn("Spec lint found {} errors and {} warnings in {} ms", report.errors(), report.warnings(),
+                    (System.nanoTime() - start) / 1_000_000);
+            for (Issue issue : report.issues().subList(0, Math.min(LOGGED_ISSUES, report.issues().size()))) {
+                logger.debug("  {} [{}] {}: {}", issue.severity(), issue.rule(), issue.location(), issue.message());
+            }
+        }
+        if (strict && report.hasErrors()) {
+            throw new LintFailedException(report);
+        }
+        return report;
+    }
+
+    public LintReport lint(OpenApiSpec spec) {
+        Set<String> schemaNames = spec.getComponents() != null && spec.getComponents().getSchemas() != null
+                ? spec.getComponents().getSchemas().keySet() : Set.of();
+        List<Map.Entry<String, OpenApiSpec.Path>> paths = spec.getPaths() != null
+                ? new ArrayList<>(spec.getPaths().entrySet()) : List.of();
+        List<Map.Entry<String, OpenApiSpec.Schema>> schemas = spec.getComponents() != null
+                && spec.getComponents().getSchemas() != null
+                ? new ArrayList<>(spec.getComponents().getSchemas().entrySet()) : List.of();
+
+        // Каждый путь и каждая модель - отдельная задача со своим списком замечаний; порядок сохраняется
+        List<PathIssues> pathResults = stream(paths)
+                .map(path -> lintPath(path.getKey(), path.getValue(), schemaNames))
+                .toList();
+        List<Issues> schemaResults = stream(schemas)
+                .map(schema -> lintSchema(schema.getKey(), schema.getValue(), schemaNames))
+                .toList();
+
+        Issues global = new Issues();
+        Map<String, String> operationIds = new HashMap<>();
+        List<Issue> issues = new ArrayList<>();
+        for (PathIssues result : pathResults) {
+            issues.addAll(result.issues.list);
+            for (String[] operationId : result.operationIds) {
+                String first = operationIds.putIfAbsent(operationId[0], operationId[1]);
+                if (first != null) {
+                    global.add(Rule.DUPLICATE_OPERATION_ID, operationId[1],
+                            "operationId '" + operationId[0] + "' уже используется в " + first);
+                }
+            }
+        }
+        issues.addAll(global.list);
+        for (Issues result : schemaResults) {
+            issues.addAll(result.list);
+        }
+        return LintReport.of(issues);
+    }
+
+    private <T> Stream<T> stream(List<T> items) {
+        return items.size() >= properties.getParallelThreshold() ? items.parallelStream() : items.stream();
+    }
+
+    // === ПУТИ И ОПЕРАЦИИ ===
+    private PathIssues lintPath(String path, OpenApiSpec.Path pathItem, Set<String> schemaNames) {
+        PathIssues result = new PathIssues();
+        Map<String, OpenApiSpec.Operation> operations = pathItem != null ? pathItem.getAllOperations() : null;
+        if (operations == null) {
+            result.issues.add(Rule.EMPTY_PATH, path, "путь без операций");
+            return result;
+        }
+
+        List<String> templateParameters = templateParameters(path);
+        for (Map.Entry<String, OpenApiSpec.Operation> entry : operations.entrySet()) {
+            String location = entry.getKey().toUpperCase(Locale.ROOT) + " " + path;
+            OpenApiSpec.Operation operation = entry.getValue();
+            if (operation == null) {
+                result.issues.add(Rule.NULL_OPERATION, location, "операция пуста");
+                continue;
+            }
+
+            if (operation.getOperationId() != null && !operation.getOperationId().isBlank()) {
+                result.operationIds.add(new String[]{operation.getOperationId(), location});
+            }
+            if (operation.getResponses() == null || operation.getResponses().isEmpty()) {
+                result.issues.add(Rule.MISSING_RESPONSES, location, "у операции нет ответов");
+            }
+            lintParameters(location, operation.getParameters(), templateParameters, schemaNames, result.issues);
+
+            if (operation.getRequestBody() != null) {
+                lintContent(location + ": тело запроса", operation.getRequestBody().getContent(), schemaNames,
+                        result.issues);
+            }
+            if (operation.getResponses() != null) {
+                for (Map.Entry<String, OpenApiSpec.Response> response : operation.getResponses().entrySet()) {
+                    if (response.getValue() == null) continue;
+                    lintContent(location + ": ответ " + response.getKey(), response.getValue().getContent(),
+                            schemaNames, result.issues);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void lintParameters(String location, List<OpenApiSpec.Parameter> parameters,
+                                List<String> templateParameters, Set<String> schemaNames, Issues issues) {
+        Set<String> pathParameters = new HashSet<>();
+        if (parameters != null) {
+            for (OpenApiSpec.Parameter parameter : parameters) {
+                if (parameter == null || parameter.getName() == null || parameter.getIn() == null) {
+                    // Так же выглядит и параметр-ссылка ($ref на components.parameters): она не разворачивается
+                    issues.add(Rule.INVALID_PARAMETER, location, "параметр без name или in");
+                    continue;
+                }
+                if ("path".equals(parameter.getIn())) pathParameters.add(parameter.getName());
+                lintSchemaRefs(location + ": параметр " + parameter.getName(), parameter.getSchema(), schemaNames,
+                        issues);
+            }
+        }
+        for (String name : templateParameters) {
+            if (!pathParameters.contains(name)) {
+                issues.add(Rule.UNDECLARED_PATH_PARAMETER, location, "параметр пути {" + name + "} не описан");
+            }
+        }
+    }
+
+    private void lintContent(String location, Map<String, OpenApiSpec.MediaType> content, Set<String> schemaNames,
+                             Issues issues) {
+        if (content == null) return;
+        for (Map.Entry<String, OpenApiSpec.MediaType> entry : content.entrySet()) {
+            if (entry.getValue() == null) continue;
+            lintSchemaRefs(location + " (" + entry.getKey() + ")", entry.getValue().getSchema(), schemaNames, issues);
+        }
+    }
+
+    // Имена из шаблона пути: /orders/{orderId}/items/{itemId} -> orderId, itemId
+    private static List<String> templateParameters(String path) {
+        List<String> names = new ArrayList<>();
+        int open = path.indexOf('{');
+        while (open >= 0) {
+            int close = path.indexOf('}', open + 1);
+            if (close < 0) break;
+            names.add(path.substring(open + 1, close));
+            open = path.indexOf('{', close + 1);
+        }
+        return names;
+    }
+
+    // === МОДЕЛИ ===
+    private Issues lintSchema(String name, OpenApiSpec.Schema schema, Set<String> schemaNames) {
+        Issues issues = new Issues();
+        lintSchemaRefs("schemas." + name, schema, schemaNames, issues);
+        return issues;
+    }
+
+    /**
+     * Обходит схему и все вложенные в неё (не заходя по ссылкам в другие модели): каждый $ref должен
+     * вести на существующую модель, каждое обязательное свойство - быть описано.
+     */
+    private void lintSchemaRefs(String location, OpenApiSpec.Schema root, Set<String> schemaNames, Issues issues) {
+        if (root == null) return;
+
+        Deque<Object[]> pending = new ArrayDeque<>();
+        Set<OpenApiSpec.Schema> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        pending.push(new Object[]{root, location});
+        while (!pending.isEmpty()) {
+            Object[] next = pending.pop();
+            OpenApiSpec.Schema schema = (OpenApiSpec.Schema) next[0];
+            String at = (String) next[1];
+            if (!seen.add(schema)) continue;
+
+            String ref = schema.getRef();
+            if (ref != null) {
+                if (ref.startsWith(CompiledSpec.SCHEMA_REF_PREFIX)
+                        && !schemaNames.contains(ref.substring(CompiledSpec.SCHEMA_REF_PREFIX.length()))) {
+                    issues.add(Rule.DANGLING_REF, at, "ссылка " + ref + " ведёт на несуществующую модель");
+                }
+                continue;
+            }
+
+            if (schema.getRequired() != null && schema.getProperties() != null && schema.getAllOf() == null) {
+                for (String required : schema.getRequired()) {
+                    if (!schema.getProperties().containsKey(required)) {
+                        issues.add(Rule.UNKNOWN_REQUIRED_PROPERTY, at,
+                                "обязательное свойство '" + required + "' не описано");
+                    }
+                }
+            }
+
+            push(pending, schema.getItems(), at + "[]");
+            push(pending, schema.getAdditionalProperties(), at + "{}");
+            push(pending, schema.getNot(), at + ".not");
+            pushAll(pending, schema.getAllOf(), at + ".allOf");
+            pushAll(pending, schema.getOneOf(), at + ".oneOf");
+            pushAll(pending, schema.getAnyOf(), at + ".anyOf");
+            if (schema.getProperties() != null) {
+                for (Map.Entry<String, OpenApiSpec.Schema> property : schema.getProperties().entrySet()) {
+                    push(pending, property.getValue(), at + "." + property.getKey());
+                }
+            }
+        }
+    }
+
+    private static void push(Deque<Object[]> pending, OpenApiSpec.Schema schema, String location) {
+        if (schema != null) pending.push(new Object[]{schema, location});
+    }
+
+    private static void pushAll(Deque<Object[]> pending, List<OpenApiSpec.Schema> schemas, String location) {
+        if (schemas == null) return;
+        for (int i = 0; i < schemas.size(); i++) {
+            push(pending, schemas.get(i), location + "[" + i + "]");
+        }
+    }
+
+    // === ЗАМЕЧАНИЯ ===
+    private Severity severity(Rule rule) {
+        return properties.getSeverity().getOrDefault(rule.getKey(), rule.getDefaultSeverity());
+    }
+
+    // Замечания одной задачи (путь или модель); правила с уровнем off отбрасываются сразу
+    private final class Issues {
+        final List<Issue> list = new ArrayList<>();
+
+        void add(Rule rule, String location, String message) {
+            Severity severity = severity(rule);
+            if (severity != Severity.OFF) {
+                list.add(new Issue(severity, rule.getKey(), location, message));
+            }
+        }
+    }
+
+    private final class PathIssues {
+        final Issues issues = new Issues();
+        // operationId и где он объявлен - уникальность проверяется по всей спецификации
+        final List<String[]> operationIds = new ArrayList<>();
+    }
+
+    public enum Rule {
+        DANGLING_REF("dangling-ref", Severity.ERROR),
+        MISSING_RESPONSES("missing-responses", Severity.ERROR),
+        DUPLICATE_OPERATION_ID("duplicate-operation-id", Severity.ERROR),
+        NULL_OPERATION("null-operation", Severity.ERROR),
+        EMPTY_PATH("empty-path", Severity.WARNING),
+        INVALID_PARAMETER("invalid-parameter", Severity.WARNING),
+        UNDECLARED_PATH_PARAMETER("undeclared-path-parameter", Severity.WARNING),
+        UNKNOWN_REQUIRED_PROPERTY("unknown-required-property", Severity.WARNING);
+
+        private final String key;
+        private final Severity defaultSeverity;
+
+        Rule(String key, Severity defaultSeverity) {
+            this.key = key;
+            this.defaultSeverity = defaultSeverity;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Severity getDefaultSeverity() {
+            return defaultSeverity;
+        }
+    }
+
+    public record Issue(Severity severity, String rule, String location, String message) {
+    }
+
+    public record LintReport(int errors, int warnings, List<Issue> issues) {
+
+        static final LintReport EMPTY = new LintReport(0, 0, List.of());
+
+        static LintReport of(List<Issue> issues) {
+            int errors = 0;
+            for (Issue issue : issues) {
+                if (issue.severity() == Severity.ERROR) errors++;
+            }
+            return new LintReport(errors, issues.size() - errors, List.copyOf(issues));
+        }
+
+        public boolean hasErrors() {
+            return errors > 0;
+        }
+    }
+
+    /**
+     * Строгий режим: в спецификации есть ошибки, документ не генерируется.
+     */
+    public static class LintFailedException extends RuntimeException {
+
+        private final LintReport report;
+
+        public LintFailedException(LintReport report) {
+            super("Спецификация не прошла проверку: ошибок " + report.errors() + ", предупреждений " + report.warnings());
+            this.report = report;
+        }
+
+        public LintReport getReport() {
+            return report;
+        }
+    }
+}
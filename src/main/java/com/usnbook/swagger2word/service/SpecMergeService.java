@@ -0,0 +1,369 @@
+package com.usnbook.swagger2word.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usnbook.swagger2word.model.CompiledSpec;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Сводный документ по нескольким сервисам: спецификации загружаются параллельно и сливаются в одну модель,
+ * которая рендерится один раз.
+ * <p>
+ * Теги получают префикс сервиса ({@code Billing / invoices}), операции без тегов попадают в тег сервиса.
+ * Модели из components.schemas сравниваются по структурному хэшу, в который вместо $ref входит хэш целевой
+ * модели: одинаковые модели разных сервисов остаются одной (модели одного сервиса не объединяются никогда),
+ * а разные модели с одним именем получают префикс сервиса, и ссылки на них переписываются. Исходные спецификации (они лежат в кэше) не меняются -
+ * сливаются их копии.
+ */
+@Service
+public class SpecMergeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpecMergeService.class);
+
+    @Value("${app.merge.max-concurrency:8}")
+    private int maxConcurrency;
+
+    @Value("${app.merge.max-specs:20}")
+    private int maxSpecs;
+
+    private final ApiDocsService apiDocsService;
+    private final ObjectMapper copyMapper;
+
+    public SpecMergeService(ApiDocsService apiDocsService, ObjectMapper objectMapper) {
+        this.apiDocsService = apiDocsService;
+        this.copyMapper = objectMapper.copy().addMixIn(OpenApiSpec.Path.class, PathCopyMixin.class);
+    }
+
+    public int getMaxSpecs() {
+        return maxSpecs;
+    }
+
+    /**
+     * Загружает спецификации (не больше {@code max-concurrency} одновременно) и сливает их в порядке URL.
+     * Хэш результата составлен из хэшей исходных спецификаций.
+     */
+    public Mono<ApiDocsService.FetchedSpec> fetchMerged(List<String> urls, String title) {
+        return Flux.fromIterable(urls)
+                .flatMapSequential(apiDocsService::fetchSpec, Math.max(1, maxConcurrency))
+                .collectList()
+                .publishOn(Schedulers.boundedElastic())
+                .map(fetched -> {
+                    long start = System.nanoTime();
+                    OpenApiSpec merged = merge(fetched.stream().map(ApiDocsService.FetchedSpec::spec).toList(), title);
+                    logger.info("Merged {} specs into {} paths and {} schemas in {} ms", fetched.size(),
+                            merged.getPaths().size(), merged.getComponents().getSchemas().size(),
+                            (System.nanoTime() - start) / 1_000_000);
+
+                    StringBuilder hashes = new StringBuilder(title != null ? title : "");
+                    for (ApiDocsService.FetchedSpec spec : fetched) {
+                        hashes.append('\n').append(spec.contentHash());
+                    }
+                    return new ApiDocsService.FetchedSpec(merged,
+                            SpecCacheService.contentHash(hashes.toString().getBytes(StandardCharsets.UTF_8)), null, null);
+                });
+    }
+
+    public OpenApiSpec merge(List<OpenApiSpec> specs, String title) {
+        OpenApiSpec merged = new OpenApiSpec();
+        merged.setOpenapi("3.0.1");
+        merged.setServers(new ArrayList<>());
+        merged.setTags(new ArrayList<>());
+        merged.setPaths(new LinkedHashMap<>());
+        merged.setComponents(new OpenApiSpec.Components());
+        merged.getComponents().setSchemas(new LinkedHashMap<>());
+
+        OpenApiSpec.Info info = new OpenApiSpec.Info();
+        info.setTitle(title != null && !title.trim().isEmpty() ? title.trim() : "Сводная документация API");
+        merged.setInfo(info);
+
+        Set<String> serviceNames = new HashSet<>();
+        Set<String> serverUrls = new HashSet<>();
+        // структурный хэш -> имя модели в сводной спецификации
+        Map<String, List<String>> schemasByHash = new HashMap<>();
+        StringBuilder description = new StringBuilder("Сервисы:");
+
+        for (OpenApiSpec original : specs) {
+            OpenApiSpec spec = copyMapper.convertValue(original, OpenApiSpec.class);
+            String service = uniqueName(serviceName(spec), serviceNames);
+            serviceNames.add(service);
+            description.append("\n• ").append(service);
+            if (spec.getInfo() != null && spec.getInfo().getVersion() != null) {
+                description.append(" (").append(spec.getInfo().getVersion()).append(")");
+            }
+
+            mergeServers(merged, spec, serverUrls);
+            Map<String, String> renames = mergeSchemas(merged, spec, service, schemasByHash);
+            rewriteRefs(spec, renames);
+            mergeTags(merged, spec, service);
+            mergePaths(merged, spec, service);
+        }
+
+        info.setDescription(description.toString());
+        return merged;
+    }
+
+    // === СЕРВЕРЫ И ТЕГИ ===
+    private void mergeServers(OpenApiSpec merged, OpenApiSpec spec, Set<String> serverUrls) {
+        if (spec.getServers() == null) return;
+        for (OpenApiSpec.Server server : spec.getServers()) {
+            if (server != null && server.getUrl() != null && serverUrls.add(server.getUrl())) {
+                merged.getServers().add(server);
+            }
+        }
+    }
+
+    private void mergeTags(OpenApiSpec merged, OpenApiSpec spec, String service) {
+        OpenApiSpec.Tag serviceTag = new OpenApiSpec.Tag();
+        serviceTag.setName(service);
+        serviceTag.setDescription(spec.getInfo() != null ? spec.getInfo().getDescription() : null);
+        merged.getTags().add(serviceTag);
+
+        if (spec.getTags() == null) return;
+        for (OpenApiSpec.Tag tag : spec.getTags()) {
+            if (tag == null || tag.getName() == null || tag.getName().trim().isEmpty()) continue;
+            tag.setName(namespacedTag(service, tag.getName()));
+            merged.getTags().add(tag);
+        }
+    }
+
+    private static String namespacedTag(String service, String tag) {
+        return service + " / " + tag.trim();
+    }
+
+    // === ПУТИ ===
+    // Одинаковые пути разных сервисов различаются пометкой сервиса
+    private void mergePaths(OpenApiSpec merged, OpenApiSpec spec, String service) {
+        if (spec.getPaths() == null) return;
+        for (Map.Entry<String, OpenApiSpec.Path> entry : spec.getPaths().entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) continue;
+
+            Map<String, OpenApiSpec.Operation> operations = entry.getValue().getAllOperations();
+            if (operations != null) {
+                for (OpenApiSpec.Operation operation : operations.values()) {
+                    if (operation == null) continue;
+                    List<String> tags = new ArrayList<>();
+                    if (operation.getTags() != null) {
+                        for (String tag : operation.getTags()) {
+                            if (tag != null && !tag.trim().isEmpty()) tags.add(namespacedTag(service, tag));
+                        }
+                    }
+                    if (tags.isEmpty()) tags.add(service);
+                    operation.setTags(tags);
+                }
+            }
+
+            String path = merged.getPaths().containsKey(entry.getKey())
+                    ? entry.getKey() + " [" + service + "]"
+                    : entry.getKey();
+            merged.getPaths().put(path, entry.getValue());
+        }
+    }
+
+    // === МОДЕЛИ ДАННЫХ ===
+    private Map<String, String> mergeSchemas(OpenApiSpec merged, OpenApiSpec spec, String service,
+                                             Map<String, List<String>> schemasByHash) {
+        Map<String, String> renames = new HashMap<>();
+        if (spec.getComponents() == null || spec.getComponents().getSchemas() == null) return renames;
+
+        Map<String, OpenApiSpec.Schema> schemas = spec.getComponents().getSchemas();
+        Map<String, JsonNode> trees = new HashMap<>();
+        for (Map.Entry<String, OpenApiSpec.Schema> entry : schemas.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                trees.put(entry.getKey(), copyMapper.valueToTree(entry.getValue()));
+            }
+        }
+
+        Map<String, String> hashes = new HashMap<>();
+        // Модели этого сервиса сравниваются только с моделями предыдущих: одинаковые по форме DTO
+        // одного сервиса (CreateRequest / UpdateRequest) - разные модели и остаются отдельными
+        Map<String, List<String>> added = new HashMap<>();
+        Map<String, OpenApiSpec.Schema> target = merged.getComponents().getSchemas();
+        for (Map.Entry<String, OpenApiSpec.Schema> entry : schemas.entrySet()) {
+            String name = entry.getKey();
+            if (!trees.containsKey(name)) continue;
+
+            String hash = structuralHash(name, trees, hashes, new HashSet<>());
+            List<String> existing = schemasByHash.get(hash);
+            if (existing != null) {
+                // Среди одинаковых моделей предпочитаем одноимённую
+                String same = existing.contains(name) ? name : existing.get(0);
+                if (!same.equals(name)) renames.put(name, same);
+                continue;
+            }
+
+            String mergedName = target.containsKey(name)
+                    ? uniqueName(service.replaceAll("[^\\p{L}\\p{N}]+", "") + "_" + name, target.keySet())
+                    : name;
+            target.put(mergedName, entry.getValue());
+            added.computeIfAbsent(hash, key -> new ArrayList<>()).add(mergedName);
+            if (!mergedName.equals(name)) renames.put(name, mergedName);
+        }
+        added.forEach((hash, names) -> schemasByHash.computeIfAbsent(hash, key -> new ArrayList<>()).addAll(names));
+        return renames;
+    }
+
+    // SHA-256 канонического JSON модели (поля по алфавиту), где $ref заменён хэшем целевой модели
+    private String structuralHash(String name, Map<String, JsonNode> trees, Map<String, String> hashes,
+                                  Set<String> inProgress) {
+        String cached = hashes.get(name);
+        if (cached != null) return cached;
+
+        MessageDigest digest = sha256();
+        inProgress.add(name);
+        updateDigest(digest, trees.get(name), trees, hashes, inProgress);
+        inProgress.remove(name);
+
+        String hash = HexFormat.of().formatHex(digest.digest());
+        hashes.put(name, hash);
+        return hash;
+    }
+
+    private void updateDigest(MessageDigest digest, JsonNode node, Map<String, JsonNode> trees,
+                              Map<String, String> hashes, Set<String> inProgress) {
+        if (node.isObject()) {
+            List<String> fields = new ArrayList<>();
+            node.fieldNames().forEachRemaining(fields::add);
+            Collections.sort(fields);
+            digest.update((byte) '{');
+            for (String field : fields) {
+                update(digest, field);
+                JsonNode value = node.get(field);
+                String ref = "$ref".equals(field) && value.isTextual() ? localSchemaName(value.asText(), trees) : null;
+                if (ref == null) {
+                    updateDigest(digest, value, trees, hashes, inProgress);
+                } else if (inProgress.contains(ref)) {
+                    // Рекурсивная модель: по кругу хэш не посчитать, хватает имени
+                    update(digest, "cycle:" + ref);
+                } else {
+                    update(digest, "ref:" + structuralHash(ref, trees, hashes, inProgress));
+                }
+            }
+            digest.update((byte) '}');
+        } else if (node.isArray()) {
+            digest.update((byte) '[');
+            for (JsonNode element : node) {
+                updateDigest(digest, element, trees, hashes, inProgress);
+            }
+            digest.update((byte) ']');
+        } else {
+            update(digest, node.toString());
+        }
+    }
+
+    private static String localSchemaName(String ref, Map<String, JsonNode> trees) {
+        if (!ref.startsWith(CompiledSpec.SCHEMA_REF_PREFIX)) return null;
+        String name = ref.substring(CompiledSpec.SCHEMA_REF_PREFIX.length());
+        return trees.containsKey(name) ? name : null;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    // === ПЕРЕПИСЫВАНИЕ ССЫЛОК ===
+    private void rewriteRefs(OpenApiSpec spec, Map<String, String> renames) {
+        if (renames.isEmpty()) return;
+        Set<OpenApiSpec.Schema> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        if (spec.getComponents() != null && spec.getComponents().getSchemas() != null) {
+            for (OpenApiSpec.Schema schema : spec.getComponents().getSchemas().values()) {
+                rewriteRefs(schema, renames, visited);
+            }
+        }
+        if (spec.getPaths() == null) return;
+        for (OpenApiSpec.Path path : spec.getPaths().values()) {
+            Map<String, OpenApiSpec.Operation> operations = path != null ? path.getAllOperations() : null;
+            if (operations == null) continue;
+            for (OpenApiSpec.Operation operation : operations.values()) {
+                if (operation == null) continue;
+                if (operation.getParameters() != null) {
+                    for (OpenApiSpec.Parameter parameter : operation.getParameters()) {
+                        if (parameter != null) rewriteRefs(parameter.getSchema(), renames, visited);
+                    }
+                }
+                if (operation.getRequestBody() != null) {
+                    rewriteContentRefs(operation.getRequestBody().getContent(), renames, visited);
+                }
+                if (operation.getResponses() != null) {
+                    for (OpenApiSpec.Response response : operation.getResponses().values()) {
+                        if (response != null) rewriteContentRefs(response.getContent(), renames, visited);
+                    }
+                }
+            }
+        }
+    }
+
+    private void rewriteContentRefs(Map<String, OpenApiSpec.MediaType> content, Map<String, String> renames,
+                                    Set<OpenApiSpec.Schema> visited) {
+        if (content == null) return;
+        for (OpenApiSpec.MediaType mediaType : content.values()) {
+            if (mediaType != null) rewriteRefs(mediaType.getSchema(), renames, visited);
+        }
+    }
+
+    private void rewriteRefs(OpenApiSpec.Schema schema, Map<String, String> renames, Set<OpenApiSpec.Schema> visited) {
+        if (schema == null || !visited.add(schema)) return;
+
+        String ref = schema.getRef();
+        if (ref != null && ref.startsWith(CompiledSpec.SCHEMA_REF_PREFIX)) {
+            String renamed = renames.get(ref.substring(CompiledSpec.SCHEMA_REF_PREFIX.length()));
+            if (renamed != null) schema.setRef(CompiledSpec.SCHEMA_REF_PREFIX + renamed);
+        }
+
+        rewriteRefs(schema.getItems(), renames, visited);
+        rewriteRefs(schema.getAdditionalProperties(), renames, visited);
+        rewriteRefs(schema.getNot(), renames, visited);
+        if (schema.getProperties() != null) {
+            for (OpenApiSpec.Schema property : schema.getProperties().values()) {
+                rewriteRefs(property, renames, visited);
+            }
+        }
+        for (List<OpenApiSpec.Schema> composed : Arrays.asList(schema.getAllOf(), schema.getOneOf(), schema.getAnyOf())) {
+            if (composed == null) continue;
+            for (OpenApiSpec.Schema part : composed) {
+                rewriteRefs(part, renames, visited);
+            }
+        }
+    }
+
+    // === ИМЕНА ===
+    private static String serviceName(OpenApiSpec spec) {
+        String title = spec.getInfo() != null ? spec.getInfo().getTitle() : null;
+        return title != null && !title.trim().isEmpty() ? title.trim() : "API";
+    }
+
+    private static String uniqueName(String name, Set<String> taken) {
+        String candidate = name;
+        for (int i = 2; taken.contains(candidate); i++) {
+            candidate = name + " " + i;
+        }
+        return candidate;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    // Вычисляемые геттеры Path дублируют поля get/put/... - при копировании их не переносим
+    @JsonIgnoreProperties(value = {"allOperations", "operations"}, ignoreUnknown = true)
+    private abstract static class PathCopyMixin {
+    }
+}
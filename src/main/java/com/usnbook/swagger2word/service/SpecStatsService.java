@@ -0,0 +1,306 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.model.CompiledSpec;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.*;
+
+/**
+ * Статистика спецификации без рендера: операции по тегам, операции без тегов, модели, самая длинная
+ * цепочка $ref и самые большие модели. Для оценки нагрузки и проверок перед генерацией.
+ * <p>
+ * Спецификация берётся через {@link ApiDocsService}, скомпилированное представление - из
+ * {@link SpecCacheService#compiled}, общего с рендером. Результат запоминается по хэшу содержимого, а для URL -
+ * ETag / Last-Modified последнего ответа: повторный запрос к неизменившейся спецификации - условный GET,
+ * ответ 304 без тела, разбора и хэширования. Если сервер валидаторов не отдаёт, спецификация скачивается
+ * целиком и статистика находится по хэшу.
+ */
+@Service
+public class SpecStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpecStatsService.class);
+
+    private static final int LARGEST_SCHEMAS = 10;
+
+    @Value("${app.spec-stats.cache-size:64}")
+    private int cacheSize;
+
+    private final ApiDocsService apiDocsService;
+    private final SpecCacheService specCacheService;
+
+    // хэш содержимого -> статистика, вытесняется давно не запрошенная
+    private final Map<String, SpecStats> cache = lru();
+    // URL -> валидаторы последнего ответа для условного запроса
+    private final Map<String, Validators> validators = lru();
+
+    private record Validators(String etag, String lastModified, String contentHash) {
+    }
+
+    public SpecStatsService(ApiDocsService apiDocsService, SpecCacheService specCacheService) {
+        this.apiDocsService = apiDocsService;
+        this.specCacheService = specCacheService;
+    }
+
+    public Mono<SpecStats> stats(String url) {
+        Validators previous = validators.get(url);
+        SpecStats cached = previous != null ? cache.get(previous.contentHash()) : null;
+        if (cached == null) {
+            return apiDocsService.fetchSpec(url)
+                    .publishOn(Schedulers.boundedElastic())
+                    .map(fetched -> stats(url, fetched));
+        }
+
+        // Пустой ответ - 304: спецификация не изменилась
+        return apiDocsService.fetchIfChanged(url, previous.etag(), previous.lastModified())
+                .publishOn(Schedulers.boundedElastic())
+                .map(fetched -> stats(url, fetched))
+                .defaultIfEmpty(cached)
+                .onErrorResume(e -> e.getCause() instanceof UpstreamGuard.CircuitOpenException, e -> {
+                    logger.warn("{} - serving last computed stats for {}", e.getCause().getMessage(), url);
+                    return Mono.just(cached);
+                });
+    }
+
+    private SpecStats stats(String url, ApiDocsService.FetchedSpec fetched) {
+        SpecStats stats = stats(fetched);
+        if (fetched.contentHash() != null && (fetched.etag() != null || fetched.lastModified() != null)) {
+            validators.put(url, new Validators(fetched.etag(), fetched.lastModified(), fetched.contentHash()));
+        } else {
+            validators.remove(url);
+        }
+        return stats;
+    }
+
+    SpecStats stats(ApiDocsService.FetchedSpec fetched) {
+        String hash = fetched.contentHash();
+        SpecStats cached = hash != null ? cache.get(hash) : null;
+        if (cached != null) return cached;
+
+        long start = System.nanoTime();
+        // Стоимость - по исходной спецификации, как её оценивают полосы рендера
+        SpecStats stats = compute(specCacheService.compiled(fetched), hash, RenderCost.of(fetched.spec()).cost());
+        logger.debug("Computed stats for {} operations and {} schemas in {} ms", stats.operations(),
+                stats.schemas().total(), (System.nanoTime() - start) / 1_000_000);
+        if (hash != null) cache.put(hash, stats);
+        return stats;
+    }
+
+    // Вытесняется давно не запрошенная запись
+    private <V> Map<String, V> lru() {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > Math.max(1, cacheSize);
+            }
+        });
+    }
+
+    static SpecStats compute(CompiledSpec spec, String contentHash, long renderCost) {
+        CompiledSpec.OperationEntry[] operations = spec.getOperations();
+
+        // === ОПЕРАЦИИ И ТЕГИ ===
+        // Сначала объявленные теги в порядке спецификации, затем встреченные только в операциях
+        Map<String, int[]> tagCounts = new LinkedHashMap<>();
+        Set<String> declaredTags = new HashSet<>(Arrays.asList(spec.getSpecTags()));
+        for (String tag : spec.getSpecTags()) {
+            tagCounts.put(tag, new int[1]);
+        }
+
+        List<String> untagged = new ArrayList<>();
+        int deprecated = 0;
+        for (CompiledSpec.OperationEntry entry : operations) {
+            if (entry.deprecated()) deprecated++;
+            if (entry.tags().length == 0) {
+                untagged.add(entry.method() + " " + entry.path());
+            }
+            for (String tag : entry.tags()) {
+                tagCounts.computeIfAbsent(tag, key -> new int[1])[0]++;
+            }
+        }
+
+        List<TagStats> tags = new ArrayList<>(tagCounts.size());
+        for (Map.Entry<String, int[]> tag : tagCounts.entrySet()) {
+            tags.add(new TagStats(tag.getKey(), tag.getValue()[0], declaredTags.contains(tag.getKey())));
+        }
+
+        // === МОДЕЛИ ===
+        CompiledSpec.SchemaEntry[] schemas = spec.getSchemas();
+        int referenced = SchemaReachability.reachableSchemas(Arrays.asList(operations), spec).size();
+
+        List<SchemaSize> largest = new ArrayList<>(schemas.length);
+        for (CompiledSpec.SchemaEntry entry : schemas) {
+            int required = 0;
+            for (boolean isRequired : entry.requiredProperties()) {
+                if (isRequired) required++;
+            }
+            largest.add(new SchemaSize(entry.name(), entry.propertyNames().length, required));
+        }
+        largest.sort(Comparator.comparingInt(SchemaSize::properties).reversed().thenComparing(SchemaSize::name));
+
+        SchemaStats schemaStats = new SchemaStats(schemas.length, referenced, schemas.length - referenced,
+                new RefChains(spec).deepest(),
+                List.copyOf(largest.subList(0, Math.min(LARGEST_SCHEMAS, largest.size()))));
+
+        return new SpecStats(
+                spec.getInfo() != null ? spec.getInfo().getTitle() : null,
+                spec.getInfo() != null ? spec.getInfo().getVersion() : null,
+                spec.getOpenapi(),
+                contentHash,
+                spec.getPaths().length,
+                operations.length,
+                operations.length - untagged.size(),
+                untagged.size(),
+                deprecated,
+                renderCost,
+                List.copyOf(tags),
+                List.copyOf(untagged),
+                schemaStats);
+    }
+
+    // === ЦЕПОЧКИ $REF ===
+    /**
+     * Самая длинная цепочка моделей, где каждая ссылается на следующую через свойства, items,
+     * additionalProperties или allOf/oneOf/anyOf. Модель в цепочке не повторяется: обратная ссылка
+     * на модель выше по цепочке (рекурсия) обрывает её. Длина для каждой модели считается один раз.
+     */
+    private static final class RefChains {
+
+        private final CompiledSpec spec;
+        private final Map<String, List<String>> references = new HashMap<>();
+        private final Map<String, Integer> depth = new HashMap<>();
+        private final Map<String, String> next = new HashMap<>();
+        private final Set<String> onChain = new HashSet<>();
+
+        RefChains(CompiledSpec spec) {
+            this.spec = spec;
+        }
+
+        List<String> deepest() {
+            String head = null;
+            int headDepth = 0;
+            for (CompiledSpec.SchemaEntry entry : spec.getSchemas()) {
+                int entryDepth = depth(entry.name());
+                if (entryDepth > headDepth) {
+                    head = entry.name();
+                    headDepth = entryDepth;
+                }
+            }
+
+            List<String> chain = new ArrayList<>(headDepth);
+            for (String name = head; name != null; name = next.get(name)) {
+                chain.add(name);
+            }
+            return List.copyOf(chain);
+        }
+
+        private int depth(String name) {
+            Integer known = depth.get(name);
+            if (known != null) return known;
+
+            onChain.add(name);
+            int best = 0;
+            String bestNext = null;
+            for (String target : references(name)) {
+                if (onChain.contains(target)) continue;
+                int targetDepth = depth(target);
+                if (targetDepth > best) {
+                    best = targetDepth;
+                    bestNext = target;
+                }
+            }
+            onChain.remove(name);
+
+            depth.put(name, best + 1);
+            if (bestNext != null) next.put(name, bestNext);
+            return best + 1;
+        }
+
+        // Модели, на которые ссылается тело модели (без захода внутрь других моделей), в порядке обхода
+        private List<String> references(String name) {
+            List<String> cached = references.get(name);
+            if (cached != null) return cached;
+
+            Set<String> targets = new LinkedHashSet<>();
+            CompiledSpec.SchemaEntry entry = spec.findSchema(name);
+            Deque<OpenApiSpec.Schema> pending = new ArrayDeque<>();
+            Set<OpenApiSpec.Schema> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            if (entry != null && entry.schema() != null) pending.push(entry.schema());
+            while (!pending.isEmpty()) {
+                OpenApiSpec.Schema schema = pending.pop();
+                if (!seen.add(schema)) continue;
+
+                CompiledSpec.SchemaEntry target = spec.resolveRef(schema.getRef());
+                if (target != null) {
+                    targets.add(target.name());
+                    continue;
+                }
+                pushAll(pending, schema.getItems(), schema.getAdditionalProperties(), schema.getNot());
+                pushAll(pending, schema.getAllOf());
+                pushAll(pending, schema.getOneOf());
+                pushAll(pending, schema.getAnyOf());
+                if (schema.getProperties() != null) pushAll(pending, schema.getProperties().values());
+            }
+
+            List<String> result = List.copyOf(targets);
+            references.put(name, result);
+            return result;
+        }
+
+        private static void pushAll(Deque<OpenApiSpec.Schema> pending, OpenApiSpec.Schema... schemas) {
+            pushAll(pending, Arrays.asList(schemas));
+        }
+
+        private static void pushAll(Deque<OpenApiSpec.Schema> pending, Collection<OpenApiSpec.Schema> schemas) {
+            if (schemas == null) return;
+            for (OpenApiSpec.Schema schema : schemas) {
+                if (schema != null) pending.push(schema);
+            }
+        }
+    }
+
+    // === РЕЗУЛЬТАТ ===
+    /**
+     * Статистика спецификации. {@code renderCost} - оценка стоимости рендера, по которой выбирается
+     * очередь рендера (см. {@link RenderLanes}).
+     */
+    public record SpecStats(String title,
+                            String version,
+                            String openapi,
+                            String contentHash,
+                            int paths,
+                            int operations,
+                            int taggedOperations,
+                            int untaggedOperations,
+                            int deprecatedOperations,
+                            long renderCost,
+                            List<TagStats> tags,
+                            List<String> untagged,
+                            SchemaStats schemas) {
+    }
+
+    /**
+     * {@code declared} - тег описан в разделе tags спецификации, а не только указан у операций.
+     */
+    public record TagStats(String name, int operations, boolean declared) {
+    }
+
+    /**
+     * {@code referenced} - модели, достижимые по ссылкам из операций; {@code deepestRefChain} - имена
+     * моделей самой длинной цепочки $ref от начала к концу.
+     */
+    public record SchemaStats(int total,
+                              int referenced,
+                              int unreferenced,
+                              List<String> deepestRefChain,
+                              List<SchemaSize> largest) {
+    }
+
+    public record SchemaSize(String name, int properties, int required) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.usnbook.swagger2word.service;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Проверка URL источника спецификации - одна для всех эндпоинтов и фонового опроса.
+ * <p>
+ * Спецификации загружаются WebClient'ом, поэтому кроме синтаксиса проверяется и схема: только http и https.
+ */
+public final class SpecUrls {
+
+    public enum Problem {
+        MISSING,
+        MALFORMED;
+
+        // Текст для ответа API - как у остальных ошибок контроллеров
+        public String message(String url) {
+            return this == MISSING ? "URL parameter is required" : "Invalid URL format: " + url;
+        }
+    }
+
+    private SpecUrls() {
+    }
+
+    /**
+     * Что не так с {@code url}; пусто - URL годится для загрузки спецификации.
+     */
+    public static Optional<Problem> check(String url) {
+        if (url == null || url.trim().isEmpty()) return Optional.of(Problem.MISSING);
+        try {
+            String protocol = new URL(url).getProtocol().toLowerCase(Locale.ROOT);
+            return "http".equals(protocol) || "https".equals(protocol)
+                    ? Optional.empty()
+                    : Optional.of(Problem.MALFORMED);
+        } catch (MalformedURLException e) {
+            return Optional.of(Problem.MALFORMED);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.config.WatchProperties;
+import com.usnbook.swagger2word.model.RenderOptions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Фоновый опрос зарегистрированных спецификаций и заблаговременный рендер Word-документа.
+ * <p>
+ * Каждая спецификация опрашивается условным запросом (ETag / Last-Modified); документ перерисовывается,
+ * только если изменился хэш содержимого. Первый опрос распределён случайно по интервалу, следующие сдвинуты
+ * на ±{@code jitter}, а одновременно работают не больше {@code maxConcurrency} опросов - сотни спецификаций
+ * не приходят к источникам одной волной. Следующий опрос планируется только после завершения текущего.
+ * <p>
+ * После перезагрузки корпоративного шаблона прежний документ не отдаётся, а следующий опрос запрашивает
+ * спецификацию целиком, без условных заголовков, и собирает документ заново.
+ * <p>
+ * Версия с ошибками проверки ({@link SpecLinter}) заранее не собирается, а прежний документ снимается:
+ * готовый файл отдаётся без проверки, и строгий режим не должен обходиться через него.
+ */
+@Service
+public class SpecWatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpecWatchService.class);
+
+    private final ApiDocsService apiDocsService;
+    private final WordDocumentService wordDocumentService;
+    private final WatchProperties properties;
+    private final RenderCoordinator renderCoordinator;
+    private final RenderLanes renderLanes;
+    private final UpstreamGuard upstreamGuard;
+    private final SpecLinter specLinter;
+    private final DocxTemplateService templateService;
+
+    private final Map<String, WatchedSpec> watched = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService workers;
+
+    public SpecWatchService(ApiDocsService apiDocsService, WordDocumentService wordDocumentService,
+                            WatchProperties properties, RenderCoordinator renderCoordinator,
+                            RenderLanes renderLanes, UpstreamGuard upstreamGuard, SpecLinter specLinter,
+                            DocxTemplateService templateService) {
+        this.apiDocsService = apiDocsService;
+        this.wordDocumentService = wordDocumentService;
+        this.properties = properties;
+        this.renderCoordinator = renderCoordinator;
+        this.renderLanes = renderLanes;
+        this.upstreamGuard = upstreamGuard;
+        this.specLinter = specLinter;
+        this.templateService = templateService;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("spec-watch-scheduler"));
+        workers = Executors.newFixedThreadPool(Math.max(1, properties.getMaxConcurrency()), daemonThreads("spec-watch-"));
+
+        for (WatchProperties.Spec spec : properties.getSpecs()) {
+            try {
+                register(spec.getUrl(), spec.getInterval());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping watched spec from configuration: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Регистрирует URL (или меняет интервал уже зарегистрированного). Интервал null - значение по умолчанию.
+     */
+    public WatchedSpec register(String url, Duration interval) {
+        Optional<SpecUrls.Problem> problem = SpecUrls.check(url);
+        if (problem.isPresent()) {
+            throw new IllegalArgumentException(problem.get() == SpecUrls.Problem.MISSING
+                    ? "URL спецификации не задан"
+                    : "Некорректный URL: " + url);
+        }
+
+        Duration effective = interval != null ? interval : properties.getDefaultInterval();
+        if (effective.compareTo(properties.getMinInterval()) < 0) {
+            throw new IllegalArgumentException("Интервал опроса меньше допустимого " + properties.getMinInterval());
+        }
+
+        WatchedSpec spec = new WatchedSpec(url, effective);
+        WatchedSpec previous = watched.put(url, spec);
+        if (previous != null) {
+            // Уже собранный документ остаётся актуальным до первого опроса с новым интервалом. Под замком
+            // предшественника: его рендер либо успевает опубликовать документ до передачи, либо отдаёт его преемнику
+            synchronized (previous) {
+                previous.cancel();
+                spec.inheritState(previous);
+            }
+        }
+
+        schedule(spec, ThreadLocalRandom.current().nextLong(effective.toMillis()));
+        logger.info("Watching API docs at {} every {}", url, effective);
+        return spec;
+    }
+
+    public boolean unregister(String url) {
+        WatchedSpec spec = watched.remove(url);
+        if (spec == null) return false;
+
+        spec.cancel();
+        deleteArtifact(spec.prebuiltFile);
+        logger.info("Stopped watching API docs at {}", url);
+        return true;
+    }
+
+    public Collection<WatchedSpec> getWatchedSpecs() {
+        return Collections.unmodifiableCollection(watched.values());
+    }
+
+    /**
+     * Заранее собранный документ с параметрами по умолчанию, если URL опрашивается и рендер уже был
+     * с текущим шаблоном.
+     */
+    public Optional<Path> findPrebuilt(String url) {
+        WatchedSpec spec = url != null ? watched.get(url) : null;
+        if (spec == null || !templateService.getFingerprint().equals(spec.template)) return Optional.empty();
+        return Optional.ofNullable(spec.prebuiltFile);
+    }
+
+    // === ПЛАНИРОВАНИЕ ===
+    private void schedule(WatchedSpec spec, long delayMillis) {
+        if (spec.cancelled || scheduler.isShutdown()) return;
+        spec.future = scheduler.schedule(() -> workers.execute(() -> poll(spec)), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private long jittered(Duration interval) {
+        double jitter = Math.min(Math.max(properties.getJitter(), 0), 1);
+        double factor = 1 + jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1);
+        return Math.max(1, (long) (interval.toMillis() * factor));
+    }
+
+    private void poll(WatchedSpec spec) {
+        try {
+            // Документ собран со старым шаблоном - нужна вся спецификация, а не ответ 304
+            String template = templateService.getFingerprint();
+            boolean templateChanged = spec.prebuiltFile != null && !template.equals(spec.template);
+            // Ждём не меньше, чем могут занять все повторы запроса, - иначе они обрываются на первой попытке
+            ApiDocsService.FetchedSpec fetched = apiDocsService
+                    .fetchIfChanged(spec.url, templateChanged ? null : spec.etag,
+                            templateChanged ? null : spec.lastModified)
+                    .block(upstreamGuard.maxCallDuration().plusSeconds(1));
+
+            if (fetched == null) {
+                logger.debug("API docs not modified: {}", spec.url);
+            } else {
+                spec.etag = fetched.etag();
+                spec.lastModified = fetched.lastModified();
+                if (!fetched.contentHash().equals(spec.contentHash) || spec.prebuiltFile == null || templateChanged) {
+                    render(spec, fetched, template);
+                }
+            }
+            spec.lastError = null;
+        } catch (Exception e) {
+            spec.lastError = e.getMessage();
+            logger.warn("Polling API docs at {} failed: {}", spec.url, e.getMessage());
+        } finally {
+            spec.lastChecked = Instant.now();
+            schedule(spec, jittered(spec.interval));
+        }
+    }
+
+    private void render(WatchedSpec spec, ApiDocsService.FetchedSpec fetched, String template) throws Exception {
+        SpecLinter.LintReport report = specLinter.check(fetched.spec(), false);
+        if (report.hasErrors()) {
+            // Строгий запрос такую версию отклонит - устаревший документ тоже отдавать нельзя
+            Path previous = spec.prebuiltFile;
+            spec.prebuiltFile = null;
+            spec.contentHash = fetched.contentHash();
+            deleteArtifact(previous);
+            throw new SpecLinter.LintFailedException(report);
+        }
+
+        long start = System.nanoTime();
+        RenderOptions options = RenderOptions.defaults();
+        // Фоновый рендер встаёт в те же полосы, что и запросы пользователей, и не отнимает у них потоки
+        Path file = Paths.get(renderCoordinator.render(fetched.contentHash(), options,
+                job -> renderLanes.submit(fetched.spec(), job),
+                () -> wordDocumentService.generateWordDocument(fetched, options)).block());
+        if (!publish(spec, null, file, fetched, template)) {
+            // Спецификацию перерегистрировали, пока шёл рендер: документ и валидаторы переходят преемнику,
+            // иначе он отдавал бы прежний документ до следующего изменения. Сняли с опроса - документ не нужен
+            WatchedSpec successor = watched.get(spec.url);
+            if (successor == null || !publish(successor, spec, file, fetched, template)) {
+                // Имя файла - хэш содержимого: преемник мог собрать тот же файл сам
+                if (successor == null || !file.equals(successor.prebuiltFile)) deleteArtifact(file);
+                return;
+            }
+        }
+
+        logger.info("Pre-rendered document for {} in {} ms: {}", spec.url,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), file.getFileName());
+    }
+
+    /**
+     * Делает {@code file} документом {@code target}; false, если {@code target} уже сняли с опроса или
+     * перерегистрировали. Документ предшественника ({@code from}) принимается, только если {@code target}
+     * ещё не собрал свой.
+     */
+    private boolean publish(WatchedSpec target, WatchedSpec from, Path file, ApiDocsService.FetchedSpec fetched,
+                            String template) {
+        Path previous;
+        synchronized (target) {
+            if (target.cancelled) return false;
+            if (from != null && target.prebuiltFile != from.prebuiltFile) return false;
+
+            previous = target.prebuiltFile;
+            target.prebuiltFile = file;
+            target.contentHash = fetched.contentHash();
+            target.etag = fetched.etag();
+            target.lastModified = fetched.lastModified();
+            target.template = template;
+            target.lastRendered = Instant.now();
+        }
+        if (previous != null && !previous.equals(file)) {
+            deleteArtifact(previous);
+        }
+        return true;
+    }
+
+    // Файлы в общем каталоге могут отдавать другие узлы - там их не удаляем
+    private void deleteArtifact(Path file) {
+        if (file == null || renderCoordinator.isShared()) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Состояние опроса одной спецификации. Поля меняет рабочий поток её опроса; документ и валидаторы
+     * публикуются под замком спецификации - их может передать и рендер предшественника при перерегистрации.
+     */
+    public static final class WatchedSpec {
+
+        private final String url;
+        private final Duration interval;
+
+        private volatile String etag;
+        private volatile String lastModified;
+        private volatile String contentHash;
+        private volatile Path prebuiltFile;
+        // Отпечаток шаблона, с которым собран prebuiltFile
+        private volatile String template;
+        private volatile Instant lastChecked;
+        private volatile Instant lastRendered;
+        private volatile String lastError;
+
+        private volatile boolean cancelled;
+        private volatile ScheduledFuture<?> future;
+
+        private WatchedSpec(String url, Duration interval) {
+            this.url = url;
+            this.interval = interval;
+        }
+
+        private void inheritState(WatchedSpec previous) {
+            this.etag = previous.etag;
+            this.lastModified = previous.lastModified;
+            this.contentHash = previous.contentHash;
+            this.prebuiltFile = previous.prebuiltFile;
+            this.template = previous.template;
+            this.lastChecked = previous.lastChecked;
+            this.lastRendered = previous.lastRendered;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> scheduled = future;
+            if (scheduled != null) scheduled.cancel(false);
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public Instant getLastChecked() {
+            return lastChecked;
+        }
+
+        public Instant getLastRendered() {
+            return lastRendered;
+        }
+
+        public String getLastError() {
+            return lastError;
+        }
+
+        public boolean isPrebuilt() {
+            return prebuiltFile != null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.model.CompiledSpec;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+import com.usnbook.swagger2word.model.RenderOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Лёгкие текстовые форматы для предпросмотра в браузере и публикации в вики: HTML и Markdown.
+ * Используют тот же конвейер, что и Word, но пишут документ потоком в переданный {@link Writer} (у контроллера -
+ * прямо в ответ), без файла на диске и без буфера со всем документом.
+ */
+@Service
+public class TextDocumentService {
+
+    public static final String FORMAT_HTML = "html";
+    public static final String FORMAT_MARKDOWN = "md";
+
+    private static final Logger logger = LoggerFactory.getLogger(TextDocumentService.class);
+
+    private final SpecCompiler specCompiler;
+    private final SpecCacheService specCacheService;
+    private final DocumentPipeline documentPipeline;
+
+    public TextDocumentService(SpecCompiler specCompiler, SpecCacheService specCacheService,
+                               DocumentPipeline documentPipeline) {
+        this.specCompiler = specCompiler;
+        this.specCacheService = specCacheService;
+        this.documentPipeline = documentPipeline;
+    }
+
+    public static boolean isSupported(String format) {
+        String normalized = normalize(format);
+        return FORMAT_HTML.equals(normalized) || FORMAT_MARKDOWN.equals(normalized);
+    }
+
+    public void render(OpenApiSpec apiSpec, RenderOptions options, String format, Writer out) throws IOException {
+        if (apiSpec == null || apiSpec.getInfo() == null) {
+            throw new IllegalArgumentException("Информация об API отсутствует");
+        }
+        render(specCompiler.compile(apiSpec), options, format, out);
+    }
+
+    /**
+     * Загруженная версия: скомпилированная спецификация берётся из кэша по хэшу содержимого.
+     */
+    public void render(ApiDocsService.FetchedSpec fetched, RenderOptions options, String format, Writer out)
+            throws IOException {
+        if (fetched.spec() == null || fetched.spec().getInfo() == null) {
+            throw new IllegalArgumentException("Информация об API отсутствует");
+        }
+        render(specCacheService.compiled(fetched), options, format, out);
+    }
+
+    public void render(CompiledSpec spec, RenderOptions options, String format, Writer out) throws IOException {
+        DocumentRenderer renderer = switch (normalize(format)) {
+            case FORMAT_HTML -> new HtmlDocumentRenderer(out);
+            case FORMAT_MARKDOWN -> new MarkdownDocumentRenderer(out);
+            default -> throw new IllegalArgumentException("Неподдерживаемый формат: " + format);
+        };
+
+        RenderContext context = documentPipeline.prepare(spec, options);
+        documentPipeline.render(context, renderer);
+        logger.debug("Rendered {} document for API: {}", format, spec.getInfo().getTitle());
+    }
+
+    private static String normalize(String format) {
+        if (format == null) return "";
+        String normalized = format.trim().toLowerCase(Locale.ROOT);
+        return "markdown".equals(normalized) ? FORMAT_MARKDOWN : normalized;
+    }
+}
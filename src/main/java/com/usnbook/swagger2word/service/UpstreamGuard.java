@@ -0,0 +1,213 @@
+package com.usnbook.swagger2word.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Защита запросов к источникам спецификаций: circuit breaker на каждый хост, ограниченные повторы
+ * с экспоненциальной задержкой и разбросом, и (по желанию) хеджирование медленных GET.
+ * <p>
+ * Breaker размыкается после {@code failure-threshold} неудач подряд и на {@code open-duration} отвечает
+ * {@link CircuitOpenException} без обращения к хосту; затем пропускает один пробный запрос. Неудача -
+ * сетевая ошибка, таймаут попытки, 5xx или 429; ответы 4xx говорят, что хост жив, и не повторяются.
+ * <p>
+ * Хеджирование: если ответа нет дольше {@code percentile} недавних задержек хоста, отправляется второй такой же
+ * запрос и берётся тот, что ответит первым. Ошибка второго запроса исход не решает - его ждёт первый.
+ */
+@Component
+class UpstreamGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamGuard.class);
+
+    @Value("${app.fetch.attempt-timeout:${app.read-timeout:30000}}")
+    private Duration attemptTimeout;
+
+    @Value("${app.fetch.retry.max-retries:2}")
+    private int maxRetries;
+
+    @Value("${app.fetch.retry.min-backoff:200ms}")
+    private Duration minBackoff;
+
+    @Value("${app.fetch.retry.max-backoff:2s}")
+    private Duration maxBackoff;
+
+    @Value("${app.fetch.retry.jitter:0.5}")
+    private double jitter;
+
+    @Value("${app.fetch.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${app.fetch.circuit-breaker.open-duration:30s}")
+    private Duration openDuration;
+
+    @Value("${app.fetch.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${app.fetch.hedging.percentile:0.95}")
+    private double hedgingPercentile;
+
+    @Value("${app.fetch.hedging.min-delay:200ms}")
+    private Duration hedgingMinDelay;
+
+    @Value("${app.fetch.hedging.min-samples:20}")
+    private int hedgingMinSamples;
+
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * {@code attempt} должен быть ленивым (каждая подписка - новый запрос). {@code hedge} - только для
+     * идемпотентных запросов.
+     */
+    <T> Mono<T> call(String host, Mono<T> attempt, boolean hedge) {
+        HostState state = hosts.computeIfAbsent(host, HostState::new);
+        Mono<T> timed = timed(state, attempt.timeout(attemptTimeout));
+
+        return Mono.defer(() -> {
+                    if (!state.tryAcquire(System.nanoTime())) {
+                        return Mono.<T>error(new CircuitOpenException(host));
+                    }
+                    Mono<T> guarded = hedge && hedgingEnabled ? hedged(state, timed) : timed;
+                    return guarded
+                            .doOnSuccess(value -> state.onSuccess())
+                            .doOnError(e -> {
+                                if (isFailure(e)) {
+                                    state.onFailure(System.nanoTime());
+                                } else {
+                                    state.onSuccess();
+                                }
+                            })
+                            .doFinally(signal -> {
+                                if (signal == SignalType.CANCEL) state.onCancel();
+                            });
+                })
+                .retryWhen(Retry.backoff(maxRetries, minBackoff)
+                        .maxBackoff(maxBackoff)
+                        .jitter(jitter)
+                        .filter(UpstreamGuard::isFailure)
+                        .doBeforeRetry(signal -> logger.warn("Retrying request to {} (attempt {}): {}", host,
+                                signal.totalRetries() + 2, signal.failure().toString()))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    /**
+     * Наибольшее время {@link #call} до ответа или ошибки: все попытки по {@code attempt-timeout} и задержки
+     * между ними (каждая не больше {@code max-backoff}). Хедж идёт параллельно попытке и время не добавляет.
+     */
+    Duration maxCallDuration() {
+        return attemptTimeout.multipliedBy(maxRetries + 1L).plus(maxBackoff.multipliedBy(maxRetries));
+    }
+
+    private <T> Mono<T> hedged(HostState state, Mono<T> attempt) {
+        Duration delay = state.hedgeDelay(hedgingPercentile, hedgingMinSamples, hedgingMinDelay);
+        if (delay == null) return attempt;
+
+        Mono<T> hedge = Mono.delay(delay)
+                .doOnNext(tick -> logger.debug("Hedging request to {} after {} ms", state.host, delay.toMillis()))
+                .then(attempt)
+                .onErrorResume(e -> Mono.never());
+        return Mono.firstWithSignal(attempt, hedge);
+    }
+
+    // Задержка только завершившихся попыток: отменённый проигравший хедж её не портит
+    private static <T> Mono<T> timed(HostState state, Mono<T> attempt) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return attempt.doOnSuccess(value -> state.recordLatency(System.nanoTime() - start));
+        });
+    }
+
+    private static boolean isFailure(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return e instanceof WebClientRequestException || e instanceof TimeoutException;
+    }
+
+    /**
+     * Breaker хоста разомкнут - запрос не отправлялся.
+     */
+    static final class CircuitOpenException extends RuntimeException {
+        CircuitOpenException(String host) {
+            super("Источник " + host + " временно недоступен (circuit breaker разомкнут)");
+        }
+    }
+
+    // === СОСТОЯНИЕ ХОСТА ===
+    private final class HostState {
+
+        private static final int LATENCY_WINDOW = 100;
+
+        final String host;
+        private int consecutiveFailures;
+        // 0 - breaker замкнут
+        private long openUntil;
+        private boolean probeInFlight;
+
+        private final long[] latencies = new long[LATENCY_WINDOW];
+        private int latencyCount;
+        private int latencyNext;
+
+        HostState(String host) {
+            this.host = host;
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            if (openUntil == 0) return true;
+            if (now - openUntil < 0 || probeInFlight) return false;
+            probeInFlight = true;
+            return true;
+        }
+
+        synchronized void onSuccess() {
+            if (openUntil != 0) logger.info("Circuit breaker for {} closed", host);
+            consecutiveFailures = 0;
+            openUntil = 0;
+            probeInFlight = false;
+        }
+
+        synchronized void onFailure(long now) {
+            consecutiveFailures++;
+            // Неудачная проба снова размыкает breaker на полный срок
+            if (openUntil != 0 || consecutiveFailures >= failureThreshold) {
+                if (openUntil == 0) {
+                    logger.warn("Circuit breaker for {} opened after {} consecutive failures", host, consecutiveFailures);
+                }
+                openUntil = now + openDuration.toNanos();
+            }
+            probeInFlight = false;
+        }
+
+        synchronized void onCancel() {
+            probeInFlight = false;
+        }
+
+        synchronized void recordLatency(long nanos) {
+            latencies[latencyNext] = nanos;
+            latencyNext = (latencyNext + 1) % LATENCY_WINDOW;
+            latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+        }
+
+        // null - истории ещё мало, хеджировать не по чему
+        synchronized Duration hedgeDelay(double percentile, int minSamples, Duration minDelay) {
+            if (latencyCount < minSamples) return null;
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile * sorted.length) - 1;
+            long nanos = sorted[Math.max(0, Math.min(rank, sorted.length - 1))];
+            return Duration.ofNanos(Math.max(nanos, minDelay.toNanos()));
+        }
+    }
+}
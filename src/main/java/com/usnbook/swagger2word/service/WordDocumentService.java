@@ -1,21 +1,34 @@
 package com.usnbook.swagger2word.service;
 
+import com.usnbook.swagger2word.model.CompiledSpec;
 import com.usnbook.swagger2word.model.OpenApiSpec;
+import com.usnbook.swagger2word.model.RenderOptions;
+import jakarta.annotation.PostConstruct;
+import org.apache.poi.ooxml.POIXMLProperties;
 import org.apache.poi.xwpf.usermodel.*;
 import org.openxmlformats.schemas.wordprocessingml.x2006.main.*;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.math.BigInteger;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 
@@ -25,29 +38,199 @@ public class WordDocumentService {
     @Value("${app.output-directory:./generated-docs}")
     private String outputDirectory;
 
+    // Бюджет одного рендера Word; 0 - соответствующего ограничения нет
+    @Value("${app.render-budget.enabled:true}")
+    private boolean budgetEnabled;
+
+    @Value("${app.render-budget.max-elements:1000000}")
+    private long budgetMaxElements;
+
+    @Value("${app.render-budget.max-document-size:512MB}")
+    private DataSize budgetMaxDocumentSize;
+
+    @Value("${app.render-budget.max-wall-time:5m}")
+    private Duration budgetMaxWallTime;
+
+    @Value("${app.render-budget.max-allocated:16GB}")
+    private DataSize budgetMaxAllocated;
+
+    // summarize - оставшиеся разделы кратко, abort - прервать рендер
+    @Value("${app.render-budget.on-exceeded:summarize}")
+    private String budgetOnExceeded;
+    private RenderBudget.Mode budgetMode;
+
     private static final Logger logger = LoggerFactory.getLogger(ApiDocsService.class);
 
+    // Колонки таблицы свойств модели: Поле / Тип / Обязательное / Описание (twips)
+    private static final int[] SCHEMA_TABLE_GRID = {1500, 2500, 1500, 4000};
+    // Колонки журнала изменений: Изменение / Объект / Подробности (twips)
+    private static final int[] CHANGELOG_TABLE_GRID = {1500, 3500, 4500};
+
+    private static final String DOCUMENTATION_SUFFIX = "_API_Documentation_";
+    private static final String CHANGELOG_SUFFIX = "_API_Changelog_";
+
+    private final DocxTemplateService templateService;
+    private final SpecCompiler specCompiler;
+    private final SpecCacheService specCacheService;
+    private final DocumentPipeline documentPipeline;
+
+    public WordDocumentService(DocxTemplateService templateService, SpecCompiler specCompiler,
+                               SpecCacheService specCacheService, DocumentPipeline documentPipeline) {
+        this.templateService = templateService;
+        this.specCompiler = specCompiler;
+        this.specCacheService = specCacheService;
+        this.documentPipeline = documentPipeline;
+    }
+
+    // Опечатка в on-exceeded должна останавливать запуск, а не каждый рендер
+    @PostConstruct
+    public void init() {
+        try {
+            budgetMode = RenderBudget.Mode.valueOf(budgetOnExceeded.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Недопустимое значение app.render-budget.on-exceeded: '"
+                    + budgetOnExceeded + "' (ожидается summarize или abort)", e);
+        }
+    }
+
     public String generateWordDocument(OpenApiSpec apiSpec) throws Exception {
+        return generateWordDocument(apiSpec, RenderOptions.defaults());
+    }
+
+    public String generateWordDocument(OpenApiSpec apiSpec, RenderOptions options) throws Exception {
+        return generateWordDocument(apiSpec, options, RenderProfile.disabled());
+    }
+
+    public String generateWordDocument(OpenApiSpec apiSpec, RenderOptions options, RenderProfile profile)
+            throws Exception {
+        return generateWordDocument(compile(apiSpec, profile), options, profile, RenderProgress.disabled(), null);
+    }
+
+    /**
+     * Рендер загруженной спецификации: в воспроизводимом режиме дата на титульном листе берётся
+     * из Last-Modified источника (или хэша содержимого), а не из текущего времени.
+     */
+    public String generateWordDocument(ApiDocsService.FetchedSpec fetched, RenderOptions options) throws Exception {
+        return generateWordDocument(fetched, options, RenderProfile.disabled());
+    }
+
+    public String generateWordDocument(ApiDocsService.FetchedSpec fetched, RenderOptions options,
+                                       RenderProfile profile) throws Exception {
+        return generateWordDocument(fetched, options, profile, RenderProgress.disabled());
+    }
+
+    /**
+     * С ходом генерации: группы и модели по мере отрисовки, затем упаковка .docx.
+     */
+    public String generateWordDocument(ApiDocsService.FetchedSpec fetched, RenderOptions options,
+                                       RenderProfile profile, RenderProgress progress) throws Exception {
+        return generateWordDocument(compile(fetched, profile), options, profile, progress, fetched);
+    }
+
+    public String generateWordDocument(CompiledSpec spec, RenderOptions options) throws Exception {
+        return generateWordDocument(spec, options, RenderProfile.disabled());
+    }
+
+    public String generateWordDocument(CompiledSpec spec, RenderOptions options, RenderProfile profile)
+            throws Exception {
+        return generateWordDocument(spec, options, profile, RenderProgress.disabled(), null);
+    }
+
+    /**
+     * Журнал изменений между двумя версиями спецификации: добавленные, удалённые и изменённые операции,
+     * параметры, тела запросов и ответы, модели данных и их свойства.
+     */
+    public String generateChangelogDocument(SpecDiffService.Changelog changelog, ApiDocsService.FetchedSpec from,
+                                            ApiDocsService.FetchedSpec to, RenderOptions options) throws Exception {
+        OpenApiSpec apiSpec = to.spec();
+        if (apiSpec == null || apiSpec.getInfo() == null) {
+            throw new IllegalArgumentException("Информация об API отсутствует");
+        }
+
+        boolean deterministic = options != null && options.isDeterministic();
+        Instant sourceTime = deterministic ? sourceTime(to) : null;
+        RenderBudget budget = renderBudget();
+
+        try (XWPFDocument document = templateService.createDocument()) {
+            addChangelogTitlePage(document, apiSpec, from.spec(), generatedAtText(deterministic, sourceTime, to));
+            addChangelogSummary(document, changelog);
+            addChangelogSection(document, "2. ОПЕРАЦИИ", changelog.getOperations(), budget);
+            addChangelogSection(document, "3. ПАРАМЕТРЫ", changelog.getParameters(), budget);
+            addChangelogSection(document, "4. ТЕЛА ЗАПРОСОВ И ОТВЕТЫ", changelog.getResponses(), budget);
+            addChangelogSection(document, "5. МОДЕЛИ ДАННЫХ", changelog.getSchemas(), budget);
+
+            if (deterministic) {
+                return writeReproducible(document, apiSpec.getInfo().getTitle(), CHANGELOG_SUFFIX, sourceTime);
+            }
+
+            String fileName = generateFileName(apiSpec.getInfo().getTitle(), CHANGELOG_SUFFIX);
+            Path filePath = Paths.get(fileName);
+            Files.createDirectories(filePath.getParent());
+
+            try (FileOutputStream out = new FileOutputStream(filePath.toFile())) {
+                document.write(out);
+            }
+
+            return fileName;
+        }
+    }
+
+    private CompiledSpec compile(OpenApiSpec apiSpec, RenderProfile profile) {
+        validate(apiSpec);
+        try (RenderProfile.Scope ignored = profile.phase("compile")) {
+            return specCompiler.compile(apiSpec);
+        }
+    }
+
+    // Загруженная версия компилируется один раз и берётся из кэша по хэшу содержимого
+    private CompiledSpec compile(ApiDocsService.FetchedSpec fetched, RenderProfile profile) {
+        validate(fetched.spec());
+        try (RenderProfile.Scope ignored = profile.phase("compile")) {
+            return specCacheService.compiled(fetched);
+        }
+    }
+
+    private static void validate(OpenApiSpec apiSpec) {
         if (apiSpec == null) {
             throw new IllegalArgumentException("API спецификация не может быть null");
         }
         if (apiSpec.getInfo() == null) {
             throw new IllegalArgumentException("Информация об API отсутствует");
         }
+    }
+
+    private String generateWordDocument(CompiledSpec spec, RenderOptions options, RenderProfile profile,
+                                        RenderProgress progress, ApiDocsService.FetchedSpec fetched) throws Exception {
+        if (spec == null || spec.getInfo() == null) {
+            throw new IllegalArgumentException("Информация об API отсутствует");
+        }
 
-        try (XWPFDocument document = new XWPFDocument()) {
-            addTitlePage(document, apiSpec);
-            addGeneralInfo(document, apiSpec);
-            addServersSection(document, apiSpec.getServers());
-            addTagsSection(document, apiSpec.getTags());
-            addEndpointsByTags(document, apiSpec);
-            addSchemasSection(document, apiSpec.getComponents());
+        // Время и память считаются с подготовки: фильтры и обход моделей тоже часть рендера
+        RenderBudget budget = renderBudget();
+        RenderContext context = documentPipeline.prepare(spec, options, profile, progress);
+        context.budget = budget;
+        boolean deterministic = context.options.isDeterministic();
+        Instant sourceTime = deterministic ? sourceTime(fetched) : null;
+
+        try (XWPFDocument document = templateService.createDocument()) {
+            String generatedAt = generatedAtText(deterministic, sourceTime, fetched);
+            try (RenderProfile.Scope ignored = profile.phase("render")) {
+                documentPipeline.render(context, new WordRenderer(document, generatedAt));
+            }
+            progress.stage(RenderProgress.PACKAGING);
 
-            String fileName = generateFileName(apiSpec.getInfo().getTitle());
+            if (deterministic) {
+                try (RenderProfile.Scope ignored = profile.phase("document.write")) {
+                    return writeReproducible(document, spec.getInfo().getTitle(), DOCUMENTATION_SUFFIX, sourceTime);
+                }
+            }
+
+            String fileName = generateFileName(spec.getInfo().getTitle(), DOCUMENTATION_SUFFIX);
             Path filePath = Paths.get(fileName);
             Files.createDirectories(filePath.getParent());
 
-            try (FileOutputStream out = new FileOutputStream(filePath.toFile())) {
+            try (RenderProfile.Scope ignored = profile.phase("document.write");
+                 FileOutputStream out = new FileOutputStream(filePath.toFile())) {
                 document.write(out);
             }
 
@@ -55,8 +238,133 @@ public class WordDocumentService {
         }
     }
 
+    private RenderBudget renderBudget() {
+        if (!budgetEnabled) {
+            return RenderBudget.unlimited();
+        }
+        return new RenderBudget(budgetMaxElements, budgetMaxDocumentSize.toBytes(), budgetMaxWallTime,
+                budgetMaxAllocated.toBytes(), budgetMode);
+    }
+
+    // === ВОСПРОИЗВОДИМЫЙ ВЫВОД ===
+    // Имя файла - хэш содержимого: одинаковые байты дают одно имя, повторный рендер просто заменяет файл
+    private String writeReproducible(XWPFDocument document, String apiTitle, String suffix, Instant sourceTime)
+            throws Exception {
+        Instant fixedTime = sourceTime != null ? sourceTime : ReproducibleZip.ENTRY_TIME.toInstant(ZoneOffset.UTC);
+        POIXMLProperties.CoreProperties coreProperties = document.getProperties().getCoreProperties();
+        coreProperties.setCreated(Optional.of(Date.from(fixedTime)));
+        coreProperties.setModified(Optional.of(Date.from(fixedTime)));
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        document.write(buffer);
+        byte[] content = ReproducibleZip.normalize(buffer.toByteArray());
+
+        String fileName = outputDirectory + "/" + safeTitle(apiTitle) + suffix
+                + SpecCacheService.contentHash(content).substring(0, 16) + ".docx";
+        Path filePath = Paths.get(fileName);
+        Files.createDirectories(filePath.getParent());
+
+        // Файл с тем же именем может сейчас отдаваться - подменяем атомарно, читатели дочитают старую копию
+        Path temp = Files.createTempFile(filePath.getParent(), "render-", ".docx.tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, filePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return fileName;
+    }
+
+    // Текущее время, а в воспроизводимом режиме - Last-Modified источника или начало хэша содержимого
+    private static String generatedAtText(boolean deterministic, Instant sourceTime, ApiDocsService.FetchedSpec fetched) {
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss");
+        if (!deterministic) {
+            return LocalDateTime.now().format(format);
+        }
+        if (sourceTime != null) {
+            return sourceTime.atOffset(ZoneOffset.UTC).format(format) + " UTC";
+        }
+        if (fetched != null && fetched.contentHash() != null) {
+            return "спецификация " + fetched.contentHash().substring(0, Math.min(12, fetched.contentHash().length()));
+        }
+        return null;
+    }
+
+    private static Instant sourceTime(ApiDocsService.FetchedSpec fetched) {
+        if (fetched == null || fetched.lastModified() == null) return null;
+        try {
+            return ZonedDateTime.parse(fetched.lastModified(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            logger.debug("Ignoring unparseable Last-Modified: {}", fetched.lastModified());
+            return null;
+        }
+    }
+
+
+    // === РАЗДЕЛЫ WORD-ДОКУМЕНТА ===
+    private class WordRenderer implements DocumentRenderer {
+
+        private final XWPFDocument document;
+        // null - строка "Сгенерировано" на титульном листе не выводится
+        private final String generatedAt;
+
+        WordRenderer(XWPFDocument document, String generatedAt) {
+            this.document = document;
+            this.generatedAt = generatedAt;
+        }
+
+        @Override
+        public void begin(RenderContext context) {
+            if (context.options.isSchemaLinks()) {
+                registerSchemaBookmarks(context);
+            }
+        }
+
+        @Override
+        public void titlePage(RenderContext context) {
+            try (RenderProfile.Scope ignored = context.profile.phase("addTitlePage")) {
+                addTitlePage(document, context.spec, generatedAt);
+            }
+        }
+
+        @Override
+        public void generalInfo(RenderContext context) {
+            try (RenderProfile.Scope ignored = context.profile.phase("addGeneralInfo")) {
+                addGeneralInfo(document, context.spec);
+            }
+        }
+
+        @Override
+        public void servers(RenderContext context, List<OpenApiSpec.Server> servers) {
+            try (RenderProfile.Scope ignored = context.profile.phase("addServersSection")) {
+                addServersSection(document, servers);
+            }
+        }
+
+        @Override
+        public void tags(RenderContext context, List<OpenApiSpec.Tag> tags) {
+            try (RenderProfile.Scope ignored = context.profile.phase("addTagsSection")) {
+                addTagsSection(document, tags, context);
+            }
+        }
+
+        @Override
+        public void endpoints(RenderContext context,
+                              Map<String, List<CompiledSpec.OperationEntry>> groupedOperations) {
+            try (RenderProfile.Scope ignored = context.profile.phase("addEndpointsByTags")) {
+                addEndpointsByTags(document, context, groupedOperations);
+            }
+        }
+
+        @Override
+        public void schemas(RenderContext context, List<CompiledSpec.SchemaEntry> schemas) {
+            try (RenderProfile.Scope ignored = context.profile.phase("addSchemasSection")) {
+                addSchemasSection(document, context, schemas);
+            }
+        }
+    }
 
-    private void addTitlePage(XWPFDocument document, OpenApiSpec apiSpec) {
+    private void addTitlePage(XWPFDocument document, CompiledSpec apiSpec, String generatedAt) {
         XWPFParagraph titleParagraph = document.createParagraph();
         titleParagraph.setAlignment(ParagraphAlignment.CENTER);
         titleParagraph.setSpacingBefore(600);
@@ -115,8 +423,10 @@ public class WordDocumentService {
         metaRun.setColor("666666");
         metaRun.addBreak();
         metaRun.setText("OpenAPI Version: " + (apiSpec.getOpenapi() != null ? apiSpec.getOpenapi() : "N/A"));
-        metaRun.addBreak();
-        metaRun.setText("Сгенерировано: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
+        if (generatedAt != null) {
+            metaRun.addBreak();
+            metaRun.setText("Сгенерировано: " + generatedAt);
+        }
 
         addPageBreak(document);
     }
@@ -174,7 +484,7 @@ public class WordDocumentService {
         licenseRun.setColor("000000");
     }
 
-    private void addGeneralInfo(XWPFDocument document, OpenApiSpec apiSpec) {
+    private void addGeneralInfo(XWPFDocument document, CompiledSpec apiSpec) {
         XWPFParagraph sectionTitle = document.createParagraph();
         sectionTitle.setStyle("Heading1");
         sectionTitle.setSpacingBefore(600);
@@ -265,7 +575,7 @@ public class WordDocumentService {
         }
     }
 
-    private void addTagsSection(XWPFDocument document, List<OpenApiSpec.Tag> tags) {
+    private void addTagsSection(XWPFDocument document, List<OpenApiSpec.Tag> tags, RenderContext context) {
         if (tags != null && !tags.isEmpty()) {
             XWPFParagraph tagsTitle = document.createParagraph();
             tagsTitle.setStyle("Heading2");
@@ -281,8 +591,9 @@ public class WordDocumentService {
 
             int tagNum = 1;
             for (OpenApiSpec.Tag tag : tags) {
+                boolean described = tag.getDescription() != null && !tag.getDescription().isBlank();
                 XWPFParagraph tagParagraph = document.createParagraph();
-                tagParagraph.setSpacingAfter(150);
+                tagParagraph.setSpacingAfter(described ? 30 : 150);
                 tagParagraph.setIndentationLeft(720);
 
                 XWPFRun tagRun = tagParagraph.createRun();
@@ -294,11 +605,9 @@ public class WordDocumentService {
                 tagRun.setBold(true);
                 tagRun.setText(tag.getName());
                 tagRun.setBold(false);
-                tagRun.addBreak();
 
-                if (tag.getDescription() != null) {
-                    tagRun.setText("   " + tag.getDescription());
-                    tagRun.setItalic(true);
+                if (described) {
+                    addDescription(document, tag.getDescription(), 900, 11, true, 150, context);
                 }
 
                 tagNum++;
@@ -308,7 +617,8 @@ public class WordDocumentService {
         }
     }
 
-    private void addEndpointsByTags(XWPFDocument document, OpenApiSpec apiSpec) {
+    private void addEndpointsByTags(XWPFDocument document, RenderContext context,
+                                    Map<String, List<CompiledSpec.OperationEntry>> groupedOperations) {
         XWPFParagraph endpointsTitle = document.createParagraph();
         endpointsTitle.setStyle("Heading1");
         endpointsTitle.setSpacingBefore(600);
@@ -321,254 +631,60 @@ public class WordDocumentService {
         endpointsTitleRun.setFontFamily("Times New Roman");
         endpointsTitleRun.setColor("000000");
 
-        Map<String, OpenApiSpec.Path> allPaths = getAllPaths(apiSpec);
-
-        if (allPaths == null || allPaths.isEmpty()) {
+        if (context.operations.isEmpty()) {
             addEmptyEndpointsMessage(document);
             addSectionSpacing(document);
             return;
         }
 
         // === ДИАГНОСТИКА ===
-        DiagnosticInfo diagnostics = analyzeApiStructure(allPaths);
-        addDiagnosticInfo(document, diagnostics);
-
-        // === ГРУППИРОВКА И ОТОБРАЖЕНИЕ ===
-        Map<String, List<EndpointOperation>> groupedOperations = groupOperationsByTags(allPaths, diagnostics);
-
-        if (!groupedOperations.isEmpty() && hasValidOperations(groupedOperations)) {
-            displayGroupedEndpoints(document, groupedOperations, diagnostics);
-        } else {
-            displayAllEndpointsFallback(document, allPaths, diagnostics);
-        }
-
-        addSectionSpacing(document);
-    }
-
-
-    private Map<String, OpenApiSpec.Path> getAllPaths(OpenApiSpec apiSpec) {
-        Map<String, OpenApiSpec.Path> allPaths = new LinkedHashMap<>();
-
-        Object pathsObject = apiSpec.getPaths();
-
-        if (pathsObject == null) {
-            logger.warn("apiSpec.getPaths() returned null");
-            return allPaths;
-        }
-
-        logger.debug("Paths object type: {}", pathsObject.getClass().getSimpleName());
-
-
-        if (pathsObject instanceof Map) {
-            @SuppressWarnings("unchecked")
-            Map<String, OpenApiSpec.Path> pathsMap = (Map<String, OpenApiSpec.Path>) pathsObject;
-            if (!pathsMap.isEmpty()) {
-                allPaths.putAll(pathsMap);
-                logger.debug("Loaded {} paths from Map", pathsMap.size());
-            }
-        }
-
-        else {
-            try {
-                java.lang.reflect.Method getPathsMethod = pathsObject.getClass().getMethod("getPaths");
-                @SuppressWarnings("unchecked")
-                Map<String, OpenApiSpec.Path> pathsMap = (Map<String, OpenApiSpec.Path>) getPathsMethod.invoke(pathsObject);
-
-                if (pathsMap != null && !pathsMap.isEmpty()) {
-                    allPaths.putAll(pathsMap);
-                    logger.debug("Loaded {} paths from Paths object", pathsMap.size());
-                }
-            } catch (Exception e) {
-                logger.warn("Could not extract paths via reflection: {}", e.getMessage());
-            }
-        }
-
-        if (allPaths.isEmpty()) {
-            logger.warn("No paths found in API specification");
-        }
-
-        return allPaths;
-    }
-
-    private Map<String, OpenApiSpec.Operation> extractOperationsFromPath(OpenApiSpec.Path pathItem) {
-        Map<String, OpenApiSpec.Operation> operations = new LinkedHashMap<>();
-
-        if (pathItem == null) return null;
-
-        try {
-            Map<String, OpenApiSpec.Operation> allOps = pathItem.getAllOperations();
-            if (allOps != null && !allOps.isEmpty()) {
-                operations.putAll(allOps);
-            }
-        } catch (Exception e) {
-
-        }
-
-
-        if (operations.isEmpty()) {
-            try {
-                if (pathItem.getOperations() != null && !pathItem.getOperations().isEmpty()) {
-                    operations.putAll(pathItem.getOperations());
-                }
-            } catch (Exception e) {
-
+        if (context.options.isIncludeDiagnostics()) {
+            DiagnosticInfo diagnostics;
+            try (RenderProfile.Scope ignored = context.profile.phase("analyzeApiStructure")) {
+                diagnostics = analyzeApiStructure(context);
             }
+            addDiagnosticInfo(document, diagnostics);
         }
 
-
-        if (operations.isEmpty()) {
-            try {
-                if (pathItem.getGetOperation() != null) operations.put("get", pathItem.getGetOperation());
-                if (pathItem.getPostOperation() != null) operations.put("post", pathItem.getPostOperation());
-                if (pathItem.getPutOperation() != null) operations.put("put", pathItem.getPutOperation());
-                if (pathItem.getDeleteOperation() != null) operations.put("delete", pathItem.getDeleteOperation());
-                if (pathItem.getPatchOperation() != null) operations.put("patch", pathItem.getPatchOperation());
-            } catch (Exception e) {
-
-            }
+        // === ОТОБРАЖЕНИЕ ПО ГРУППАМ ===
+        if (!groupedOperations.isEmpty()) {
+            displayGroupedEndpoints(document, groupedOperations, context);
+        } else {
+            displayAllEndpointsFallback(document, context);
         }
 
-        return operations.isEmpty() ? null : operations;
+        addSectionSpacing(document);
     }
 
     // === АНАЛИЗ СТРУКТУРЫ API ===
-    private DiagnosticInfo analyzeApiStructure(Map<String, OpenApiSpec.Path> allPaths) {
+    private DiagnosticInfo analyzeApiStructure(RenderContext context) {
         DiagnosticInfo info = new DiagnosticInfo();
 
-        info.totalPaths = allPaths != null ? allPaths.size() : 0;
-
-        if (allPaths != null) {
-            for (Map.Entry<String, OpenApiSpec.Path> pathEntry : allPaths.entrySet()) {
-                String path = pathEntry.getKey();
-                OpenApiSpec.Path pathItem = pathEntry.getValue();
-
-                PathInfo pathInfo = new PathInfo();
-                pathInfo.path = path;
-
-                Map<String, OpenApiSpec.Operation> operations = extractOperationsFromPath(pathItem);
-                pathInfo.operations = operations != null ? operations.size() : 0;
-
-                if (operations != null) {
-                    for (Map.Entry<String, OpenApiSpec.Operation> opEntry : operations.entrySet()) {
-                        OpenApiSpec.Operation operation = opEntry.getValue();
-                        if (operation != null) {
-                            OperationInfo opInfo = new OperationInfo();
-                            opInfo.method = opEntry.getKey() != null ? opEntry.getKey().toUpperCase() : "UNKNOWN";
-                            opInfo.operationId = operation.getOperationId();
-                            opInfo.summary = operation.getSummary();
-
-                            List<String> tags = operation.getTags();
-                            if (tags != null && !tags.isEmpty()) {
-                                opInfo.tags.addAll(tags);
-                                info.totalTaggedOperations++;
-                            } else {
-                                info.totalUntaggedOperations++;
-                            }
-
-                            pathInfo.operationsInfo.add(opInfo);
-                        }
-                    }
-                }
-
+        PathInfo pathInfo = null;
+        for (CompiledSpec.OperationEntry entry : context.operations) {
+            // Операции в IR идут в порядке путей, так что операции одного пути стоят подряд
+            if (pathInfo == null || !pathInfo.path.equals(entry.path())) {
+                pathInfo = new PathInfo();
+                pathInfo.path = entry.path();
                 info.pathInfos.add(pathInfo);
             }
-        }
-
-        return info;
-    }
-
-    // === ГРУППИРОВКА ОПЕРАЦИЙ ПО ТЕГАМ ===
-    private Map<String, List<EndpointOperation>> groupOperationsByTags(Map<String, OpenApiSpec.Path> allPaths,
-                                                                       DiagnosticInfo diagnostics) {
-        Map<String, List<EndpointOperation>> grouped = new LinkedHashMap<>();
-
-        for (PathInfo pathInfo : diagnostics.pathInfos) {
-            OpenApiSpec.Path pathItem = allPaths.get(pathInfo.path);
-            if (pathItem == null) continue;
-
-            Map<String, OpenApiSpec.Operation> operations = extractOperationsFromPath(pathItem);
-            if (operations == null || operations.isEmpty()) continue;
-
-            for (Map.Entry<String, OpenApiSpec.Operation> opEntry : operations.entrySet()) {
-                OpenApiSpec.Operation operation = opEntry.getValue();
-                if (operation == null) continue;
-
-                EndpointOperation endpointOp = new EndpointOperation();
-                endpointOp.path = pathInfo.path;
-                endpointOp.method = opEntry.getKey() != null ? opEntry.getKey().toUpperCase() : "UNKNOWN";
-                endpointOp.operation = operation;
-
-                List<String> opTags = operation.getTags();
-
-                if (opTags != null && !opTags.isEmpty()) {
-                    for (String tag : opTags) {
-                        if (tag != null && !tag.trim().isEmpty()) {
-                            grouped.computeIfAbsent(tag.trim(), k -> new ArrayList<>()).add(endpointOp);
-                        }
-                    }
-                } else {
-
-                    String inferredTag = inferTagFromOperation(operation, diagnostics.specTags);
-                    if (inferredTag != null && !inferredTag.trim().isEmpty()) {
-                        grouped.computeIfAbsent(inferredTag.trim(), k -> new ArrayList<>()).add(endpointOp);
-                    } else {
-                        grouped.computeIfAbsent("Не классифицировано", k -> new ArrayList<>()).add(endpointOp);
-                    }
-                }
-            }
-        }
-
-        return grouped;
-    }
-
-    // === ПРОВЕРКА НА ВАЛИДНЫЕ ОПЕРАЦИИ ===
-    private boolean hasValidOperations(Map<String, List<EndpointOperation>> groupedOperations) {
-        for (List<EndpointOperation> operations : groupedOperations.values()) {
-            if (operations != null && !operations.isEmpty()) {
-                for (EndpointOperation op : operations) {
-                    if (op != null && op.operation != null &&
-                            (op.operation.getOperationId() != null ||
-                                    op.operation.getSummary() != null ||
-                                    op.operation.getParameters() != null ||
-                                    op.operation.getResponses() != null)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
-    // === ОПРЕДЕЛЕНИЕ ТЕГА ПО OPERATIONID ===
-    private String inferTagFromOperation(OpenApiSpec.Operation operation, List<String> availableTags) {
-        String operationId = operation.getOperationId();
-        String summary = operation.getSummary();
-
-        if (operationId != null && !operationId.trim().isEmpty()) {
-            String opIdClean = operationId.toLowerCase().replaceAll("[^a-zа-я0-9]", "");
-
-            for (String tag : availableTags) {
-                if (tag == null) continue;
-                String tagClean = tag.toLowerCase().replaceAll("[^a-zа-я0-9]", "");
-                if (!tagClean.isEmpty() && (opIdClean.contains(tagClean) || tagClean.contains(opIdClean))) {
-                    return tag;
-                }
-            }
-        }
+            pathInfo.operations++;
 
-        if (summary != null && !summary.trim().isEmpty()) {
-            String summaryLower = summary.toLowerCase();
-            for (String tag : availableTags) {
-                if (tag != null && summaryLower.contains(tag.toLowerCase())) {
-                    return tag;
-                }
+            if (entry.tags().length > 0) {
+                info.totalTaggedOperations++;
+            } else {
+                info.totalUntaggedOperations++;
             }
         }
 
-        return null;
+        info.totalPaths = context.operations.size() == context.spec.getOperations().length
+                ? context.spec.getPaths().length : info.pathInfos.size();
+        info.specTags.addAll(Arrays.asList(context.spec.getSpecTags()));
+        info.totalSchemas = context.totalSchemas;
+        info.skippedSchemas = context.skippedSchemas;
+        return info;
     }
 
-
     private void addDiagnosticInfo(XWPFDocument document, DiagnosticInfo diagnostics) {
         XWPFParagraph diagTitle = document.createParagraph();
         diagTitle.setSpacingBefore(100);
@@ -605,6 +721,16 @@ public class WordDocumentService {
         diagRun.setText("  Без тегов: " + diagnostics.totalUntaggedOperations);
         diagRun.addBreak();
 
+        if (diagnostics.skippedSchemas > 0) {
+            diagRun.addBreak();
+            diagRun.setText("МОДЕЛИ ДАННЫХ:");
+            diagRun.addBreak();
+            diagRun.setText("  Всего моделей: " + diagnostics.totalSchemas);
+            diagRun.addBreak();
+            diagRun.setText("  Пропущено (нет ссылок из операций): " + diagnostics.skippedSchemas);
+            diagRun.addBreak();
+        }
+
         diagRun.addBreak();
         diagRun.setText("ТЕГИ ИЗ СПЕЦИФИКАЦИИ (" + diagnostics.specTags.size() + "):");
         for (int i = 0; i < Math.min(5, diagnostics.specTags.size()); i++) {
@@ -632,27 +758,19 @@ public class WordDocumentService {
     }
 
     private void displayGroupedEndpoints(XWPFDocument document,
-                                         Map<String, List<EndpointOperation>> groupedOperations,
-                                         DiagnosticInfo diagnostics) {
-        List<String> sortedGroups = new ArrayList<>(groupedOperations.keySet());
-        Collections.sort(sortedGroups, (a, b) -> {
-            if ("Не классифицировано".equals(a)) return 1;
-            if ("Не классифицировано".equals(b)) return -1;
-            return a.compareToIgnoreCase(b);
-        });
-
+                                         Map<String, List<CompiledSpec.OperationEntry>> groupedOperations,
+                                         RenderContext context) {
         int groupNum = 1;
-        for (String groupName : sortedGroups) {
-            List<EndpointOperation> operations = groupedOperations.get(groupName);
-            if (operations != null && !operations.isEmpty()) {
-                addGroupSection(document, groupNum, groupName, operations);
-                groupNum++;
+        for (Map.Entry<String, List<CompiledSpec.OperationEntry>> group : groupedOperations.entrySet()) {
+            try (RenderProfile.Scope ignored = context.profile.phase("addGroupSection: " + group.getKey())) {
+                addGroupSection(document, groupNum, group.getKey(), group.getValue(), context);
             }
+            context.progress.update(RenderProgress.GROUPS, groupNum, groupedOperations.size());
+            groupNum++;
         }
     }
 
-    private void displayAllEndpointsFallback(XWPFDocument document, Map<String, OpenApiSpec.Path> allPaths,
-                                             DiagnosticInfo diagnostics) {
+    private void displayAllEndpointsFallback(XWPFDocument document, RenderContext context) {
         XWPFParagraph fallbackTitle = document.createParagraph();
         fallbackTitle.setStyle("Heading2");
         fallbackTitle.setSpacingBefore(200);
@@ -677,30 +795,15 @@ public class WordDocumentService {
         fallbackNoteRun.setItalic(true);
 
         int endpointNum = 1;
-        for (PathInfo pathInfo : diagnostics.pathInfos) {
-            OpenApiSpec.Path pathItem = allPaths.get(pathInfo.path);
-            if (pathItem == null) continue;
-
-            Map<String, OpenApiSpec.Operation> operations = extractOperationsFromPath(pathItem);
-            if (operations != null && !operations.isEmpty()) {
-                for (Map.Entry<String, OpenApiSpec.Operation> opEntry : operations.entrySet()) {
-                    OpenApiSpec.Operation operation = opEntry.getValue();
-                    if (operation != null) {
-                        EndpointOperation endpointOp = new EndpointOperation();
-                        endpointOp.path = pathInfo.path;
-                        endpointOp.method = opEntry.getKey() != null ? opEntry.getKey().toUpperCase() : "UNKNOWN";
-                        endpointOp.operation = operation;
-
-                        addEndpointDetails(document, endpointNum, endpointOp);
-                        endpointNum++;
-                    }
-                }
-            }
+        for (CompiledSpec.OperationEntry endpointOp : context.operations) {
+            addEndpointDetails(document, endpointNum, endpointOp, context);
+            context.progress.update(RenderProgress.ENDPOINTS, endpointNum, context.operations.size());
+            endpointNum++;
         }
     }
 
     private void addGroupSection(XWPFDocument document, int groupNum, String groupName,
-                                 List<EndpointOperation> operations) {
+                                 List<CompiledSpec.OperationEntry> operations, RenderContext context) {
         XWPFParagraph groupTitle = document.createParagraph();
         groupTitle.setStyle("Heading2");
         groupTitle.setSpacingBefore(300);
@@ -714,13 +817,19 @@ public class WordDocumentService {
         groupTitleRun.setColor("000000");
 
         int endpointNum = 1;
-        for (EndpointOperation endpointOp : operations) {
-            addEndpointDetails(document, endpointNum, endpointOp);
+        for (CompiledSpec.OperationEntry endpointOp : operations) {
+            addEndpointDetails(document, endpointNum, endpointOp, context);
             endpointNum++;
         }
     }
 
-    private void addEndpointDetails(XWPFDocument document, int endpointNum, EndpointOperation endpointOp) {
+    private void addEndpointDetails(XWPFDocument document, int endpointNum, CompiledSpec.OperationEntry endpointOp,
+                                    RenderContext context) {
+        chargeEndpoint(context, endpointOp);
+        if (context.budget.noticeDue("endpoints")) {
+            addBudgetNotice(document, context.budget, "Далее операции и модели данных приведены кратко.");
+        }
+
         XWPFParagraph endpointTitle = document.createParagraph();
         endpointTitle.setSpacingBefore(150);
         endpointTitle.setSpacingAfter(50);
@@ -733,7 +842,7 @@ public class WordDocumentService {
         numRun.setFontFamily("Times New Roman");
 
         XWPFRun methodRun = endpointTitle.createRun();
-        String method = endpointOp.method != null ? endpointOp.method : "UNKNOWN";
+        String method = endpointOp.method();
         methodRun.setText(method + " ");
         methodRun.setBold(true);
         methodRun.setFontSize(11);
@@ -741,13 +850,26 @@ public class WordDocumentService {
         methodRun.setColor(getMethodColor(method));
 
         XWPFRun pathRun = endpointTitle.createRun();
-        pathRun.setText(endpointOp.path != null ? endpointOp.path : "UNKNOWN");
+        pathRun.setText(endpointOp.path());
         pathRun.setFontSize(11);
         pathRun.setFontFamily("Courier New");
         pathRun.setColor("000000");
         pathRun.addBreak();
 
-        OpenApiSpec.Operation operation = endpointOp.operation;
+        OpenApiSpec.Operation operation = endpointOp.operation();
+        if (context.budget.isExceeded()) {
+            // Сверх бюджета - только строка "метод путь" с кратким описанием
+            if (operation != null && operation.getSummary() != null) {
+                XWPFRun summaryRun = endpointTitle.createRun();
+                summaryRun.setText("   " + operation.getSummary());
+                summaryRun.setFontSize(9);
+                summaryRun.setFontFamily("Times New Roman");
+                summaryRun.setColor("666666");
+                summaryRun.setItalic(true);
+            }
+            return;
+        }
+
         if (operation == null) {
             XWPFRun nullOpRun = endpointTitle.createRun();
             nullOpRun.setText("   ОШИБКА: Операция не найдена");
@@ -781,27 +903,19 @@ public class WordDocumentService {
         }
 
         if (operation.getDescription() != null) {
-            XWPFParagraph descParagraph = document.createParagraph();
-            descParagraph.setSpacingAfter(50);
-            descParagraph.setIndentationLeft(720);
-
-            XWPFRun descRun = descParagraph.createRun();
-            descRun.setText("   " + operation.getDescription());
-            descRun.setFontSize(10);
-            descRun.setFontFamily("Times New Roman");
-            descRun.setColor("000000");
+            addDescription(document, operation.getDescription(), 900, 10, false, 50, context);
         }
 
         if (operation.getParameters() != null && !operation.getParameters().isEmpty()) {
-            addParametersSection(document, operation.getParameters());
+            addParametersSection(document, operation.getParameters(), context);
         }
 
         if (operation.getRequestBody() != null) {
-            addRequestBodySection(document, operation.getRequestBody());
+            addRequestBodySection(document, operation.getRequestBody(), context);
         }
 
-        if (operation.getResponses() != null && !operation.getResponses().isEmpty()) {
-            addResponsesSection(document, operation.getResponses());
+        if (endpointOp.responses().length > 0) {
+            addResponsesSection(document, endpointOp, context);
         }
 
         XWPFParagraph separator = document.createParagraph();
@@ -814,6 +928,36 @@ public class WordDocumentService {
         separatorRun.setColor("CCCCCC");
     }
 
+    // Операция целиком: заголовок, параметры, тело запроса, ответы и разделитель. Описания и примеры
+    // списываются там, где выводятся; сверх бюджета операция занимает одну строку
+    private static void chargeEndpoint(RenderContext context, CompiledSpec.OperationEntry endpointOp) {
+        OpenApiSpec.Operation operation = endpointOp.operation();
+        if (operation == null || context.budget.isExceeded()) {
+            context.budget.charge(1, endpointOp.path().length());
+            return;
+        }
+        int parameters = operation.getParameters() != null ? operation.getParameters().size() : 0;
+        int elements = 4 + parameters + endpointOp.responses().length * 2 + (operation.getRequestBody() != null ? 3 : 0);
+        String summary = operation.getSummary();
+        context.budget.charge(elements, endpointOp.path().length() + (summary != null ? summary.length() : 0));
+    }
+
+    // Пояснение в месте, с которого документ сокращён из-за бюджета рендера
+    private void addBudgetNotice(XWPFDocument document, RenderBudget budget, String consequence) {
+        XWPFParagraph notice = document.createParagraph();
+        notice.setSpacingBefore(200);
+        notice.setSpacingAfter(200);
+        notice.setIndentationLeft(720);
+
+        XWPFRun noticeRun = notice.createRun();
+        noticeRun.setText("Документ сокращён: превышен бюджет рендера (" + budget.getExceededReason() + "). "
+                + consequence);
+        noticeRun.setBold(true);
+        noticeRun.setFontSize(10);
+        noticeRun.setFontFamily("Times New Roman");
+        noticeRun.setColor("C00000");
+    }
+
     private void addEmptyEndpointsMessage(XWPFDocument document) {
         XWPFParagraph emptyMsg = document.createParagraph();
         emptyMsg.setSpacingBefore(200);
@@ -839,7 +983,8 @@ public class WordDocumentService {
         };
     }
 
-    private void addParametersSection(XWPFDocument document, List<OpenApiSpec.Parameter> parameters) {
+    private void addParametersSection(XWPFDocument document, List<OpenApiSpec.Parameter> parameters,
+                                      RenderContext context) {
         XWPFParagraph paramsTitle = document.createParagraph();
         paramsTitle.setSpacingBefore(50);
         paramsTitle.setSpacingAfter(20);
@@ -876,7 +1021,7 @@ public class WordDocumentService {
             paramRun.setBold(false);
 
             if (param.getSchema() != null) {
-                paramRun.setText(" - " + getSchemaType(param.getSchema()));
+                paramRun.setText(" - " + getSchemaType(param.getSchema(), context));
                 paramRun.addBreak();
                 paramRun.setText("      ");
             }
@@ -887,7 +1032,8 @@ public class WordDocumentService {
         }
     }
 
-    private void addRequestBodySection(XWPFDocument document, OpenApiSpec.RequestBody requestBody) {
+    private void addRequestBodySection(XWPFDocument document, OpenApiSpec.RequestBody requestBody,
+                                       RenderContext context) {
         if (requestBody == null) return;
 
         XWPFParagraph bodyTitle = document.createParagraph();
@@ -931,15 +1077,17 @@ public class WordDocumentService {
 
             for (Map.Entry<String, OpenApiSpec.MediaType> contentEntry : requestBody.getContent().entrySet()) {
                 if (contentEntry.getValue() != null && contentEntry.getValue().getSchema() != null) {
-                    bodyRun.setText("• Схема: " + getSchemaType(contentEntry.getValue().getSchema()));
+                    bodyRun.setText("• Схема: ");
+                    bodyRun = appendSchemaType(bodyParagraph, bodyRun, contentEntry.getValue().getSchema(), context);
                     bodyRun.addBreak();
                 }
             }
+            addExamples(document, requestBody.getContent(), context);
         }
     }
 
-    private void addResponsesSection(XWPFDocument document, Map<String, OpenApiSpec.Response> responses) {
-        if (responses == null || responses.isEmpty()) return;
+    private void addResponsesSection(XWPFDocument document, CompiledSpec.OperationEntry endpointOp,
+                                     RenderContext context) {
 
         XWPFParagraph responsesTitle = document.createParagraph();
         responsesTitle.setSpacingBefore(50);
@@ -953,17 +1101,11 @@ public class WordDocumentService {
         responsesTitleRun.setFontFamily("Times New Roman");
         responsesTitleRun.setColor("000000");
 
-        List<Map.Entry<String, OpenApiSpec.Response>> sortedResponses = new ArrayList<>(responses.entrySet());
-        sortedResponses.sort(Comparator.comparingInt(e -> {
-            try {
-                return Integer.parseInt(e.getKey());
-            } catch (NumberFormatException ex) {
-                return Integer.MAX_VALUE;
-            }
-        }));
-
-        for (Map.Entry<String, OpenApiSpec.Response> entry : sortedResponses) {
-            if (entry.getValue() == null) continue;
+        // Коды ответов отсортированы при компиляции спецификации
+        String[] responseCodes = endpointOp.responseCodes();
+        OpenApiSpec.Response[] responses = endpointOp.responses();
+        for (int i = 0; i < responses.length; i++) {
+            OpenApiSpec.Response response = responses[i];
 
             XWPFParagraph responseParagraph = document.createParagraph();
             responseParagraph.setSpacingAfter(20);
@@ -974,18 +1116,17 @@ public class WordDocumentService {
             responseRun.setFontSize(9);
             responseRun.setColor("000000");
 
-            responseRun.setText("• HTTP " + entry.getKey() + ": ");
+            responseRun.setText("• HTTP " + responseCodes[i] + ": ");
             responseRun.setBold(true);
-            String description = entry.getValue().getDescription();
+            String description = response.getDescription();
             responseRun.setText(description != null && !description.trim().isEmpty() ? description : "Успешный ответ");
             responseRun.setBold(false);
 
-            OpenApiSpec.Response response = entry.getValue();
             if (response.getContent() != null && !response.getContent().isEmpty()) {
                 responseRun.addBreak();
                 Set<String> contentTypes = response.getContent().keySet().stream()
                         .filter(Objects::nonNull)
-                        .collect(Collectors.toSet());
+                        .collect(Collectors.toCollection(LinkedHashSet::new));
                 responseRun.setText("    Типы контента: " +
                         (contentTypes.isEmpty() ? "не указаны" : String.join(", ", contentTypes)));
 
@@ -993,50 +1134,243 @@ public class WordDocumentService {
                     if (contentEntry.getValue() != null && contentEntry.getValue().getSchema() != null) {
                         OpenApiSpec.Schema schema = contentEntry.getValue().getSchema();
                         responseRun.addBreak();
-                        responseRun.setText("    Схема: " + getSchemaType(schema));
+                        responseRun.setText("    Схема: ");
+                        responseRun = appendSchemaType(responseParagraph, responseRun, schema, context);
                     }
                 }
+                addExamples(document, response.getContent(), context);
             }
         }
     }
 
-    private String getLocationText(String location) {
-        if (location == null) return "Неизвестно";
-        switch (location) {
-            case "path": return "Путь";
-            case "query": return "Запрос";
-            case "header": return "Заголовок";
-            case "cookie": return "Куки";
-            default: return location;
+    // === ПРИМЕРЫ ===
+    private void addExamples(XWPFDocument document, Map<String, OpenApiSpec.MediaType> content,
+                             RenderContext context) {
+        if (!context.options.isExamples()) return;
+
+        for (Map.Entry<String, OpenApiSpec.MediaType> contentEntry : content.entrySet()) {
+            ExampleGenerator.Sample sample = context.examples.sample(contentEntry.getKey(), contentEntry.getValue());
+            if (sample == null || sample.text().isEmpty()) continue;
+            context.budget.charge(2, sample.text().length());
+
+            XWPFParagraph captionParagraph = document.createParagraph();
+            captionParagraph.setSpacingBefore(40);
+            captionParagraph.setSpacingAfter(20);
+            captionParagraph.setIndentationLeft(1080);
+
+            XWPFRun captionRun = captionParagraph.createRun();
+            captionRun.setText("Пример (" + contentEntry.getKey() + ")" + (sample.truncated() ? ", сокращён:" : ":"));
+            captionRun.setItalic(true);
+            captionRun.setFontFamily("Times New Roman");
+            captionRun.setFontSize(9);
+            captionRun.setColor("000000");
+
+            addCodeBlock(document, sample.text(), 1440);
         }
     }
 
-    private String getSchemaType(OpenApiSpec.Schema schema) {
-        if (schema == null) return "не определен";
+    // Моноширинный блок на сером фоне: строки через разрывы строки в одном абзаце
+    private void addCodeBlock(XWPFDocument document, String code, int indent) {
+        XWPFParagraph codeParagraph = document.createParagraph();
+        codeParagraph.setSpacingAfter(60);
+        codeParagraph.setIndentationLeft(indent);
+        CTPPr codeProperties = codeParagraph.getCTP().isSetPPr()
+                ? codeParagraph.getCTP().getPPr() : codeParagraph.getCTP().addNewPPr();
+        CTShd shading = codeProperties.addNewShd();
+        shading.setVal(STShd.CLEAR);
+        shading.setColor("auto");
+        shading.setFill("F2F2F2");
+
+        XWPFRun codeRun = codeParagraph.createRun();
+        codeRun.setFontFamily("Courier New");
+        codeRun.setFontSize(8);
+        codeRun.setColor("000000");
+        String[] lines = code.split("\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            if (i > 0) codeRun.addBreak();
+            codeRun.setText(lines[i]);
+        }
+    }
 
-        if (schema.getRef() != null && !schema.getRef().trim().isEmpty()) {
-            return extractSchemaName(schema.getRef()) + " {...}";
+    // === ОПИСАНИЯ В MARKDOWN ===
+    /**
+     * Описание из спецификации (CommonMark) абзацами Word: заголовки - жирным, пункты списков
+     * с висячим отступом, блоки кода - как примеры, таблицы - через DocxTableBuilder. Стиль Heading
+     * заголовкам описаний не ставится, чтобы они не попадали в оглавление.
+     * {@code spacingAfter} - отступ после последнего абзаца.
+     */
+    private void addDescription(XWPFDocument document, String description, int indent, int fontSize,
+                                boolean italic, int spacingAfter, RenderContext context) {
+        List<MarkdownDescriptionParser.Block> blocks = context.markdown.parse(description);
+        context.budget.charge(blocks.size(), description.length());
+
+        XWPFParagraph last = null;
+        for (MarkdownDescriptionParser.Block block : blocks) {
+            switch (block.kind()) {
+                case CODE -> {
+                    addCodeBlock(document, block.code(), indent + 360);
+                    last = null;
+                }
+                case TABLE -> {
+                    addMarkdownTable(document, block.rows(), fontSize - 1);
+                    last = null;
+                }
+                default -> last = addMarkdownParagraph(document, block, indent, fontSize, italic);
+            }
+        }
+        if (last != null) {
+            last.setSpacingAfter(spacingAfter);
         }
+    }
 
-        StringBuilder typeInfo = new StringBuilder();
-        if (schema.getType() != null && !schema.getType().trim().isEmpty()) {
-            typeInfo.append(schema.getType());
+    private XWPFParagraph addMarkdownParagraph(XWPFDocument document, MarkdownDescriptionParser.Block block,
+                                               int indent, int fontSize, boolean italic) {
+        XWPFParagraph paragraph = document.createParagraph();
+        paragraph.setSpacingAfter(40);
+        paragraph.setIndentationLeft(indent);
+
+        int baseStyle = italic ? MarkdownDescriptionParser.ITALIC : 0;
+        int size = fontSize;
+        switch (block.kind()) {
+            case HEADING -> {
+                paragraph.setSpacingBefore(80);
+                baseStyle = MarkdownDescriptionParser.BOLD;
+                if (block.level() <= 2) size = fontSize + 1;
+            }
+            case ITEM -> {
+                paragraph.setSpacingAfter(20);
+                paragraph.setIndentationLeft(indent + 360 * (block.level() + 1));
+                paragraph.setIndentationHanging(280);
+                XWPFRun markerRun = paragraph.createRun();
+                styleDescriptionRun(markerRun, baseStyle, size);
+                markerRun.setText(block.marker() + " ");
+            }
+            case QUOTE -> {
+                paragraph.setIndentationLeft(indent + 360);
+                baseStyle = MarkdownDescriptionParser.ITALIC;
+            }
+            default -> {
+            }
         }
-        if (schema.getFormat() != null && !schema.getFormat().trim().isEmpty()) {
-            typeInfo.append(" ($").append(schema.getFormat()).append(")");
+
+        XWPFRun run = null;
+        for (MarkdownDescriptionParser.Span span : block.spans()) {
+            if (span == MarkdownDescriptionParser.Span.BREAK) {
+                if (run == null) run = paragraph.createRun();
+                run.addBreak();
+                continue;
+            }
+            if (span.link() != null && isExternalLink(span.link())) {
+                XWPFHyperlinkRun linkRun = paragraph.createHyperlinkRun(span.link());
+                styleDescriptionRun(linkRun, baseStyle | span.style(), size);
+                linkRun.setColor("0563C1");
+                linkRun.setUnderline(UnderlinePatterns.SINGLE);
+                linkRun.setText(span.text());
+                run = linkRun;
+                continue;
+            }
+            run = paragraph.createRun();
+            styleDescriptionRun(run, baseStyle | span.style(), size);
+            run.setText(span.text());
         }
-        if (schema.getItems() != null) {
-            typeInfo.append("[").append(getSchemaType(schema.getItems())).append("]");
+        return paragraph;
+    }
+
+    private void styleDescriptionRun(XWPFRun run, int style, int fontSize) {
+        boolean code = (style & MarkdownDescriptionParser.CODE) != 0;
+        run.setFontFamily(code ? "Courier New" : "Times New Roman");
+        run.setFontSize(code ? fontSize - 1 : fontSize);
+        run.setColor("000000");
+        if ((style & MarkdownDescriptionParser.BOLD) != 0) run.setBold(true);
+        if ((style & MarkdownDescriptionParser.ITALIC) != 0 && !code) run.setItalic(true);
+    }
+
+    private void addMarkdownTable(XWPFDocument document, List<List<String>> rows, int fontSize) {
+        int columns = rows.get(0).size();
+        int[] grid = new int[columns];
+        Arrays.fill(grid, 9000 / columns);
+
+        DocxTableBuilder table = DocxTableBuilder.create(document, 4500, grid, "Times New Roman", "000000");
+        table.addHeaderRow("F0F8FF", fontSize, rows.get(0).toArray(new String[0]));
+        for (List<String> row : rows.subList(1, rows.size())) {
+            table.addRow(fontSize, row.toArray(new String[0]));
+        }
+        addSectionSpacing(document, 60);
+    }
+
+    // Внешние ссылки становятся гиперссылками; относительные и якоря остаются текстом
+    private static boolean isExternalLink(String link) {
+        if (!link.startsWith("http://") && !link.startsWith("https://") && !link.startsWith("mailto:")) return false;
+        try {
+            // POI отклоняет связь с некорректным URI исключением - такая ссылка остаётся текстом
+            new URI(link);
+            return true;
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    private String getLocationText(String location) {
+        return SchemaTypeFormatter.locationText(location);
+    }
+
+    private String getSchemaType(OpenApiSpec.Schema schema, RenderContext context) {
+        return SchemaTypeFormatter.schemaType(schema, context.spec);
+    }
+
+    // === ССЫЛКИ НА МОДЕЛИ ДАННЫХ ===
+    private void registerSchemaBookmarks(RenderContext context) {
+        int index = 1;
+        for (CompiledSpec.SchemaEntry entry : context.spec.getSchemas()) {
+            String name = entry.name();
+            if (!context.isSchemaRendered(name)) continue;
+            // Закладки с "_" Word считает скрытыми и не показывает в списке закладок
+            context.schemaBookmarks.put(name, "_Schema" + index++);
         }
+    }
 
-        return !typeInfo.isEmpty() ? typeInfo.toString() : "object";
+    // Имя модели из раздела 5, на которую можно сослаться: сам $ref или $ref элементов массива
+    private String findLinkedSchemaName(OpenApiSpec.Schema schema, RenderContext context) {
+        if (schema == null || context.schemaBookmarks.isEmpty()) return null;
+
+        CompiledSpec.SchemaEntry linked = SchemaTypeFormatter.referencedSchema(schema, context.spec);
+        return linked != null && context.schemaBookmarks.containsKey(linked.name()) ? linked.name() : null;
     }
 
-    private String extractSchemaName(String ref) {
-        if (ref == null || ref.trim().isEmpty()) return "";
-        Pattern pattern = Pattern.compile(".*/([^/]+)$");
-        java.util.regex.Matcher matcher = pattern.matcher(ref.trim());
-        return matcher.find() ? matcher.group(1) : ref.trim();
+    /**
+     * Дописывает тип схемы в параграф. В режиме ссылок $ref превращается во внутреннюю
+     * гиперссылку на модель в разделе 5. Возвращает run, в который можно продолжать писать.
+     */
+    private XWPFRun appendSchemaType(XWPFParagraph paragraph, XWPFRun run, OpenApiSpec.Schema schema,
+                                     RenderContext context) {
+        String linkedSchema = findLinkedSchemaName(schema, context);
+        if (linkedSchema == null) {
+            run.setText(getSchemaType(schema, context));
+            return run;
+        }
+
+        int arrayDepth = SchemaTypeFormatter.arrayDepth(schema);
+        if (arrayDepth > 0) {
+            run.setText("array[".repeat(arrayDepth));
+        }
+
+        CTHyperlink hyperlink = paragraph.getCTP().addNewHyperlink();
+        hyperlink.setAnchor(context.schemaBookmarks.get(linkedSchema));
+        XWPFHyperlinkRun linkRun = new XWPFHyperlinkRun(hyperlink, hyperlink.addNewR(), paragraph);
+        linkRun.setText(linkedSchema);
+        linkRun.setFontFamily("Times New Roman");
+        linkRun.setFontSize(9);
+        linkRun.setColor("0563C1");
+        linkRun.setUnderline(UnderlinePatterns.SINGLE);
+
+        XWPFRun tailRun = paragraph.createRun();
+        tailRun.setFontFamily("Times New Roman");
+        tailRun.setFontSize(9);
+        tailRun.setColor("000000");
+        if (arrayDepth > 0) {
+            tailRun.setText("]".repeat(arrayDepth));
+        }
+        return tailRun;
     }
 
     // === КЛАССЫ ДЛЯ ДИАГНОСТИКИ ===
@@ -1044,6 +1378,8 @@ public class WordDocumentService {
         int totalPaths = 0;
         int totalTaggedOperations = 0;
         int totalUntaggedOperations = 0;
+        int totalSchemas = 0;
+        int skippedSchemas = 0;
         List<String> specTags = new ArrayList<>();
         List<PathInfo> pathInfos = new ArrayList<>();
     }
@@ -1051,25 +1387,13 @@ public class WordDocumentService {
     private static class PathInfo {
         String path;
         int operations = 0;
-        List<OperationInfo> operationsInfo = new ArrayList<>();
-    }
-
-    private static class OperationInfo {
-        String method;
-        String operationId;
-        String summary;
-        List<String> tags = new ArrayList<>();
-    }
-
-    private static class EndpointOperation {
-        String path;
-        String method;
-        OpenApiSpec.Operation operation;
     }
 
     // === СХЕМЫ (остаются без изменений) ===
-    private void addSchemasSection(XWPFDocument document, OpenApiSpec.Components components) {
-        if (components != null && components.getSchemas() != null && !components.getSchemas().isEmpty()) {
+    private void addSchemasSection(XWPFDocument document, RenderContext context,
+                                   List<CompiledSpec.SchemaEntry> sortedSchemas) {
+        if (!sortedSchemas.isEmpty()) {
+
             XWPFParagraph schemasTitle = document.createParagraph();
             schemasTitle.setStyle("Heading1");
             schemasTitle.setSpacingBefore(600);
@@ -1083,22 +1407,37 @@ public class WordDocumentService {
             schemasTitleRun.setColor("000000");
 
             int schemaNum = 1;
-            List<Map.Entry<String, OpenApiSpec.Schema>> sortedSchemas =
-                    new ArrayList<>(components.getSchemas().entrySet());
-            sortedSchemas.sort((e1, e2) -> e1.getKey().compareToIgnoreCase(e2.getKey()));
-
-            for (Map.Entry<String, OpenApiSpec.Schema> entry : sortedSchemas) {
-                addSchemaSection(document, schemaNum, entry.getKey(), entry.getValue());
+            for (CompiledSpec.SchemaEntry entry : sortedSchemas) {
+                addSchemaSection(document, schemaNum, entry, context);
+                context.progress.update(RenderProgress.SCHEMAS, schemaNum, sortedSchemas.size());
                 schemaNum++;
             }
         }
     }
 
-    private void addSchemaSection(XWPFDocument document, int schemaNum, String name, OpenApiSpec.Schema schema) {
+    private void addSchemaSection(XWPFDocument document, int schemaNum, CompiledSpec.SchemaEntry schemaEntry,
+                                  RenderContext context) {
+        String name = schemaEntry.name();
+        OpenApiSpec.Schema schema = schemaEntry.schema();
+
+        chargeSchema(context, schemaEntry);
+        if (context.budget.noticeDue("schemas")) {
+            addBudgetNotice(document, context.budget, "Далее операции и модели данных приведены кратко.");
+        }
+
         XWPFParagraph schemaNameParagraph = document.createParagraph();
         schemaNameParagraph.setSpacingBefore(300);
         schemaNameParagraph.setSpacingAfter(100);
 
+        String bookmark = context.schemaBookmarks.get(name);
+        BigInteger bookmarkId = null;
+        if (bookmark != null) {
+            bookmarkId = BigInteger.valueOf(context.nextBookmarkId());
+            CTBookmark bookmarkStart = schemaNameParagraph.getCTP().addNewBookmarkStart();
+            bookmarkStart.setName(bookmark);
+            bookmarkStart.setId(bookmarkId);
+        }
+
         XWPFRun schemaNameRun = schemaNameParagraph.createRun();
         schemaNameRun.setText(schemaNum + ". " + name);
         schemaNameRun.setBold(true);
@@ -1106,17 +1445,27 @@ public class WordDocumentService {
         schemaNameRun.setFontFamily("Times New Roman");
         schemaNameRun.setColor("000000");
 
-        if (schema.getDescription() != null && !schema.getDescription().trim().isEmpty()) {
-            XWPFParagraph schemaDesc = document.createParagraph();
-            schemaDesc.setSpacingAfter(100);
-            schemaDesc.setIndentationLeft(720);
+        if (bookmarkId != null) {
+            schemaNameParagraph.getCTP().addNewBookmarkEnd().setId(bookmarkId);
+        }
 
-            XWPFRun schemaDescRun = schemaDesc.createRun();
-            schemaDescRun.setText(schema.getDescription());
-            schemaDescRun.setItalic(true);
-            schemaDescRun.setFontFamily("Times New Roman");
-            schemaDescRun.setFontSize(11);
-            schemaDescRun.setColor("000000");
+        if (context.budget.isExceeded()) {
+            // Сверх бюджета - тип и число свойств; закладка остаётся, ссылки на модель работают
+            XWPFParagraph summaryParagraph = document.createParagraph();
+            summaryParagraph.setSpacingAfter(100);
+            summaryParagraph.setIndentationLeft(720);
+
+            XWPFRun summaryRun = summaryParagraph.createRun();
+            summaryRun.setText((schema.getType() != null ? "Тип: " + schema.getType() + " | " : "")
+                    + "Свойств: " + schemaEntry.propertyNames().length);
+            summaryRun.setFontFamily("Times New Roman");
+            summaryRun.setFontSize(10);
+            summaryRun.setColor("666666");
+            return;
+        }
+
+        if (schema.getDescription() != null && !schema.getDescription().trim().isEmpty()) {
+            addDescription(document, schema.getDescription(), 720, 11, true, 100, context);
         }
 
         StringBuilder schemaInfo = new StringBuilder();
@@ -1140,122 +1489,187 @@ public class WordDocumentService {
             typeInfoRun.setColor("000000");
         }
 
-        if (schema.getProperties() != null && !schema.getProperties().isEmpty()) {
-            createSchemaPropertiesTable(document, schema);
+        if (schemaEntry.propertyNames().length > 0) {
+            createSchemaPropertiesTable(document, schemaEntry, context);
         }
 
         XWPFParagraph spacer = document.createParagraph();
         spacer.setSpacingAfter(300);
     }
 
-    private void createSchemaPropertiesTable(XWPFDocument document, OpenApiSpec.Schema schema) {
-        XWPFTable table = document.createTable(1, 4);
-        setupSchemaTableProperties(table);
+    // Модель целиком: заголовок, строка типа, таблица свойств с описаниями (описание самой модели
+    // списывается при выводе); сверх бюджета - две строки
+    private static void chargeSchema(RenderContext context, CompiledSpec.SchemaEntry schemaEntry) {
+        if (context.budget.isExceeded()) {
+            context.budget.charge(2, schemaEntry.name().length());
+            return;
+        }
+        long textChars = schemaEntry.name().length();
+        for (OpenApiSpec.Schema propertySchema : schemaEntry.propertySchemas()) {
+            if (propertySchema != null && propertySchema.getDescription() != null) {
+                textChars += propertySchema.getDescription().length();
+            }
+        }
+        context.budget.charge(4 + schemaEntry.propertyNames().length, textChars);
+    }
 
-        XWPFTableRow headerRow = table.getRow(0);
-        headerRow.getCell(0).setText("Поле");
-        headerRow.getCell(1).setText("Тип");
-        headerRow.getCell(2).setText("Обязательное");
-        headerRow.getCell(3).setText("Описание");
-        styleSchemaTableHeader(headerRow);
+    private void createSchemaPropertiesTable(XWPFDocument document, CompiledSpec.SchemaEntry schemaEntry,
+                                             RenderContext context) {
+        // Строки пишутся сразу в CTTbl: на больших моделях это заметно быстрее createRow() + стилизации
+        DocxTableBuilder table = DocxTableBuilder.create(document, 9500, SCHEMA_TABLE_GRID, "Times New Roman", "000000");
+        table.addHeaderRow("F0F8FF", 10, "Поле", "Тип", "Обязательное", "Описание");
+
+        // Свойства отсортированы при компиляции спецификации
+        String[] propertyNames = schemaEntry.propertyNames();
+        for (int i = 0; i < propertyNames.length; i++) {
+            String fieldName = propertyNames[i];
+            OpenApiSpec.Schema fieldSchema = schemaEntry.propertySchemas()[i];
+            String required = schemaEntry.requiredProperties()[i] ? "Да" : "Нет";
+            String description = fieldSchema != null && fieldSchema.getDescription() != null ?
+                    fieldSchema.getDescription() : "";
 
-        Set<String> requiredFields = schema.getRequired() != null ?
-                new HashSet<>(schema.getRequired()) : new HashSet<>();
+            String linkedSchema = findLinkedSchemaName(fieldSchema, context);
+            String fieldType = linkedSchema == null ? getSchemaType(fieldSchema, context) : null;
+            CTRow row = table.addRow(9, fieldName, fieldType, required, description);
+
+            if (linkedSchema != null) {
+                XWPFParagraph typeParagraph = table.paragraph(row, 1);
+                XWPFRun typeRun = typeParagraph.createRun();
+                typeRun.setFontFamily("Times New Roman");
+                typeRun.setFontSize(9);
+                typeRun.setColor("000000");
+                appendSchemaType(typeParagraph, typeRun, fieldSchema, context);
+            }
+        }
+    }
+
+    // === ЖУРНАЛ ИЗМЕНЕНИЙ ===
+    private void addChangelogTitlePage(XWPFDocument document, OpenApiSpec apiSpec, OpenApiSpec previousSpec,
+                                       String generatedAt) {
+        XWPFParagraph titleParagraph = document.createParagraph();
+        titleParagraph.setAlignment(ParagraphAlignment.CENTER);
+        titleParagraph.setSpacingBefore(600);
+        titleParagraph.setSpacingAfter(400);
 
-        List<Map.Entry<String, OpenApiSpec.Schema>> sortedProperties =
-                new ArrayList<>(schema.getProperties().entrySet());
-        sortedProperties.sort((e1, e2) -> {
-            String name1 = e1.getKey() != null ? e1.getKey() : "";
-            String name2 = e2.getKey() != null ? e2.getKey() : "";
-            return name1.compareToIgnoreCase(name2);
-        });
+        XWPFRun titleRun = titleParagraph.createRun();
+        titleRun.setText("ЖУРНАЛ ИЗМЕНЕНИЙ API");
+        titleRun.setBold(true);
+        titleRun.setFontSize(24);
+        titleRun.setFontFamily("Times New Roman");
+        titleRun.setColor("000000");
+        titleRun.addBreak();
 
-        for (Map.Entry<String, OpenApiSpec.Schema> propertyEntry : sortedProperties) {
-            String fieldName = propertyEntry.getKey();
-            if (fieldName == null || fieldName.trim().isEmpty()) continue;
+        XWPFParagraph apiTitleParagraph = document.createParagraph();
+        apiTitleParagraph.setAlignment(ParagraphAlignment.CENTER);
+        apiTitleParagraph.setSpacingAfter(300);
 
-            OpenApiSpec.Schema fieldSchema = propertyEntry.getValue();
-            String fieldType = getSchemaType(fieldSchema);
-            String required = requiredFields.contains(fieldName) ? "Да" : "Нет";
-            String description = fieldSchema != null && fieldSchema.getDescription() != null ?
-                    fieldSchema.getDescription() : "";
+        XWPFRun apiTitleRun = apiTitleParagraph.createRun();
+        apiTitleRun.setText(apiSpec.getInfo().getTitle());
+        apiTitleRun.setBold(true);
+        apiTitleRun.setFontSize(18);
+        apiTitleRun.setFontFamily("Times New Roman");
+        apiTitleRun.setColor("000000");
 
-            XWPFTableRow row = table.createRow();
-            row.getCell(0).setText(fieldName.trim());
-            row.getCell(1).setText(fieldType);
-            row.getCell(2).setText(required);
-            row.getCell(3).setText(description);
+        String previousVersion = previousSpec != null && previousSpec.getInfo() != null
+                && previousSpec.getInfo().getVersion() != null ? previousSpec.getInfo().getVersion() : "N/A";
+        String version = apiSpec.getInfo().getVersion() != null ? apiSpec.getInfo().getVersion() : "N/A";
 
-            for (int i = 0; i < 4; i++) {
-                styleTableCell(row.getCell(i), false);
-            }
+        XWPFParagraph metaParagraph = document.createParagraph();
+        metaParagraph.setAlignment(ParagraphAlignment.CENTER);
+        metaParagraph.setSpacingAfter(400);
+
+        XWPFRun metaRun = metaParagraph.createRun();
+        metaRun.setText("Версия API: " + previousVersion + " → " + version);
+        metaRun.setFontSize(12);
+        metaRun.setFontFamily("Times New Roman");
+        metaRun.setColor("666666");
+        if (generatedAt != null) {
+            metaRun.addBreak();
+            metaRun.setText("Сгенерировано: " + generatedAt);
         }
-    }
 
-    private void setupTableProperties(XWPFTable table) {
-        CTTblPr tblPr = table.getCTTbl().addNewTblPr();
-        CTTblWidth tblW = tblPr.addNewTblW();
-        tblW.setW(BigInteger.valueOf(9000));
-        tblW.setType(STTblWidth.PCT);
-        table.setTableAlignment(TableRowAlign.LEFT);
+        addPageBreak(document);
     }
 
-    private void setupSchemaTableProperties(XWPFTable table) {
-        CTTblPr tblPr = table.getCTTbl().addNewTblPr();
-        CTTblWidth tblW = tblPr.addNewTblW();
-        tblW.setW(BigInteger.valueOf(9500));
-        tblW.setType(STTblWidth.PCT);
+    private void addChangelogSummary(XWPFDocument document, SpecDiffService.Changelog changelog) {
+        XWPFParagraph sectionTitle = document.createParagraph();
+        sectionTitle.setStyle("Heading1");
+        sectionTitle.setSpacingBefore(600);
+        sectionTitle.setSpacingAfter(200);
 
-        CTTblGrid tblGrid = table.getCTTbl().addNewTblGrid();
-        tblGrid.addNewGridCol().setW(BigInteger.valueOf(1500));
-        tblGrid.addNewGridCol().setW(BigInteger.valueOf(2500));
-        tblGrid.addNewGridCol().setW(BigInteger.valueOf(1500));
-        tblGrid.addNewGridCol().setW(BigInteger.valueOf(4000));
+        XWPFRun titleRun = sectionTitle.createRun();
+        titleRun.setText("1. СВОДКА");
+        titleRun.setBold(true);
+        titleRun.setFontSize(16);
+        titleRun.setFontFamily("Times New Roman");
+        titleRun.setColor("000000");
 
-        table.setTableAlignment(TableRowAlign.LEFT);
-    }
+        XWPFParagraph summaryParagraph = document.createParagraph();
+        summaryParagraph.setSpacingAfter(300);
+        summaryParagraph.setIndentationLeft(720);
 
-    private void styleTableHeader(XWPFTableRow row) {
-        for (XWPFTableCell cell : row.getTableCells()) {
-            cell.setColor("E6E6FA");
-            for (XWPFParagraph paragraph : cell.getParagraphs()) {
-                paragraph.setAlignment(ParagraphAlignment.LEFT);
-                for (XWPFRun run : paragraph.getRuns()) {
-                    run.setBold(true);
-                    run.setFontFamily("Times New Roman");
-                    run.setFontSize(10);
-                    run.setColor("000000");
-                }
-            }
+        XWPFRun summaryRun = summaryParagraph.createRun();
+        summaryRun.setFontFamily("Times New Roman");
+        summaryRun.setFontSize(11);
+        summaryRun.setColor("000000");
+
+        if (changelog.isEmpty()) {
+            summaryRun.setText("Структурных изменений между версиями нет.");
+            summaryRun.setItalic(true);
+            return;
         }
+
+        summaryRun.setText("Операции: " + changeCounts(changelog.getOperations()));
+        summaryRun.addBreak();
+        summaryRun.setText("Параметры: " + changeCounts(changelog.getParameters()));
+        summaryRun.addBreak();
+        summaryRun.setText("Тела запросов и ответы: " + changeCounts(changelog.getResponses()));
+        summaryRun.addBreak();
+        summaryRun.setText("Модели данных: " + changeCounts(changelog.getSchemas()));
     }
 
-    private void styleSchemaTableHeader(XWPFTableRow row) {
-        for (XWPFTableCell cell : row.getTableCells()) {
-            cell.setColor("F0F8FF");
-            for (XWPFParagraph paragraph : cell.getParagraphs()) {
-                paragraph.setAlignment(ParagraphAlignment.CENTER);
-                for (XWPFRun run : paragraph.getRuns()) {
-                    run.setBold(true);
-                    run.setFontFamily("Times New Roman");
-                    run.setFontSize(10);
-                    run.setColor("000000");
-                }
-            }
-        }
+    private static String changeCounts(List<SpecDiffService.Change> changes) {
+        Map<SpecDiffService.ChangeType, Long> counts = changes.stream()
+                .collect(Collectors.groupingBy(SpecDiffService.Change::type, Collectors.counting()));
+        return "добавлено " + counts.getOrDefault(SpecDiffService.ChangeType.ADDED, 0L)
+                + ", удалено " + counts.getOrDefault(SpecDiffService.ChangeType.REMOVED, 0L)
+                + ", изменено " + counts.getOrDefault(SpecDiffService.ChangeType.CHANGED, 0L);
     }
 
-    private void styleTableCell(XWPFTableCell cell, boolean isHeader) {
-        for (XWPFParagraph paragraph : cell.getParagraphs()) {
-            paragraph.setAlignment(ParagraphAlignment.LEFT);
-            for (XWPFRun run : paragraph.getRuns()) {
-                run.setFontFamily("Times New Roman");
-                run.setFontSize(9);
-                if (isHeader) {
-                    run.setBold(true);
-                }
-                run.setColor("000000");
+    private void addChangelogSection(XWPFDocument document, String title, List<SpecDiffService.Change> changes,
+                                     RenderBudget budget) {
+        if (changes.isEmpty()) return;
+        budget.charge(2, title.length());
+
+        XWPFParagraph sectionTitle = document.createParagraph();
+        sectionTitle.setStyle("Heading1");
+        sectionTitle.setSpacingBefore(600);
+        sectionTitle.setSpacingAfter(200);
+
+        XWPFRun titleRun = sectionTitle.createRun();
+        titleRun.setText(title);
+        titleRun.setBold(true);
+        titleRun.setFontSize(16);
+        titleRun.setFontFamily("Times New Roman");
+        titleRun.setColor("000000");
+
+        DocxTableBuilder table = DocxTableBuilder.create(document, 9500, CHANGELOG_TABLE_GRID, "Times New Roman", "000000");
+        table.addHeaderRow("F0F8FF", 10, "Изменение", "Объект", "Подробности");
+        for (int i = 0; i < changes.size(); i++) {
+            SpecDiffService.Change change = changes.get(i);
+            String detail = change.detail() != null ? change.detail() : "";
+            budget.charge(1, change.subject().length() + detail.length());
+            if (budget.isExceeded()) {
+                // Сверх бюджета - одна строка с числом невыведенных изменений раздела
+                table.addRow(9, "…", "ещё " + (changes.size() - i) + " изм.", "не выведены: превышен бюджет рендера");
+                break;
             }
+            table.addRow(9, change.type().getLabel(), change.subject(), detail);
+        }
+
+        addSectionSpacing(document);
+        if (budget.noticeDue("changelog")) {
+            addBudgetNotice(document, budget, "Остальные изменения разделов приведены числом.");
         }
     }
 
@@ -1274,16 +1688,18 @@ public class WordDocumentService {
         spacer.setSpacingAfter(spacing);
     }
 
-    private String generateFileName(String apiTitle) {
+    private String generateFileName(String apiTitle, String suffix) {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        return outputDirectory + "/" + safeTitle(apiTitle) + suffix + timestamp + ".docx";
+    }
+
+    private static String safeTitle(String apiTitle) {
         if (apiTitle == null || apiTitle.trim().isEmpty()) {
             apiTitle = "API";
         }
 
-        String safeTitle = apiTitle.replaceAll("[^a-zA-Z0-9а-яА-Я\\s-]", "_")
+        return apiTitle.replaceAll("[^a-zA-Z0-9а-яА-Я\\s-]", "_")
                 .replaceAll("\\s+", "_")
                 .substring(0, Math.min(50, apiTitle.length()));
-
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        return outputDirectory + "/" + safeTitle + "_API_Documentation_" + timestamp + ".docx";
     }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.usnbook.swagger2word.service;
+
+import org.apache.poi.xwpf.usermodel.*;
+import org.apache.xmlbeans.impl.xb.xmlschema.SpaceAttribute;
+import org.junit.jupiter.api.Test;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTRow;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTTc;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTText;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.usnbook.swagger2word.service.DocxTableFixture.FONT;
+import static com.usnbook.swagger2word.service.DocxTableFixture.GRID;
+import static com.usnbook.swagger2word.service.DocxTableFixture.buildDirect;
+import static com.usnbook.swagger2word.service.DocxTableFixture.buildLegacy;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocxTableBuilderTest {
+
+    @Test
+    void writesSameCellsAsXwpfTable() throws Exception {
+        XWPFDocument direct = new XWPFDocument();
+        buildDirect(direct, 50);
+        XWPFDocument legacy = new XWPFDocument();
+        buildLegacy(legacy, 50);
+
+        // После записи и повторного чтения таблица из CTTbl видна как обычная XWPFTable
+        assertEquals(cellTexts(legacy.getTables().get(0)), cellTexts(reload(direct).getTables().get(0)));
+    }
+
+    @Test
+    void writesCellAndRunProperties() throws Exception {
+        XWPFDocument document = new XWPFDocument();
+        DocxTableBuilder table = DocxTableBuilder.create(document, 9500, GRID, FONT, "000000");
+        table.addHeaderRow("F0F8FF", 10, "Поле", "Тип", "Обязательное", "Описание");
+        table.addRow(9, "id", " Pet ", "Да", "");
+
+        XWPFTable reloaded = reload(document).getTables().get(0);
+
+        // Заголовок: заливка, по центру, жирный
+        XWPFTableCell header = reloaded.getRow(0).getCell(0);
+        assertEquals("F0F8FF", header.getColor());
+        assertEquals(ParagraphAlignment.CENTER, header.getParagraphs().get(0).getAlignment());
+        XWPFRun headerRun = header.getParagraphs().get(0).getRuns().get(0);
+        assertTrue(headerRun.isBold());
+        assertEquals(FONT, headerRun.getFontFamily());
+        assertEquals(10.0, headerRun.getFontSizeAsDouble());
+        assertEquals("000000", headerRun.getColor());
+
+        // Данные: без заливки, по левому краю, обычный
+        XWPFTableCell cell = reloaded.getRow(1).getCell(0);
+        assertNull(cell.getColor());
+        assertEquals(ParagraphAlignment.LEFT, cell.getParagraphs().get(0).getAlignment());
+        XWPFRun run = cell.getParagraphs().get(0).getRuns().get(0);
+        assertFalse(run.isBold());
+        assertEquals(FONT, run.getFontFamily());
+        assertEquals(9.0, run.getFontSizeAsDouble());
+        assertFalse(run.getCTR().getTArray(0).isSetSpace());
+
+        // Пробелы по краям сохраняются через xml:space="preserve"
+        CTText padded = reloaded.getRow(1).getCell(1).getParagraphs().get(0).getRuns().get(0).getCTR().getTArray(0);
+        assertEquals(SpaceAttribute.Space.PRESERVE, padded.getSpace());
+        assertEquals(" Pet ", padded.getStringValue());
+    }
+
+    @Test
+    void appendsToCellParagraph() {
+        XWPFDocument document = new XWPFDocument();
+        DocxTableBuilder table = DocxTableBuilder.create(document, 9500, GRID, FONT, "000000");
+        CTRow row = table.addRow(9, "id", null, "Да", "");
+
+        table.paragraph(row, 1).createRun().setText("Pet");
+
+        CTTc cell = row.getTcArray(1);
+        assertEquals("Pet", cell.getPArray(0).getRArray(0).getTArray(0).getStringValue());
+    }
+
+    private static List<String> cellTexts(XWPFTable table) {
+        List<String> texts = new ArrayList<>();
+        for (XWPFTableRow row : table.getRows()) {
+            for (XWPFTableCell cell : row.getTableCells()) {
+                texts.add(cell.getText());
+            }
+        }
+        return texts;
+    }
+
+    private static XWPFDocument reload(XWPFDocument document) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        document.write(out);
+        return new XWPFDocument(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
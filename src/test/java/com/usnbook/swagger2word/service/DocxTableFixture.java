@@ -0,0 +1,70 @@
+package com.usnbook.swagger2word.service;
+
+import org.apache.poi.xwpf.usermodel.*;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTTblGrid;
+
+import java.math.BigInteger;
+
+/**
+ * Таблица свойств модели двумя путями - через {@link DocxTableBuilder} и прежним через XWPFTable.
+ * Общая для теста и бенчмарка ({@code ./gradlew loadTest}).
+ */
+final class DocxTableFixture {
+
+    static final int[] GRID = {1500, 2500, 1500, 4000};
+    static final String FONT = "Times New Roman";
+
+    private DocxTableFixture() {
+    }
+
+    static void buildDirect(XWPFDocument document, int rows) {
+        DocxTableBuilder table = DocxTableBuilder.create(document, 9500, GRID, FONT, "000000");
+        table.addHeaderRow("F0F8FF", 10, "Поле", "Тип", "Обязательное", "Описание");
+        for (int i = 0; i < rows; i++) {
+            table.addRow(9, "field" + i, "string", i % 2 == 0 ? "Да" : "Нет", "Описание поля " + i);
+        }
+    }
+
+    // Прежняя реализация таблицы свойств модели
+    static void buildLegacy(XWPFDocument document, int rows) {
+        XWPFTable table = document.createTable(1, 4);
+        CTTblGrid grid = table.getCTTbl().addNewTblGrid();
+        for (int width : GRID) {
+            grid.addNewGridCol().setW(BigInteger.valueOf(width));
+        }
+        table.setTableAlignment(TableRowAlign.LEFT);
+
+        XWPFTableRow header = table.getRow(0);
+        String[] titles = {"Поле", "Тип", "Обязательное", "Описание"};
+        for (int i = 0; i < titles.length; i++) {
+            header.getCell(i).setText(titles[i]);
+        }
+        for (XWPFTableCell cell : header.getTableCells()) {
+            cell.setColor("F0F8FF");
+            style(cell, ParagraphAlignment.CENTER, true, 10);
+        }
+
+        for (int i = 0; i < rows; i++) {
+            XWPFTableRow row = table.createRow();
+            row.getCell(0).setText("field" + i);
+            row.getCell(1).setText("string");
+            row.getCell(2).setText(i % 2 == 0 ? "Да" : "Нет");
+            row.getCell(3).setText("Описание поля " + i);
+            for (XWPFTableCell cell : row.getTableCells()) {
+                style(cell, ParagraphAlignment.LEFT, false, 9);
+            }
+        }
+    }
+
+    private static void style(XWPFTableCell cell, ParagraphAlignment alignment, boolean bold, int fontSize) {
+        for (XWPFParagraph paragraph : cell.getParagraphs()) {
+            paragraph.setAlignment(alignment);
+            for (XWPFRun run : paragraph.getRuns()) {
+                run.setBold(bold);
+                run.setFontFamily(FONT);
+                run.setFontSize(fontSize);
+                run.setColor("000000");
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.usnbook.swagger2word.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExampleGeneratorTest {
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Test
+    void buildsValuesFromTypesFormatsAndEnums() throws Exception {
+        ObjectNode root = spec();
+        ObjectNode properties = schema(root, "Order").put("type", "object").putObject("properties");
+        properties.putObject("id").put("type", "string").put("format", "uuid");
+        properties.putObject("status").put("type", "string").putArray("enum").add("NEW").add("PAID");
+        properties.putObject("count").put("type", "integer").put("minimum", 1);
+        properties.putObject("lines").put("type", "array").put("minItems", 3)
+                .putObject("items").put("type", "boolean");
+        ObjectNode customer = properties.putObject("customer");
+        customer.putArray("allOf").addObject().put("$ref", "#/components/schemas/Customer");
+        schema(root, "Customer").put("type", "object")
+                .putObject("properties").putObject("email").put("type", "string").put("format", "email");
+
+        ExampleGenerator.Sample sample = generator(root).sample("application/json", mediaType("Order"));
+        JsonNode json = mapper.readTree(sample.text());
+
+        assertEquals("3fa85f64-5717-4562-b3fc-2c963f66afa6", json.get("id").asText());
+        assertEquals("NEW", json.get("status").asText());
+        assertEquals(1, json.get("count").asInt());
+        assertEquals(ExampleGenerator.MAX_ARRAY_ITEMS, json.get("lines").size());
+        assertEquals("user@example.com", json.get("customer").get("email").asText());
+        assertTrue(sample.truncated(), "minItems больше лимита массива");
+    }
+
+    @Test
+    void recursiveModelsTerminateAndAreMemoized() throws Exception {
+        ObjectNode root = spec();
+        ObjectNode properties = schema(root, "Node").put("type", "object").putObject("properties");
+        properties.putObject("name").put("type", "string");
+        properties.putObject("children").put("type", "array")
+                .putObject("items").put("$ref", "#/components/schemas/Node");
+
+        ExampleGenerator generator = generator(root);
+        ExampleGenerator.Sample sample = generator.sample("application/json", mediaType("Node"));
+
+        assertEquals("{ }", mapper.readTree(sample.text()).get("children").get(0).toPrettyString());
+        assertSame(sample, generator.sample("application/json", mediaType("Node")));
+    }
+
+    @Test
+    void largeModelsAreCutToBudget() throws Exception {
+        ObjectNode root = spec();
+        for (int level = 0; level < 6; level++) {
+            ObjectNode properties = schema(root, "Level" + level).put("type", "object").putObject("properties");
+            for (int i = 0; i < 40; i++) {
+                properties.putObject("field" + i).put("$ref", "#/components/schemas/Level" + (level + 1));
+            }
+        }
+
+        ExampleGenerator.Sample sample = generator(root).sample("application/json", mediaType("Level0"));
+
+        assertTrue(sample.truncated());
+        assertTrue(sample.text().length() <= ExampleGenerator.MAX_CHARS + 4, "длина " + sample.text().length());
+    }
+
+    @Test
+    void prefersExplicitExamplesAndSkipsNonJson() throws Exception {
+        ExampleGenerator generator = generator(spec());
+        OpenApiSpec.MediaType withExample = new OpenApiSpec.MediaType();
+        withExample.setExample("<order/>");
+        OpenApiSpec.MediaType withSchema = new OpenApiSpec.MediaType();
+        withSchema.setSchema(new OpenApiSpec.Schema());
+
+        assertEquals("<order/>", generator.sample("application/xml", withExample).text());
+        assertNull(generator.sample("application/x-www-form-urlencoded", withSchema));
+    }
+
+    private ObjectNode spec() {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("openapi", "3.0.1");
+        root.putObject("info").put("title", "Test API").put("version", "1.0.0");
+        root.putObject("paths");
+        root.putObject("components").putObject("schemas");
+        return root;
+    }
+
+    private static ObjectNode schema(ObjectNode root, String name) {
+        return ((ObjectNode) root.get("components").get("schemas")).putObject(name);
+    }
+
+    private ExampleGenerator generator(ObjectNode root) throws Exception {
+        return new ExampleGenerator(new SpecCompiler().compile(mapper.treeToValue(root, OpenApiSpec.class)));
+    }
+
+    private static OpenApiSpec.MediaType mediaType(String schemaName) {
+        OpenApiSpec.Schema ref = new OpenApiSpec.Schema();
+        ref.setRef("#/components/schemas/" + schemaName);
+        OpenApiSpec.MediaType mediaType = new OpenApiSpec.MediaType();
+        mediaType.setSchema(ref);
+        return mediaType;
+    }
+}
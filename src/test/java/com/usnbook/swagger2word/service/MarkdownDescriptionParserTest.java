@@ -0,0 +1,78 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.service.MarkdownDescriptionParser.Block;
+import com.usnbook.swagger2word.service.MarkdownDescriptionParser.Kind;
+import com.usnbook.swagger2word.service.MarkdownDescriptionParser.Span;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.usnbook.swagger2word.service.MarkdownDescriptionParser.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MarkdownDescriptionParserTest {
+
+    private final MarkdownDescriptionParser parser = new MarkdownDescriptionParser();
+
+    @Test
+    void parsesBlocks() {
+        List<Block> blocks = parser.parse("""
+                ## Создание заказа #
+
+                Заказ создаётся
+                в статусе `NEW`.
+
+                - первый пункт
+                  продолжение
+                  - вложенный
+                2) второй
+
+                > Внимание: операция платная
+
+                ```json
+                {"id": 1}
+                ```
+
+                | Код | Значение |
+                |-----|:--------:|
+                | 1   | a \\| b  |
+                | 2   |
+                """);
+
+        assertEquals(List.of(Kind.HEADING, Kind.PARAGRAPH, Kind.ITEM, Kind.ITEM, Kind.ITEM, Kind.QUOTE, Kind.CODE,
+                Kind.TABLE), blocks.stream().map(Block::kind).toList());
+        assertEquals(new Block(Kind.HEADING, 2, null, List.of(new Span("Создание заказа", 0, null)), null, null),
+                blocks.get(0));
+        assertEquals(List.of(new Span("Заказ создаётся в статусе ", 0, null), new Span("NEW", CODE, null),
+                new Span(".", 0, null)), blocks.get(1).spans());
+        assertEquals(List.of(new Span("первый пункт продолжение", 0, null)), blocks.get(2).spans());
+        assertEquals(1, blocks.get(3).level());
+        assertEquals("2.", blocks.get(4).marker());
+        assertEquals("{\"id\": 1}", blocks.get(6).code());
+        assertEquals(List.of(List.of("Код", "Значение"), List.of("1", "a | b"), List.of("2", "")),
+                blocks.get(7).rows());
+    }
+
+    @Test
+    void parsesInlineMarkup() {
+        assertEquals(List.of(
+                new Span("a ", 0, null),
+                new Span("bold", BOLD, null),
+                new Span(" ", 0, null),
+                new Span("it", ITALIC, null),
+                new Span(" snake_case_name ", 0, null),
+                new Span("docs", 0, "https://example.com/docs"),
+                Span.BREAK,
+                new Span("https://example.com", 0, "https://example.com"),
+                new Span(" 2 * 3 = 6", 0, null)
+        ), MarkdownDescriptionParser.parseInline(
+                "a **bold** _it_ snake_case_name [docs](https://example.com/docs \"Docs\")<br><https://example.com> 2 * 3 = 6"));
+    }
+
+    @Test
+    void cachesRepeatedDescriptions() {
+        String description = "Общее описание **для** всех операций";
+        assertSame(parser.parse(description), parser.parse(new String(description.toCharArray())));
+    }
+}
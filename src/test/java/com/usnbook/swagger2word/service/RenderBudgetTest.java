@@ -0,0 +1,56 @@
+package com.usnbook.swagger2word.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderBudgetTest {
+
+    @Test
+    void summarizesAfterBudgetAndAbortsAtHardLimit() {
+        RenderBudget budget = new RenderBudget(100, 0, null, 0, RenderBudget.Mode.SUMMARIZE);
+
+        budget.charge(100, 0);
+        assertFalse(budget.isExceeded());
+        assertFalse(budget.noticeDue("endpoints"));
+
+        budget.charge(1, 0);
+        assertTrue(budget.isExceeded());
+        assertTrue(budget.getExceededReason().contains("элементов 101"), budget.getExceededReason());
+        assertTrue(budget.noticeDue("endpoints"));
+        assertFalse(budget.noticeDue("endpoints"));
+        assertTrue(budget.noticeDue("schemas"));
+
+        budget.charge(99, 0);
+        assertThrows(RenderBudget.ExceededException.class, () -> budget.charge(1, 0));
+    }
+
+    @Test
+    void abortsOnFirstOverrun() {
+        RenderBudget budget = new RenderBudget(0, 4 * RenderBudget.ELEMENT_XML_BYTES, null, 0, RenderBudget.Mode.ABORT);
+
+        budget.charge(4, 0);
+        RenderBudget.ExceededException e = assertThrows(RenderBudget.ExceededException.class,
+                () -> budget.charge(0, 1));
+        assertTrue(e.getMessage().contains("объём документа"), e.getMessage());
+    }
+
+    @Test
+    void wallTimeIsCheckedOnEveryCharge() throws Exception {
+        RenderBudget budget = new RenderBudget(0, 0, Duration.ofMillis(1), 0, RenderBudget.Mode.ABORT);
+        Thread.sleep(5);
+
+        assertThrows(RenderBudget.ExceededException.class, () -> budget.charge(1, 0));
+    }
+
+    @Test
+    void unlimitedBudgetNeverTrips() {
+        RenderBudget budget = RenderBudget.unlimited();
+
+        budget.charge(Integer.MAX_VALUE, Long.MAX_VALUE / 4);
+        assertFalse(budget.isExceeded());
+        assertEquals(0, budget.getElements());
+    }
+}
@@ -0,0 +1,148 @@
+package com.usnbook.swagger2word.service;
+
+import com.usnbook.swagger2word.model.RenderOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderCoordinatorTest {
+
+    private static final String HASH = "0123456789abcdef";
+
+    private Path directory;
+    private RenderCoordinator coordinator;
+    private final AtomicInteger laneJobs = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("render-coordinator");
+        coordinator = new RenderCoordinator(directory.toString(), Duration.ofSeconds(1), Duration.ofSeconds(10),
+                Duration.ofMillis(20));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        coordinator.shutdown();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) Files.deleteIfExists(file);
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    void secondNodeWaitsOutsideLaneAndReusesClaimedRender() throws Exception {
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        AtomicInteger renders = new AtomicInteger();
+
+        Mono<String> first = coordinator.render(HASH, RenderOptions.defaults(), this::lane, () -> {
+            renders.incrementAndGet();
+            claimed.countDown();
+            assertTrue(finish.await(5, TimeUnit.SECONDS));
+            return document("first.docx");
+        });
+        var firstResult = first.subscribeOn(Schedulers.boundedElastic()).toFuture();
+        assertTrue(claimed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, lockFiles().size());
+
+        var second = coordinator.render(HASH, RenderOptions.defaults(), this::lane, () -> {
+            renders.incrementAndGet();
+            return document("second.docx");
+        }).subscribeOn(Schedulers.boundedElastic()).toFuture();
+        Thread.sleep(200);
+        // Ожидающий узел не занимает слот полосы
+        assertEquals(1, laneJobs.get());
+        assertFalse(second.isDone());
+
+        finish.countDown();
+        String path = firstResult.get(5, TimeUnit.SECONDS);
+        assertEquals(path, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, renders.get());
+        assertTrue(lockFiles().isEmpty());
+    }
+
+    @Test
+    void expiredLeaseIsTakenOver() throws Exception {
+        Path lock = writeLock("dead-node 1", System.currentTimeMillis() - 10_000);
+
+        String path = coordinator.render(HASH, RenderOptions.defaults(), this::lane,
+                () -> document("recovered.docx")).block(Duration.ofSeconds(5));
+
+        assertEquals(directory.resolve("recovered.docx").toString(), path);
+        assertFalse(Files.exists(lock));
+        assertTrue(lockFiles().isEmpty());
+    }
+
+    @Test
+    void liveLeaseIsNotBrokenAndWaitTimesOut() throws Exception {
+        coordinator.shutdown();
+        coordinator = new RenderCoordinator(directory.toString(), Duration.ofSeconds(30), Duration.ofMillis(200),
+                Duration.ofMillis(20));
+        Path lock = writeLock("busy-node 1", System.currentTimeMillis());
+
+        String path = coordinator.render(HASH, RenderOptions.defaults(), this::lane,
+                () -> document("local.docx")).block(Duration.ofSeconds(5));
+
+        assertEquals(directory.resolve("local.docx").toString(), path);
+        assertEquals("busy-node 1", Files.readString(lock));
+    }
+
+    @Test
+    void lockRenewedBetweenCheckAndMoveIsRestored() throws Exception {
+        // Проверка видела просроченный замок "old-node", а к переименованию его уже захватил "new-node"
+        Path lock = writeLock("new-node 1", System.currentTimeMillis());
+
+        coordinator.breakLock(lock, "old-node 1");
+
+        assertEquals("new-node 1", Files.readString(lock));
+        assertEquals(List.of(lock), lockFiles());
+    }
+
+    @Test
+    void staleLockWithExpectedTokenIsRemoved() throws Exception {
+        Path lock = writeLock("dead-node 1", System.currentTimeMillis() - 10_000);
+
+        coordinator.breakLock(lock, "dead-node 1");
+
+        assertFalse(Files.exists(lock));
+        assertTrue(lockFiles().isEmpty());
+    }
+
+    private Mono<String> lane(Callable<String> job) {
+        laneJobs.incrementAndGet();
+        return Mono.fromCallable(job).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private String document(String name) throws Exception {
+        return Files.writeString(directory.resolve(name), name).toString();
+    }
+
+    private Path writeLock(String token, long modifiedMillis) throws Exception {
+        Path lock = directory.resolve(RenderCoordinator.renderKey(HASH, RenderOptions.defaults(), "") + ".lock");
+        Files.write(lock, token.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(lock, FileTime.fromMillis(modifiedMillis));
+        return lock;
+    }
+
+    private List<Path> lockFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().contains(".lock")).toList();
+        }
+    }
+}
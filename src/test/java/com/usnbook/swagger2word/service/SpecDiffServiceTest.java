@@ -0,0 +1,87 @@
+package com.usnbook.swagger2word.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.usnbook.swagger2word.model.OpenApiSpec;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpecDiffServiceTest {
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final SpecDiffService diffService = new SpecDiffService(mapper);
+
+    @Test
+    void identicalSpecsHaveNoChanges() throws Exception {
+        assertTrue(diffService.diff(spec(50, false), spec(50, false)).isEmpty());
+    }
+
+    @Test
+    void reportsChangesBySection() throws Exception {
+        SpecDiffService.Changelog changelog = diffService.diff(spec(20, false), spec(20, true));
+
+        assertEquals(List.of(
+                new SpecDiffService.Change(SpecDiffService.ChangeType.REMOVED, "GET /resource5", "Операция 5"),
+                new SpecDiffService.Change(SpecDiffService.ChangeType.CHANGED, "GET /resource10", "помечена устаревшей"),
+                new SpecDiffService.Change(SpecDiffService.ChangeType.ADDED, "POST /resource", "Создание")
+        ), changelog.getOperations());
+        assertEquals(List.of(
+                new SpecDiffService.Change(SpecDiffService.ChangeType.CHANGED, "GET /resource7: query id", "обязательный: нет → да"),
+                new SpecDiffService.Change(SpecDiffService.ChangeType.CHANGED, "GET /resource8: query id", "тип: string → integer")
+        ), changelog.getParameters());
+        assertEquals(List.of(
+                new SpecDiffService.Change(SpecDiffService.ChangeType.ADDED, "GET /resource9: 404", "Не найдено")
+        ), changelog.getResponses());
+        assertEquals(List.of(
+                new SpecDiffService.Change(SpecDiffService.ChangeType.REMOVED, "Model1.count", "integer"),
+                new SpecDiffService.Change(SpecDiffService.ChangeType.ADDED, "Model2.active", "boolean"),
+                new SpecDiffService.Change(SpecDiffService.ChangeType.CHANGED, "Model3.name", "стало обязательным"),
+                new SpecDiffService.Change(SpecDiffService.ChangeType.CHANGED, "Model4.name", "тип: string → number")
+        ), changelog.getSchemas());
+    }
+
+    private OpenApiSpec spec(int paths, boolean changed) throws Exception {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("openapi", "3.0.1");
+        root.putObject("info").put("title", "Test API").put("version", changed ? "2.0.0" : "1.0.0");
+
+        ObjectNode pathItems = root.putObject("paths");
+        for (int i = 0; i < paths; i++) {
+            if (changed && i == 5) continue;
+            ObjectNode get = pathItems.putObject("/resource" + i).putObject("get");
+            get.put("summary", "Операция " + i);
+            if (changed && i == 10) get.put("deprecated", true);
+
+            get.putArray("parameters").addObject()
+                    .put("name", "id").put("in", "query").put("required", changed && i == 7)
+                    .putObject("schema").put("type", changed && i == 8 ? "integer" : "string");
+
+            ObjectNode responses = get.putObject("responses");
+            responses.putObject("200").put("description", "OK")
+                    .putObject("content").putObject("application/json")
+                    .putObject("schema").put("$ref", "#/components/schemas/Model" + (i % 10));
+            if (changed && i == 9) responses.putObject("404").put("description", "Не найдено");
+        }
+        if (changed) {
+            pathItems.putObject("/resource").putObject("post").put("summary", "Создание");
+        }
+
+        ObjectNode schemas = root.putObject("components").putObject("schemas");
+        for (int i = 0; i < 10; i++) {
+            ObjectNode schema = schemas.putObject("Model" + i);
+            schema.put("type", "object");
+            ObjectNode properties = schema.putObject("properties");
+            properties.putObject("name").put("type", changed && i == 4 ? "number" : "string");
+            if (!(changed && i == 1)) properties.putObject("count").put("type", "integer");
+            if (changed && i == 2) properties.putObject("active").put("type", "boolean");
+            if (changed && i == 3) schema.putArray("required").add("name");
+        }
+        return mapper.treeToValue(root, OpenApiSpec.class);
+    }
+}